@@ -111,6 +111,25 @@ public final class ClassGenerationContext {
     return classSide;
   }
 
+  /**
+   * @return the class in which the lookup of super sends starts, or null if
+   *         it is not known while the class is being parsed
+   */
+  @SlowPath
+  public SClass getLexicalSuperClass() {
+    if (superName == null) {
+      return null;
+    }
+    Object superClass = universe.getGlobal(superName);
+    if (!(superClass instanceof SClass)) {
+      return null;
+    }
+    if (classSide) {
+      return ((SClass) superClass).getSOMClass();
+    }
+    return (SClass) superClass;
+  }
+
   @SlowPath
   public SClass assemble() {
     // build class class name
@@ -129,23 +129,26 @@ public final class MethodGenerationContext {
   public void makeCatchNonLocalReturn() {
     throwsNonLocalReturn = true;
 
-    MethodGenerationContext ctx = getOuterContext();
+    // the return goes through the contexts of all enclosing blocks to find
+    // the frame of the method, so, they need their context, too
+    MethodGenerationContext ctx = outerGenc;
     assert ctx != null;
+    while (ctx.outerGenc != null) {
+      ctx.throwsNonLocalReturn = true;
+      ctx = ctx.outerGenc;
+    }
     ctx.needsToCatchNonLocalReturn = true;
   }
 
+  /**
+   * Blocks that do not access variables of outer contexts, and that do not
+   * return non-locally, are created without context, i.e., the frame of
+   * the outer method does not need to be materialized.
+   */
   public boolean requiresContext() {
     return throwsNonLocalReturn || accessesVariablesOfOuterContext;
   }
 
-  private MethodGenerationContext getOuterContext() {
-    MethodGenerationContext ctx = outerGenc;
-    while (ctx.outerGenc != null) {
-      ctx = ctx.outerGenc;
-    }
-    return ctx;
-  }
-
   public boolean needsToCatchNonLocalReturn() {
     return needsToCatchNonLocalReturn;
   }
@@ -189,7 +192,8 @@ public final class MethodGenerationContext {
 
     Method truffleMethod =
         new Method(getSourceSectionForMethod(sourceSection),
-            frameDescriptor, methodBody, getLexicalContext());
+            frameDescriptor, methodBody, getLexicalContext(),
+            takesBlockArguments());
 
     setOuterMethodInLexicalScopes(truffleMethod);
 
@@ -200,6 +204,15 @@ public final class MethodGenerationContext {
     return meth;
   }
 
+  private boolean takesBlockArguments() {
+    for (Argument arg : arguments.values()) {
+      if (arg.isEvaluatedAsBlock()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void setOuterMethodInLexicalScopes(final Method method) {
     for (SMethod m : embeddedBlockMethods) {
       Method blockMethod = (Method) m.getInvokable();
@@ -254,6 +267,17 @@ public final class MethodGenerationContext {
     locals.put(local, l);
   }
 
+  /**
+   * Adds a local for a variable of a block that is inlined into this
+   * method. The name only needs to be unique, the variable is not visible
+   * in the method itself.
+   */
+  public Local addLocalForInlinedBlock(final String name) {
+    Local l = new Local(name, frameDescriptor.addFrameSlot(name));
+    locals.put(name, l);
+    return l;
+  }
+
   public boolean isBlockMethod() {
     return blockMethod;
   }
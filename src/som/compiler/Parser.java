@@ -65,15 +65,18 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
+import som.compiler.Variable.Argument;
 import som.compiler.Variable.Local;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.FieldNode.FieldReadNode;
 import som.interpreter.nodes.FieldNode.FieldWriteNode;
 import som.interpreter.nodes.GlobalNode;
 import som.interpreter.nodes.MessageSendNode;
-import som.interpreter.nodes.MessageSendNode.AbstractMessageSendNode;
 import som.interpreter.nodes.ReturnNonLocalNode;
 import som.interpreter.nodes.SequenceNode;
+import som.interpreter.nodes.UninitializedVariableNode.UninitializedSuperReadNode;
+import som.interpreter.nodes.UninitializedVariableNode.UninitializedVariableReadNode;
 import som.interpreter.nodes.literals.BigIntegerLiteralNode;
 import som.interpreter.nodes.literals.BlockNode;
 import som.interpreter.nodes.literals.BlockNode.BlockNodeWithContext;
@@ -82,6 +85,15 @@ import som.interpreter.nodes.literals.IntegerLiteralNode;
 import som.interpreter.nodes.literals.LiteralNode;
 import som.interpreter.nodes.literals.StringLiteralNode;
 import som.interpreter.nodes.literals.SymbolLiteralNode;
+import som.interpreter.nodes.specialized.BooleanInlinedLiteralNode.AndInlinedLiteralNode;
+import som.interpreter.nodes.specialized.BooleanInlinedLiteralNode.OrInlinedLiteralNode;
+import som.interpreter.nodes.specialized.IfInlinedLiteralNode;
+import som.interpreter.nodes.specialized.IfTrueIfFalseInlinedLiteralsNode;
+import som.interpreter.nodes.specialized.IntDownToDoInlinedLiteralsNode;
+import som.interpreter.nodes.specialized.IntToDoInlinedLiteralsNode;
+import som.interpreter.nodes.specialized.RepeatInlinedLiteralNode;
+import som.interpreter.nodes.specialized.TimesRepeatInlinedLiteralNode;
+import som.interpreter.nodes.specialized.WhileInlinedLiteralsNode;
 import som.vm.Universe;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable.SMethod;
@@ -105,6 +117,9 @@ public final class Parser {
   private static final List<Symbol> binaryOpSyms        = new ArrayList<Symbol>();
   private static final List<Symbol> keywordSelectorSyms = new ArrayList<Symbol>();
 
+  private static final boolean INLINE_CONTROL_STRUCTURES =
+      !Boolean.getBoolean("som.disableControlStructureInlining");
+
   static {
     for (Symbol s : new Symbol[] {Not, And, Or, Star, Div, Mod, Plus, Equal,
         More, Less, Comma, At, Per, NONE}) {
@@ -612,14 +627,14 @@ public final class Parser {
     return identifier();
   }
 
-  private AbstractMessageSendNode messages(final MethodGenerationContext mgenc,
+  private ExpressionNode messages(final MethodGenerationContext mgenc,
       final ExpressionNode receiver) throws ParseError {
-    AbstractMessageSendNode msg;
+    ExpressionNode msg;
     if (isIdentifier(sym)) {
-      msg = unaryMessage(receiver);
+      msg = unaryMessage(mgenc, receiver);
 
       while (isIdentifier(sym)) {
-        msg = unaryMessage(msg);
+        msg = unaryMessage(mgenc, msg);
       }
 
       while (sym == OperatorSequence || symIn(binaryOpSyms)) {
@@ -645,20 +660,21 @@ public final class Parser {
     return msg;
   }
 
-  private AbstractMessageSendNode unaryMessage(final ExpressionNode receiver) throws ParseError {
+  private ExpressionNode unaryMessage(final MethodGenerationContext mgenc,
+      final ExpressionNode receiver) throws ParseError {
     SourceCoordinate coord = getCoordinate();
     SSymbol selector = unarySelector();
-    return MessageSendNode.create(selector, new ExpressionNode[] {receiver},
+    return createMessageSend(mgenc, selector, new ExpressionNode[] {receiver},
         getSource(coord));
   }
 
-  private AbstractMessageSendNode binaryMessage(final MethodGenerationContext mgenc,
+  private ExpressionNode binaryMessage(final MethodGenerationContext mgenc,
       final ExpressionNode receiver) throws ParseError {
     SourceCoordinate coord = getCoordinate();
     SSymbol msg = binarySelector();
     ExpressionNode operand = binaryOperand(mgenc);
 
-    return MessageSendNode.create(msg, new ExpressionNode[] {receiver, operand},
+    return createMessageSend(mgenc, msg, new ExpressionNode[] {receiver, operand},
         getSource(coord));
   }
 
@@ -669,12 +685,12 @@ public final class Parser {
     // Example: 2 * 3 asString
     //   is evaluated as 2 * (3 asString)
     while (isIdentifier(sym)) {
-      operand = unaryMessage(operand);
+      operand = unaryMessage(mgenc, operand);
     }
     return operand;
   }
 
-  private AbstractMessageSendNode keywordMessage(final MethodGenerationContext mgenc,
+  private ExpressionNode keywordMessage(final MethodGenerationContext mgenc,
       final ExpressionNode receiver) throws ParseError {
     SourceCoordinate coord = getCoordinate();
     List<ExpressionNode> arguments = new ArrayList<ExpressionNode>();
@@ -690,10 +706,198 @@ public final class Parser {
 
     SSymbol msg = universe.symbolFor(kw.toString());
 
-    return MessageSendNode.create(msg, arguments.toArray(new ExpressionNode[0]),
+    return createMessageSend(mgenc, msg, arguments.toArray(new ExpressionNode[0]),
         getSource(coord));
   }
 
+  private ExpressionNode createMessageSend(
+      final MethodGenerationContext mgenc, final SSymbol selector,
+      final ExpressionNode[] arguments, final SourceSection source) {
+    // super sends are resolved directly, the receiver class is lexically known
+    if (arguments[0] instanceof UninitializedSuperReadNode) {
+      return MessageSendNode.createSuperSend(selector, arguments,
+          mgenc.getHolder().getLexicalSuperClass(), source);
+    }
+
+    if (isBlockEvaluation(selector)) {
+      markArgumentEvaluatedAsBlock(arguments[0]);
+    }
+
+    if (INLINE_CONTROL_STRUCTURES) {
+      ExpressionNode inlined = inlineControlStructure(mgenc, selector,
+          arguments, source);
+      if (inlined != null) {
+        return inlined;
+      }
+    }
+    return MessageSendNode.create(selector, arguments, source);
+  }
+
+  /**
+   * Control structures with literal blocks are inlined into the method.
+   * The bodies of the blocks are evaluated directly in the method's frame,
+   * without creating and calling the blocks.
+   *
+   * @return the inlined control structure, or null if the message send
+   *         is not an inlinable control structure
+   */
+  private ExpressionNode inlineControlStructure(
+      final MethodGenerationContext mgenc, final SSymbol selector,
+      final ExpressionNode[] arguments, final SourceSection source) {
+    switch (selector.getString()) {
+      case "ifTrue:":
+      case "ifFalse:":
+        if (isLiteralBlock(arguments[1], 0)) {
+          BlockNode block = (BlockNode) arguments[1];
+          return new IfInlinedLiteralNode(arguments[0],
+              "ifTrue:".equals(selector.getString()),
+              inlineBlock(mgenc, block), block, selector, source);
+        }
+        return null;
+      case "ifTrue:ifFalse:":
+      case "ifFalse:ifTrue:":
+        if (isLiteralBlock(arguments[1], 0) && isLiteralBlock(arguments[2], 0)) {
+          BlockNode first  = (BlockNode) arguments[1];
+          BlockNode second = (BlockNode) arguments[2];
+          ExpressionNode firstBody  = inlineBlock(mgenc, first);
+          ExpressionNode secondBody = inlineBlock(mgenc, second);
+          if ("ifTrue:ifFalse:".equals(selector.getString())) {
+            return new IfTrueIfFalseInlinedLiteralsNode(arguments[0],
+                firstBody, secondBody, first, second, selector, source);
+          } else {
+            return new IfTrueIfFalseInlinedLiteralsNode(arguments[0],
+                secondBody, firstBody, first, second, selector, source);
+          }
+        }
+        return null;
+      case "and:":
+        if (isLiteralBlock(arguments[1], 0)) {
+          BlockNode block = (BlockNode) arguments[1];
+          return new AndInlinedLiteralNode(arguments[0],
+              inlineBlock(mgenc, block), block, selector, source);
+        }
+        return null;
+      case "or:":
+        if (isLiteralBlock(arguments[1], 0)) {
+          BlockNode block = (BlockNode) arguments[1];
+          return new OrInlinedLiteralNode(arguments[0],
+              inlineBlock(mgenc, block), block, selector, source);
+        }
+        return null;
+      case "whileTrue:":
+      case "whileFalse:":
+        if (isInlinableLoopBlock(arguments[0], 0)
+            && isInlinableLoopBlock(arguments[1], 0)) {
+          return new WhileInlinedLiteralsNode(
+              inlineBlock(mgenc, (BlockNode) arguments[0]),
+              inlineBlock(mgenc, (BlockNode) arguments[1]),
+              "whileTrue:".equals(selector.getString()), selector, source);
+        }
+        return null;
+      case "to:do:":
+        if (isInlinableLoopBlock(arguments[2], 1)) {
+          BlockNode block = (BlockNode) arguments[2];
+          InlinerForLexicallyEmbeddedMethods inliner =
+              InlinerForLexicallyEmbeddedMethods.create(mgenc, block);
+          return new IntToDoInlinedLiteralsNode(arguments[0], arguments[1],
+              inliner.inlineBody(), block, inliner.getArgumentLocal(1).slot,
+              inliner.addHiddenLocal("!limit").slot, selector, source);
+        }
+        return null;
+      case "downTo:do:":
+        if (isInlinableLoopBlock(arguments[2], 1)) {
+          BlockNode block = (BlockNode) arguments[2];
+          InlinerForLexicallyEmbeddedMethods inliner =
+              InlinerForLexicallyEmbeddedMethods.create(mgenc, block);
+          return new IntDownToDoInlinedLiteralsNode(arguments[0], arguments[1],
+              inliner.inlineBody(), block, inliner.getArgumentLocal(1).slot,
+              inliner.addHiddenLocal("!limit").slot, selector, source);
+        }
+        return null;
+      case "timesRepeat:":
+        if (isInlinableLoopBlock(arguments[1], 0)) {
+          BlockNode block = (BlockNode) arguments[1];
+          InlinerForLexicallyEmbeddedMethods inliner =
+              InlinerForLexicallyEmbeddedMethods.create(mgenc, block);
+          return new TimesRepeatInlinedLiteralNode(arguments[0],
+              inliner.inlineBody(), block,
+              inliner.addHiddenLocal("!remaining").slot, selector, source);
+        }
+        return null;
+      case "whileTrue":
+      case "whileFalse":
+        if (isInlinableLoopBlock(arguments[0], 0)) {
+          return new WhileInlinedLiteralsNode(
+              inlineBlock(mgenc, (BlockNode) arguments[0]),
+              "whileTrue".equals(selector.getString()), selector, source);
+        }
+        return null;
+      case "repeat":
+        if (isInlinableLoopBlock(arguments[0], 0)) {
+          return new RepeatInlinedLiteralNode(
+              inlineBlock(mgenc, (BlockNode) arguments[0]), selector, source);
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isLiteralBlock(final ExpressionNode node,
+      final int numberOfArguments) {
+    return node instanceof BlockNode && ((BlockNode) node).getMethod().
+        getNumberOfArguments() == numberOfArguments + 1;
+  }
+
+  /**
+   * Blocks that are evaluated repeatedly are not inlined, if a nested block
+   * captures their variables, because each evaluation needs its own context.
+   */
+  private static boolean isInlinableLoopBlock(final ExpressionNode node,
+      final int numberOfArguments) {
+    return isLiteralBlock(node, numberOfArguments)
+        && !InlinerForLexicallyEmbeddedMethods.isContextCapturedByNestedBlock(
+            (BlockNode) node);
+  }
+
+  private static ExpressionNode inlineBlock(final MethodGenerationContext mgenc,
+      final BlockNode block) {
+    return InlinerForLexicallyEmbeddedMethods.create(mgenc, block).inlineBody();
+  }
+
+  private static boolean isBlockEvaluation(final SSymbol selector) {
+    switch (selector.getString()) {
+      case "value":
+      case "value:":
+      case "value:with:":
+      case "valueWithArguments:":
+      case "whileTrue:":
+      case "whileFalse:":
+      case "whileTrue":
+      case "whileFalse":
+      case "repeat":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Remember arguments that are evaluated as blocks, also when the
+   * argument belongs to an outer method. The splitting policy prefers
+   * methods that take blocks.
+   */
+  private static void markArgumentEvaluatedAsBlock(final ExpressionNode receiver) {
+    if (!(receiver instanceof UninitializedVariableReadNode)) {
+      return;
+    }
+
+    Variable variable = ((UninitializedVariableReadNode) receiver).getVariable();
+    if (variable instanceof Argument && !((Argument) variable).isSelf()) {
+      ((Argument) variable).markEvaluatedAsBlock();
+    }
+  }
+
   private ExpressionNode formula(final MethodGenerationContext mgenc) throws ParseError {
     ExpressionNode operand = binaryOperand(mgenc);
 
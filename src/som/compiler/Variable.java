@@ -72,9 +72,12 @@ public abstract class Variable {
   public static final class Argument extends Variable {
     public final int index;
 
+    private boolean isEvaluatedAsBlock;
+
     Argument(final String name, final FrameSlot slot, final int index) {
       super(name, slot);
       this.index = index;
+      this.isEvaluatedAsBlock = false;
     }
 
     @Override
@@ -82,12 +85,25 @@ public abstract class Variable {
       Argument arg = new Argument(name, inlinedSlot, index);
       arg.isRead = isRead;
       arg.isReadOutOfContext = isReadOutOfContext;
+      arg.isEvaluatedAsBlock = isEvaluatedAsBlock;
       return arg;
     }
 
     public boolean isSelf() {
       return "self".equals(name) || "$blockSelf".equals(name);
     }
+
+    /**
+     * Marks the argument as the receiver of a block evaluation, e.g.,
+     * #value:, which indicates that the method expects a block.
+     */
+    public void markEvaluatedAsBlock() {
+      isEvaluatedAsBlock = true;
+    }
+
+    public boolean isEvaluatedAsBlock() {
+      return isEvaluatedAsBlock;
+    }
   }
 
   public static final class Local extends Variable {
@@ -30,17 +30,24 @@ package som.interpreter;
  * Currently it is used to implement non-local returns by marking
  * stack frames with it, and checking for the marker during unwinding.
  *
+ * Markers are created lazily, only when a block actually returns to a frame.
+ * As long as the frame is on the stack and nothing returned to it, its
+ * marker slot is null. When the frame is left, the slot is set to
+ * NOT_ON_STACK.
+ *
  * @author Stefan Marr
  */
 public final class FrameOnStackMarker {
-  private boolean isOnStack;
+  public static final FrameOnStackMarker NOT_ON_STACK = new FrameOnStackMarker(false);
+
+  private final boolean isOnStack;
 
   public FrameOnStackMarker() {
-    isOnStack = true;
+    this(true);
   }
 
-  public void frameNoLongerOnStack() {
-    isOnStack = false;
+  private FrameOnStackMarker(final boolean isOnStack) {
+    this.isOnStack = isOnStack;
   }
 
   public boolean isOnStack() {
@@ -0,0 +1,283 @@
+package som.interpreter;
+
+import static som.interpreter.SNodeFactory.createGlobalRead;
+import static som.interpreter.SNodeFactory.createVariableWrite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import som.compiler.MethodGenerationContext;
+import som.compiler.Variable;
+import som.compiler.Variable.Argument;
+import som.compiler.Variable.Local;
+import som.interpreter.nodes.ArgumentInitializationNode;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.SOMNode;
+import som.interpreter.nodes.SequenceNode;
+import som.interpreter.nodes.UninitializedVariableNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vm.Universe;
+import som.vmobjects.SInvokable.SMethod;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.NodeVisitor;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * Embeds the body of a literal block into the method in which the block is
+ * defined. The variables of the block become locals of the method, and
+ * all accesses to outer contexts, also the ones of nested blocks, are
+ * adapted to the removed context level. The locals declared by the block
+ * are set to nil before each evaluation of the body, as they would be in
+ * a new context of the block.
+ */
+public final class InlinerForLexicallyEmbeddedMethods implements NodeVisitor {
+
+  public static InlinerForLexicallyEmbeddedMethods create(
+      final MethodGenerationContext mgenc, final BlockNode block) {
+    SourceSection source = block.getSourceSection();
+    return new InlinerForLexicallyEmbeddedMethods(mgenc,
+        (Method) block.getMethod().getInvokable(),
+        new HashMap<FrameSlot, Local>(),
+        "@" + source.getStartLine() + ":" + source.getStartColumn(), 0, null);
+  }
+
+  private final MethodGenerationContext mgenc;
+  private final Method                  blockMethod;
+  private final HashMap<FrameSlot, Local> embeddedLocals;
+  private final String                  localNameSuffix;
+
+  // the context level of the visited nodes that refers to the inlined block
+  private final int                     contextLevel;
+
+  // the lexical context of blocks nested in the visited method,
+  // null if it is the inlined block itself
+  private final LexicalContext          nestedBlockContext;
+  private final List<SMethod>           nestedBlockMethods;
+
+  private InlinerForLexicallyEmbeddedMethods(
+      final MethodGenerationContext mgenc, final Method blockMethod,
+      final HashMap<FrameSlot, Local> embeddedLocals,
+      final String localNameSuffix, final int contextLevel,
+      final LexicalContext nestedBlockContext) {
+    this.mgenc              = mgenc;
+    this.blockMethod        = blockMethod;
+    this.embeddedLocals     = embeddedLocals;
+    this.localNameSuffix    = localNameSuffix;
+    this.contextLevel       = contextLevel;
+    this.nestedBlockContext = nestedBlockContext;
+    this.nestedBlockMethods = new ArrayList<SMethod>();
+  }
+
+  /**
+   * @return a copy of the body of the block, which is to be evaluated in
+   *         the frame of the method
+   */
+  public ExpressionNode inlineBody() {
+    assert contextLevel == 0;
+    return resetLocalsBeforeBody(inline(blockMethod).getFirstMethodBodyNode());
+  }
+
+  private ExpressionNode resetLocalsBeforeBody(final ExpressionNode body) {
+    ArgumentInitializationNode blockBody =
+        (ArgumentInitializationNode) blockMethod.getUninitializedBody();
+    SourceSection source = body.getSourceSection();
+
+    ArrayList<ExpressionNode> expressions = new ArrayList<>();
+    for (FrameSlot slot : blockMethod.getFrameDescriptor().getSlots()) {
+      // locals that are never accessed were not embedded
+      Local local = embeddedLocals.get(slot);
+      if (local != null && isDeclaredLocal(blockBody, slot)) {
+        expressions.add(createVariableWrite(local, 0, mgenc.getLocalSelfSlot(),
+            createGlobalRead("nil", Universe.current(), source), source));
+      }
+    }
+
+    if (expressions.isEmpty()) {
+      return body;
+    }
+    expressions.add(body);
+    return new SequenceNode(
+        expressions.toArray(new ExpressionNode[expressions.size()]), source);
+  }
+
+  /**
+   * The locals of blocks that are inlined into the block, and hidden locals
+   * of inlined control structures have names that are not valid
+   * identifiers. They are initialized by the inlined nodes themselves.
+   */
+  private static boolean isDeclaredLocal(
+      final ArgumentInitializationNode blockBody, final FrameSlot slot) {
+    String name = String.valueOf(slot.getIdentifier());
+    return !blockBody.isArgumentSlot(slot)
+        && name.indexOf('@') < 0 && !name.startsWith("!");
+  }
+
+  /**
+   * @return true, if a block nested in the given block accesses its
+   *         arguments or locals. Each evaluation of a block has its own
+   *         context, which the nested blocks capture. A loop body that is
+   *         inlined shares the locals of the method between all iterations,
+   *         and thus, it must not be inlined in that case.
+   */
+  public static boolean isContextCapturedByNestedBlock(final BlockNode block) {
+    Method method = (Method) block.getMethod().getInvokable();
+    return accessesContextFromNestedBlock(method.getUninitializedBody(), 0);
+  }
+
+  private static boolean accessesContextFromNestedBlock(final Node body,
+      final int contextLevel) {
+    if (contextLevel > 0) {
+      for (UninitializedVariableNode node : NodeUtil.findAllNodeInstances(
+          body, UninitializedVariableNode.class)) {
+        if (node.getContextLevel() == contextLevel
+            && !isSelf(node.getVariable())) {
+          return true;
+        }
+      }
+    }
+
+    for (BlockNode nested : NodeUtil.findAllNodeInstances(body, BlockNode.class)) {
+      Method method = (Method) nested.getMethod().getInvokable();
+      if (accessesContextFromNestedBlock(method.getUninitializedBody(),
+          contextLevel + 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSelf(final Variable variable) {
+    return variable instanceof Argument && ((Argument) variable).isSelf();
+  }
+
+  private ArgumentInitializationNode inline(final Method method) {
+    ArgumentInitializationNode body = NodeUtil.cloneNode(
+        (ArgumentInitializationNode) method.getUninitializedBody());
+    body.accept(this);
+    return body;
+  }
+
+  /**
+   * @return the local of the method that replaces the block argument with
+   *         the given index
+   */
+  public Local getArgumentLocal(final int index) {
+    assert contextLevel == 0;
+    ArgumentInitializationNode body =
+        (ArgumentInitializationNode) blockMethod.getUninitializedBody();
+    return getEmbeddedLocal(body.getArgumentSlot(index));
+  }
+
+  /**
+   * @return a new local of the method, which holds state of the inlined
+   *         control structure that is not visible to the program
+   */
+  public Local addHiddenLocal(final String name) {
+    assert contextLevel == 0;
+    return mgenc.addLocalForInlinedBlock(name + localNameSuffix);
+  }
+
+  @Override
+  public boolean visit(final Node node) {
+    if (node instanceof SOMNode) {
+      ((SOMNode) node).replaceWithLexicallyEmbeddedNode(this);
+    }
+    return true;
+  }
+
+  /**
+   * @return true, if a node with the given context level accesses the
+   *         inlined block
+   */
+  public boolean accessesInlinedBlock(final int nodeContextLevel) {
+    return nodeContextLevel == contextLevel;
+  }
+
+  public boolean isInlinedBlockBody() {
+    return contextLevel == 0;
+  }
+
+  /**
+   * @return the context level of a node after the inlined block's context
+   *         has been removed from the lexical scope chain
+   */
+  public int getEmbeddedContextLevel(final int nodeContextLevel) {
+    if (nodeContextLevel > contextLevel) {
+      return nodeContextLevel - 1;
+    }
+    return nodeContextLevel;
+  }
+
+  public FrameSlot getEmbeddedLocalSelf(final FrameSlot localSelf) {
+    if (contextLevel == 0) {
+      return mgenc.getLocalSelfSlot();
+    }
+    return localSelf;
+  }
+
+  /**
+   * @return the local of the method, which replaces the given slot of the
+   *         inlined block
+   */
+  public Local getEmbeddedLocal(final FrameSlot blockSlot) {
+    Local local = embeddedLocals.get(blockSlot);
+    if (local == null) {
+      local = mgenc.addLocalForInlinedBlock(
+          String.valueOf(blockSlot.getIdentifier()) + localNameSuffix);
+      embeddedLocals.put(blockSlot, local);
+    }
+    return local;
+  }
+
+  /**
+   * A non-local return, which remains non-local in the inlined body,
+   * requires the method to have a context.
+   */
+  public void reportNonLocalReturn() {
+    if (contextLevel == 0) {
+      mgenc.makeCatchNonLocalReturn();
+    }
+  }
+
+  /**
+   * @return a copy of the nested block method, which is adapted to be
+   *         defined in the method instead of the inlined block
+   */
+  public SMethod embedNestedBlock(final SMethod nestedBlock) {
+    Method method = (Method) nestedBlock.getInvokable();
+
+    LexicalContext outerContext;
+    if (nestedBlockContext == null) {
+      outerContext = new LexicalContext(mgenc.getFrameDescriptor(),
+          mgenc.getLexicalContext());
+    } else {
+      outerContext = nestedBlockContext;
+    }
+
+    LexicalContext contextOfNested = new LexicalContext(
+        method.getFrameDescriptor(), outerContext);
+    InlinerForLexicallyEmbeddedMethods nestedInliner =
+        new InlinerForLexicallyEmbeddedMethods(mgenc, method, embeddedLocals,
+            localNameSuffix, contextLevel + 1, contextOfNested);
+
+    Method embedded = method.cloneWithNewBody(nestedInliner.inline(method),
+        outerContext);
+    contextOfNested.setOuterMethod(embedded);
+
+    SMethod result = (SMethod) Universe.newMethod(nestedBlock.getSignature(),
+        embedded, false,
+        nestedInliner.nestedBlockMethods.toArray(new SMethod[0]));
+
+    if (nestedBlockContext == null) {
+      mgenc.addEmbeddedBlockMethod(result);
+    } else {
+      nestedBlockMethods.add(result);
+    }
+    return result;
+  }
+}
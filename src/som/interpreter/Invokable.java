@@ -16,12 +16,19 @@ public abstract class Invokable extends RootNode {
 
   private final ExpressionNode  uninitializedBody;
 
+  // the invokable this one was split from, or itself
+  private Invokable original;
+  private int       numberOfSplits;
+  private int       nodeCount;
+
   public Invokable(final SourceSection sourceSection,
       final FrameDescriptor frameDescriptor,
       final ExpressionNode expressionOrSequence) {
     super(sourceSection, frameDescriptor);
     this.uninitializedBody    = NodeUtil.cloneNode(expressionOrSequence);
     this.expressionOrSequence = expressionOrSequence;
+    this.original             = this;
+    this.nodeCount            = -1;
   }
 
   public ExpressionNode getUninitializedBody() {
@@ -30,14 +37,54 @@ public abstract class Invokable extends RootNode {
 
   @Override
   public final Object execute(final VirtualFrame frame) {
+    if (ReturnException.COUNT_UNWINDING) {
+      return executeCountingUnwinding(frame);
+    }
     return expressionOrSequence.executeGeneric(frame);
   }
 
+  private Object executeCountingUnwinding(final VirtualFrame frame) {
+    try {
+      return expressionOrSequence.executeGeneric(frame);
+    } catch (ReturnException e) {
+      e.crossedFrame();
+      throw e;
+    }
+  }
+
   public abstract Invokable cloneWithNewLexicalContext(final LexicalContext outerContext);
 
   @Override
   public final boolean isSplittable() {
-    return true;
+    return SplittingPolicy.isSplittable(this);
+  }
+
+  /**
+   * @return the number of nodes in the uninitialized body, i.e., the size
+   *         of the AST a split creates
+   */
+  public final int getNodeCount() {
+    if (nodeCount < 0) {
+      nodeCount = NodeUtil.countNodes(uninitializedBody);
+    }
+    return nodeCount;
+  }
+
+  public final Invokable getOriginal() {
+    return original;
+  }
+
+  /**
+   * @return the number of times the original invokable has been split
+   */
+  public final int getNumberOfSplits() {
+    return original.numberOfSplits;
+  }
+
+  protected final void recordSplit(final Invokable clone) {
+    clone.original = original;
+    original.numberOfSplits++;
+    SplittingPolicy.reportSplit(original);
   }
 
   public final RootCallTarget createCallTarget() {
@@ -47,4 +94,6 @@ public abstract class Invokable extends RootNode {
   public abstract void propagateLoopCountThroughoutLexicalScope(final long count);
 
   public abstract boolean isBlock();
+
+  public abstract boolean takesBlockArguments();
 }
@@ -31,13 +31,16 @@ import com.oracle.truffle.api.source.SourceSection;
 public final class Method extends Invokable {
 
   private final LexicalContext outerContext;
+  private final boolean        takesBlockArguments;
 
   public Method(final SourceSection sourceSection,
                 final FrameDescriptor frameDescriptor,
                 final ExpressionNode expressions,
-                final LexicalContext outerContext) {
+                final LexicalContext outerContext,
+                final boolean takesBlockArguments) {
     super(sourceSection, frameDescriptor, expressions);
     this.outerContext = outerContext;
+    this.takesBlockArguments = takesBlockArguments;
   }
 
   @Override
@@ -56,16 +59,31 @@ public final class Method extends Invokable {
     ExpressionNode  inlinedBody = Inliner.doInline(getUninitializedBody(),
         inlinedContext);
     Method clone = new Method(getSourceSection(), inlinedFrameDescriptor,
-        inlinedBody, outerContext);
+        inlinedBody, outerContext, takesBlockArguments);
     inlinedContext.setOuterMethod(clone);
     return clone;
   }
 
+  /**
+   * @return a copy of this method with a new body, which is defined in the
+   *         given lexical context
+   */
+  public Method cloneWithNewBody(final ExpressionNode body,
+      final LexicalContext outerContext) {
+    return new Method(getSourceSection(), getFrameDescriptor(), body,
+        outerContext, takesBlockArguments);
+  }
+
   @Override
   public boolean isBlock() {
     return outerContext != null;
   }
 
+  @Override
+  public boolean takesBlockArguments() {
+    return takesBlockArguments;
+  }
+
   public void setOuterContextMethod(final Method method) {
     outerContext.setOuterMethod(method);
   }
@@ -82,6 +100,8 @@ public final class Method extends Invokable {
 
   @Override
   public RootNode split() {
-    return cloneWithNewLexicalContext(outerContext);
+    Invokable clone = cloneWithNewLexicalContext(outerContext);
+    recordSplit(clone);
+    return clone;
   }
 }
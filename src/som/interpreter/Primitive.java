@@ -29,7 +29,9 @@ public final class Primitive extends Invokable {
 
   @Override
   public RootNode split() {
-    return cloneWithNewLexicalContext(null);
+    Invokable clone = cloneWithNewLexicalContext(null);
+    recordSplit(clone);
+    return clone;
   }
 
   @Override
@@ -37,6 +39,11 @@ public final class Primitive extends Invokable {
     return false;
   }
 
+  @Override
+  public boolean takesBlockArguments() {
+    return false;
+  }
+
   @Override
   public String toString() {
     return "Primitive " + expressionOrSequence.getClass().getSimpleName() + "@" + Integer.toHexString(hashCode());
@@ -49,7 +56,9 @@ public final class Primitive extends Invokable {
     FrameInstance caller = Truffle.getRuntime().getCallerFrame();
 
     RootCallTarget ct = (RootCallTarget) caller.getCallTarget();  // caller method
-    Method m = (Method) ct.getRootNode();
-    m.propagateLoopCountThroughoutLexicalScope(count);
+    if (ct.getRootNode() instanceof Method) {
+      Method m = (Method) ct.getRootNode();
+      m.propagateLoopCountThroughoutLexicalScope(count);
+    }
   }
 }
@@ -21,25 +21,76 @@
  */
 package som.interpreter;
 
+import som.vmobjects.SArray;
+
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.nodes.ControlFlowException;
 
+/**
+ * The exceptions are preallocated by the return nodes, which only set the
+ * result and the target for each return.
+ */
 public final class ReturnException extends ControlFlowException {
 
-  private final Object result;
-  private final FrameOnStackMarker target;
+  // counting the frames crossed by the unwinding requires an exception
+  // handler in each invokable, so, it needs to be enabled explicitly
+  public static final boolean COUNT_UNWINDING =
+      Boolean.getBoolean("som.countNonLocalReturns");
+
+  private static long numberOfReturns;
+  private static long numberOfReturnsCrossingFrames;
+  private static long numberOfCrossedFrames;
 
-  public ReturnException(final Object result, final FrameOnStackMarker target) {
+  private Object result;
+  private FrameOnStackMarker target;
+  private int crossedFrames;
+
+  public ReturnException prepare(final Object result,
+      final FrameOnStackMarker target) {
     this.result = result;
     this.target = target;
+    this.crossedFrames = 0;
+    return this;
   }
 
   public Object result() {
     return result;
   }
 
+  /**
+   * @param current marker of the frame, which is null, as long as nothing
+   *        returned to the frame non-locally
+   */
   public boolean reachedTarget(final FrameOnStackMarker current) {
     return current == target;
   }
 
+  public void crossedFrame() {
+    crossedFrames++;
+  }
+
+  @SlowPath
+  public void reportReachedTarget() {
+    reportReturn(crossedFrames);
+  }
+
+  private static synchronized void reportReturn(final int crossedFrames) {
+    numberOfReturns++;
+    numberOfCrossedFrames += crossedFrames;
+    if (crossedFrames > 1) {
+      numberOfReturnsCrossingFrames++;
+    }
+  }
+
+  /**
+   * @return an array with the number of returns, the number of returns
+   *         that crossed more than one frame, and the total number of
+   *         crossed frames
+   */
+  public static synchronized SArray getUnwindingStatistics() {
+    return SArray.create(new Object[] {numberOfReturns,
+        numberOfReturnsCrossingFrames, numberOfCrossedFrames});
+  }
+
   private static final long serialVersionUID = 8003954137724716L;
 }
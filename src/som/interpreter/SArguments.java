@@ -1,5 +1,7 @@
 package som.interpreter;
 
+import som.vmobjects.SArray;
+
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
@@ -19,8 +21,11 @@ public final class SArguments {
   /**
    * Create a properly encoded SArguments array to be passed via Truffle's API
    * from a receiver object that is separate from the actual arguments.
+   * The elements are read directly from the SOM array, without an
+   * intermediate copy.
    */
-  public static Object[] createSArgumentsArrayFrom(final Object receiver, final Object[] argsArray) {
+  public static Object[] createSArgumentsArrayFrom(final Object receiver,
+      final SArray argsArray) {
     // below, we have a lot of magic numbers and implicit positioning,
     // which are all based on this assumption
     assert RCVR_IDX == 0;
@@ -29,20 +34,23 @@ public final class SArguments {
       return new Object[] {receiver};
     }
 
-    Object[] arguments = new Object[argsArray.length + 1];
+    int numArgs = argsArray.getLength();
+    Object[] arguments = new Object[numArgs + 1];
     arguments[RCVR_IDX] = receiver;
 
-    System.arraycopy(argsArray, 0, arguments, 1, argsArray.length);
+    for (int i = 0; i < numArgs; i++) {
+      arguments[i + 1] = argsArray.getValue(i);
+    }
     return arguments;
   }
 
   /**
-   * Create a new array from an SArguments array that contains only the true
-   * arguments and excludes the receiver. This is used for instance for
+   * Create a new SOM array from an SArguments array that contains only the
+   * true arguments and excludes the receiver. This is used for instance for
    * #doesNotUnderstand (#dnu)
    */
   @ExplodeLoop
-  public static Object[] getArgumentsWithoutReceiver(final Object[] arguments) {
+  public static SArray getArgumentsWithoutReceiver(final Object[] arguments) {
     // the code and magic numbers below are based on the following assumption
     assert RCVR_IDX == 0;
 //    return Arrays.copyOfRange(arguments, 1, arguments.length);
@@ -50,6 +58,6 @@ public final class SArguments {
     for (int i = 1; i < arguments.length; i++) {
       argsArr[i - 1] = arguments[i];
     }
-    return argsArr;
+    return SArray.create(argsArr);
   }
 }
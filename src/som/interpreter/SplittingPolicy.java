@@ -0,0 +1,111 @@
+package som.interpreter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import som.vm.Universe;
+import som.vmobjects.SArray;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * Decides which invokables may be split by the runtime.
+ *
+ * Splitting pays off mostly for methods that take blocks, e.g., #do: or
+ * #inject:into:, because each copy gets monomorphic block sends for its
+ * caller. Other methods are only split when -Dsom.splitAllMethods=true is
+ * given. Independent of that, methods with large ASTs are not split, and
+ * the nodes copied by all splits of a method are bounded by a node budget.
+ * Thus, small methods like #do: can be split for many callers, while large
+ * methods get only few copies.
+ *
+ * The split invokables are only recorded for System>>#splitStatistics with
+ * -Dsom.splitStatistics=true, otherwise the policy keeps no references.
+ */
+public final class SplittingPolicy {
+  public static final boolean SPLIT_ALL_METHODS =
+      Boolean.getBoolean("som.splitAllMethods");
+  private static final int MAX_NODE_COUNT =
+      Integer.getInteger("som.splitting.maxNodeCount", 300);
+  public static final int SPLIT_NODE_BUDGET =
+      Integer.getInteger("som.splitting.nodeBudget", 10000);
+
+  private static final boolean TRACE_SPLITTING =
+      Boolean.getBoolean("som.traceSplitting");
+  private static final boolean RECORD_STATISTICS =
+      Boolean.getBoolean("som.splitStatistics");
+
+  private static final ArrayList<Invokable> splitInvokables = new ArrayList<>();
+
+  private SplittingPolicy() { }
+
+  public static boolean isSplittable(final Invokable invokable) {
+    CompilerAsserts.neverPartOfCompilation("SplittingPolicy.isSplittable(.)");
+    int nodeCount = invokable.getNodeCount();
+    if (nodeCount > MAX_NODE_COUNT) {
+      return false;
+    }
+
+    // the next split would exceed the nodes copied for this method
+    if ((invokable.getNumberOfSplits() + 1) * nodeCount > SPLIT_NODE_BUDGET) {
+      return false;
+    }
+
+    // primitives are small, and it does not get any better than that
+    if (invokable instanceof Primitive) {
+      return true;
+    }
+
+    return SPLIT_ALL_METHODS || invokable.takesBlockArguments();
+  }
+
+  static synchronized void reportSplit(final Invokable original) {
+    CompilerAsserts.neverPartOfCompilation("SplittingPolicy.reportSplit(.)");
+    if (RECORD_STATISTICS && original.getNumberOfSplits() == 1) {
+      splitInvokables.add(original);
+    }
+
+    if (TRACE_SPLITTING) {
+      Universe.errorPrintln("[split] " + getName(original) + " (splits: "
+          + original.getNumberOfSplits() + ", nodes: "
+          + original.getNodeCount() + ")");
+    }
+  }
+
+  private static String getName(final Invokable invokable) {
+    SourceSection source = invokable.getSourceSection();
+    if (source == null) {
+      return invokable.toString();
+    }
+    return source.getIdentifier();
+  }
+
+  /**
+   * @return an array with an entry for each invokable that got split. Each
+   *         entry is an array with the name, the number of splits, and the
+   *         number of nodes copied by each split. The array is empty, unless
+   *         -Dsom.splitStatistics=true is given.
+   */
+  public static synchronized SArray getSplitStatistics() {
+    CompilerAsserts.neverPartOfCompilation("SplittingPolicy.getSplitStatistics()");
+    ArrayList<Invokable> invokables = new ArrayList<>(splitInvokables);
+    Collections.sort(invokables, new Comparator<Invokable>() {
+      @Override
+      public int compare(final Invokable a, final Invokable b) {
+        return Integer.compare(b.getNumberOfSplits(), a.getNumberOfSplits());
+      }
+    });
+
+    Object[] result = new Object[invokables.size()];
+    for (int i = 0; i < result.length; i++) {
+      Invokable invokable = invokables.get(i);
+      result[i] = SArray.create(new Object[] {getName(invokable),
+          (long) invokable.getNumberOfSplits(),
+          (long) invokable.getNodeCount()});
+    }
+    return SArray.create(result);
+  }
+}
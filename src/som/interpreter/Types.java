@@ -27,6 +27,7 @@ import som.vm.constants.Blocks;
 import som.vm.constants.Classes;
 import som.vm.constants.Globals;
 import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
 import som.vmobjects.SBlock.SBlock1;
 import som.vmobjects.SBlock.SBlock2;
@@ -48,11 +49,11 @@ import com.oracle.truffle.api.dsl.TypeSystem;
                  double.class,
                  SClass.class,
                 SObject.class,
+                 SArray.class,
                  SBlock.class,
                 SSymbol.class,
              SInvokable.class,
-        SAbstractObject.class,
-               Object[].class})
+        SAbstractObject.class})
 public class Types {
 
   public static SClass getClassOf(final Object obj) {
@@ -83,8 +84,6 @@ public class Types {
       return Blocks.blockClass2;
     } else if (obj instanceof SBlock3) {
       return Blocks.blockClass3;
-    } else if (obj instanceof Object[]) {
-      return Classes.arrayClass;
     }
 
     TruffleCompiler.transferToInterpreter("Should not be reachable");
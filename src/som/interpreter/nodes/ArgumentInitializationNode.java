@@ -2,6 +2,7 @@ package som.interpreter.nodes;
 
 import som.interpreter.nodes.LocalVariableNode.LocalVariableWriteNode;
 
+import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
@@ -39,6 +40,19 @@ public final class ArgumentInitializationNode extends ExpressionNode {
     }
   }
 
+  public FrameSlot getArgumentSlot(final int index) {
+    return argumentInits[index].slot;
+  }
+
+  public boolean isArgumentSlot(final FrameSlot slot) {
+    for (LocalVariableWriteNode init : argumentInits) {
+      if (init.slot == slot) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public ExpressionNode getFirstMethodBodyNode() {
     return methodBody;
@@ -23,15 +23,21 @@ package som.interpreter.nodes;
 
 import java.math.BigInteger;
 
+import som.interpreter.Invokable;
 import som.interpreter.TypesGen;
 import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SObject;
 import som.vmobjects.SSymbol;
 
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.source.SourceSection;
 
@@ -47,6 +53,23 @@ public abstract class ExpressionNode extends SOMNode {
   @Override
   public ExpressionNode getFirstMethodBodyNode() { return this; }
 
+  /**
+   * Reports the iterations of a loop to the method, and to all methods in
+   * its lexical scope. The root of an OSR call target reports its loop count
+   * by itself.
+   */
+  @SlowPath
+  protected final void reportLoopCount(final long count) {
+    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
+    Node current = getParent();
+    while (current != null && !(current instanceof RootNode)) {
+      current = current.getParent();
+    }
+    if (current instanceof Invokable) {
+      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
+    }
+  }
+
   public boolean executeBoolean(final VirtualFrame frame) throws UnexpectedResultException {
     return TypesGen.TYPES.expectBoolean(executeGeneric(frame));
   }
@@ -91,7 +114,7 @@ public abstract class ExpressionNode extends SOMNode {
     return TypesGen.TYPES.expectSAbstractObject(executeGeneric(frame));
   }
 
-  public Object[] executeArray(final VirtualFrame frame) throws UnexpectedResultException {
-    return TypesGen.TYPES.expectObjectArray(executeGeneric(frame));
+  public SArray executeSArray(final VirtualFrame frame) throws UnexpectedResultException {
+    return TypesGen.TYPES.expectSArray(executeGeneric(frame));
   }
 }
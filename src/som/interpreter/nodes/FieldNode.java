@@ -78,6 +78,10 @@ public abstract class FieldNode extends ExpressionNode {
        return read.read(obj);
     }
 
+    public AbstractReadFieldNode getReadNode() {
+      return read;
+    }
+
     @Override
     public Object doPreEvaluated(final VirtualFrame frame,
         final Object[] arguments) {
@@ -96,6 +100,12 @@ public abstract class FieldNode extends ExpressionNode {
       return read.readDouble(obj);
     }
 
+    @Override
+    public boolean executeBoolean(final VirtualFrame frame) throws UnexpectedResultException {
+      SObject obj = self.executeSObject(frame);
+      return read.readBoolean(obj);
+    }
+
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
       SObject obj;
@@ -128,6 +138,8 @@ public abstract class FieldNode extends ExpressionNode {
       this(node.write.getFieldIndex(), node.getSourceSection());
     }
 
+    public abstract ExpressionNode getValue();
+
     public final Object executeEvaluated(final VirtualFrame frame,
         final SObject self, final Object value) {
       return write.write(self, value);
@@ -151,6 +163,12 @@ public abstract class FieldNode extends ExpressionNode {
       return write.write(self, value);
     }
 
+    @Specialization
+    public boolean doBoolean(final VirtualFrame frame, final SObject self,
+        final boolean value) {
+      return write.write(self, value);
+    }
+
     @Specialization
     public Object doObject(final VirtualFrame frame, final SObject self,
         final Object value) {
@@ -1,9 +1,12 @@
 package som.interpreter.nodes;
 
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
 import som.interpreter.TruffleCompiler;
 import som.interpreter.TypesGen;
 import som.interpreter.nodes.dispatch.AbstractDispatchNode;
 import som.interpreter.nodes.dispatch.DispatchChain.Cost;
+import som.interpreter.nodes.dispatch.DispatchChainProfile;
 import som.interpreter.nodes.dispatch.GenericDispatchNode;
 import som.interpreter.nodes.dispatch.SuperDispatchNode;
 import som.interpreter.nodes.dispatch.UninitializedDispatchNode;
@@ -15,6 +18,7 @@ import som.interpreter.nodes.specialized.AndMessageNodeFactory.AndBoolMessageNod
 import som.interpreter.nodes.specialized.IfFalseMessageNodeFactory;
 import som.interpreter.nodes.specialized.IfTrueIfFalseMessageNodeFactory;
 import som.interpreter.nodes.specialized.IfTrueMessageNodeFactory;
+import som.interpreter.nodes.specialized.IntDownToDoMessageNodeFactory;
 import som.interpreter.nodes.specialized.IntToByDoMessageNodeFactory;
 import som.interpreter.nodes.specialized.IntToDoMessageNodeFactory;
 import som.interpreter.nodes.specialized.NotMessageNodeFactory;
@@ -24,29 +28,16 @@ import som.interpreter.nodes.specialized.WhileWithDynamicBlocksNode.WhileFalseDy
 import som.interpreter.nodes.specialized.WhileWithDynamicBlocksNode.WhileTrueDynamicBlocksNode;
 import som.interpreter.nodes.specialized.WhileWithStaticBlocksNode.WhileFalseStaticBlocksNode;
 import som.interpreter.nodes.specialized.WhileWithStaticBlocksNode.WhileTrueStaticBlocksNode;
-import som.primitives.ArrayPrimsFactory.AtPrimFactory;
 import som.primitives.ArrayPrimsFactory.NewPrimFactory;
-import som.primitives.BlockPrimsFactory.ValueNonePrimFactory;
-import som.primitives.BlockPrimsFactory.ValueOnePrimFactory;
-import som.primitives.EqualsEqualsPrimFactory;
-import som.primitives.EqualsPrimFactory;
-import som.primitives.IntegerPrimsFactory.LeftShiftPrimFactory;
-import som.primitives.LengthPrimFactory;
-import som.primitives.arithmetic.AdditionPrimFactory;
-import som.primitives.arithmetic.BitXorPrimFactory;
-import som.primitives.arithmetic.DividePrimFactory;
-import som.primitives.arithmetic.DoubleDivPrimFactory;
-import som.primitives.arithmetic.GreaterThanPrimFactory;
-import som.primitives.arithmetic.LessThanOrEqualPrimFactory;
-import som.primitives.arithmetic.LessThanPrimFactory;
-import som.primitives.arithmetic.LogicAndPrimFactory;
-import som.primitives.arithmetic.ModuloPrimFactory;
-import som.primitives.arithmetic.MultiplicationPrimFactory;
-import som.primitives.arithmetic.SubtractionPrimFactory;
+import som.primitives.EagerPrimitives;
+import som.primitives.EagerPrimitives.FallbackSite;
 import som.vm.constants.Classes;
 import som.vmobjects.SBlock;
+import som.vmobjects.SClass;
 import som.vmobjects.SSymbol;
 
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
@@ -62,6 +53,22 @@ public final class MessageSendNode {
     return new UninitializedMessageSendNode(selector, arguments, source);
   }
 
+  /**
+   * Super sends are resolved when the AST is built, if the lexical
+   * superclass already understands the message. Otherwise, they are
+   * resolved on first execution.
+   */
+  public static AbstractMessageSendNode createSuperSend(final SSymbol selector,
+      final ExpressionNode[] arguments, final SClass lexicalSuperClass,
+      final SourceSection source) {
+    if (lexicalSuperClass == null
+        || lexicalSuperClass.lookupInvokable(selector) == null) {
+      return create(selector, arguments, source);
+    }
+    return GenericMessageSendNode.create(selector, arguments,
+        SuperDispatchNode.create(selector, lexicalSuperClass), source);
+  }
+
   public static AbstractMessageSendNode createForPerformNodes(final SSymbol selector) {
     return new UninitializedSymbolSendNode(selector, null);
   }
@@ -79,13 +86,13 @@ public final class MessageSendNode {
     }
 
     @Override
-    public final Object executeGeneric(final VirtualFrame frame) {
+    public Object executeGeneric(final VirtualFrame frame) {
       Object[] arguments = evaluateArguments(frame);
       return doPreEvaluated(frame, arguments);
     }
 
     @ExplodeLoop
-    private Object[] evaluateArguments(final VirtualFrame frame) {
+    protected final Object[] evaluateArguments(final VirtualFrame frame) {
       Object[] arguments = new Object[argumentNodes.length];
       for (int i = 0; i < argumentNodes.length; i++) {
         arguments[i] = argumentNodes[i].executeGeneric(frame);
@@ -105,10 +112,14 @@ public final class MessageSendNode {
 
     private final SSymbol selector;
 
+    // shared with the copies of this node, which are made for splitting
+    private final FallbackSite eagerPrimitiveSite;
+
     protected UninitializedMessageSendNode(final SSymbol selector,
         final ExpressionNode[] arguments, final SourceSection source) {
       super(arguments, source);
       this.selector = selector;
+      this.eagerPrimitiveSite = new FallbackSite();
     }
 
     @Override
@@ -123,7 +134,7 @@ public final class MessageSendNode {
       // first option is a super send, super sends are treated specially because
       // the receiver class is lexically determined
       if (argumentNodes[0] instanceof ISuperReadNode) {
-        GenericMessageSendNode node = new GenericMessageSendNode(selector,
+        GenericMessageSendNode node = GenericMessageSendNode.create(selector,
             argumentNodes, SuperDispatchNode.create(selector,
                 (ISuperReadNode) argumentNodes[0]), getSourceSection());
         return replace(node);
@@ -151,37 +162,33 @@ public final class MessageSendNode {
     }
 
     private GenericMessageSendNode makeGenericSend() {
-      GenericMessageSendNode send = new GenericMessageSendNode(selector,
-          argumentNodes,
-          new UninitializedDispatchNode(selector),
-          getSourceSection());
+      GenericMessageSendNode send = GenericMessageSendNode.create(selector,
+          argumentNodes, getSourceSection());
       return replace(send);
     }
 
+    private PreevaluatedExpression makeEagerPrimitiveOrGenericSend(
+        final Object[] arguments) {
+      ExpressionNode eager = EagerPrimitives.create(selector, argumentNodes,
+          arguments, eagerPrimitiveSite, getSourceSection());
+      if (eager != null) {
+        return (PreevaluatedExpression) replace(eager);
+      }
+      return makeGenericSend();
+    }
+
     private PreevaluatedExpression specializeUnary(final Object[] args) {
       Object receiver = args[0];
       switch (selector.getString()) {
-        // eagerly but causious:
-        case "value":
-          if (receiver instanceof SBlock) {
-            return replace(new EagerUnaryPrimitiveNode(selector,
-                argumentNodes[0], ValueNonePrimFactory.create(null)));
-          }
-          break;
-        case "length":
-          if (receiver instanceof Object[]) {
-            return replace(new EagerUnaryPrimitiveNode(selector,
-                argumentNodes[0], LengthPrimFactory.create(null)));
-          }
-          break;
         case "not":
           if (receiver instanceof Boolean) {
             return replace(new EagerUnaryPrimitiveNode(selector,
-                argumentNodes[0], NotMessageNodeFactory.create(getSourceSection(), null)));
+                argumentNodes[0], NotMessageNodeFactory.create(getSourceSection(), null),
+                getSourceSection()));
           }
           break;
       }
-      return makeGenericSend();
+      return makeEagerPrimitiveOrGenericSend(args);
     }
 
     private PreevaluatedExpression specializeBinary(final Object[] arguments) {
@@ -217,86 +224,12 @@ public final class MessageSendNode {
               arguments[1], getSourceSection(),
               argumentNodes[0], argumentNodes[1]));
 
-        // TODO: find a better way for primitives, use annotation or something
-        case "<":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              LessThanPrimFactory.create(null, null)));
-        case "<=":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              LessThanOrEqualPrimFactory.create(null, null)));
-        case ">":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              GreaterThanPrimFactory.create(null, null)));
-        case "+":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              AdditionPrimFactory.create(null, null)));
-        case "value:":
-          if (arguments[0] instanceof SBlock) {
-            return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-                argumentNodes[1],
-                ValueOnePrimFactory.create(null, null)));
-          }
-          break;
-        case "-":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              SubtractionPrimFactory.create(null, null)));
-        case "*":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              MultiplicationPrimFactory.create(null, null)));
-        case "=":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              EqualsPrimFactory.create(null, null)));
-        case "==":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              EqualsEqualsPrimFactory.create(null, null)));
-        case "bitXor:":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              BitXorPrimFactory.create(null, null)));
-        case "//":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              DoubleDivPrimFactory.create(null, null)));
-        case "%":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              ModuloPrimFactory.create(null, null)));
-        case "/":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              DividePrimFactory.create(null, null)));
-        case "&":
-          return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-              argumentNodes[1],
-              LogicAndPrimFactory.create(null, null)));
-
         // eagerly but causious:
-        case "<<":
-          if (arguments[0] instanceof Long) {
-            return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-                argumentNodes[1],
-                LeftShiftPrimFactory.create(null, null)));
-          }
-          break;
-        case "at:":
-          if (arguments[0] instanceof Object[]) {
-            return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
-                argumentNodes[1],
-                AtPrimFactory.create(null, null)));
-          }
         case "new:":
           if (arguments[0] == Classes.arrayClass) {
             return replace(new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
                 argumentNodes[1],
-                NewPrimFactory.create(null, null)));
+                NewPrimFactory.create(null, null), getSourceSection()));
           }
           break;
         case "and:":
@@ -327,7 +260,7 @@ public final class MessageSendNode {
           break;
       }
 
-      return makeGenericSend();
+      return makeEagerPrimitiveOrGenericSend(arguments);
     }
 
     private PreevaluatedExpression specializeTernary(final Object[] arguments) {
@@ -346,8 +279,18 @@ public final class MessageSendNode {
                 argumentNodes[2]));
           }
           break;
+        case "downTo:do:":
+          if (TypesGen.TYPES.isLong(arguments[0]) &&
+              (TypesGen.TYPES.isLong(arguments[1]) ||
+                  TypesGen.TYPES.isDouble(arguments[1])) &&
+              TypesGen.TYPES.isSBlock(arguments[2])) {
+            return replace(IntDownToDoMessageNodeFactory.create(this,
+                (SBlock) arguments[2], argumentNodes[0], argumentNodes[1],
+                argumentNodes[2]));
+          }
+          break;
       }
-      return makeGenericSend();
+      return makeEagerPrimitiveOrGenericSend(arguments);
     }
 
     private PreevaluatedExpression specializeQuaternary(
@@ -393,10 +336,8 @@ public final class MessageSendNode {
     }
 
     private GenericMessageSendNode makeGenericSend() {
-      GenericMessageSendNode send = new GenericMessageSendNode(selector,
-          argumentNodes,
-          new UninitializedDispatchNode(selector),
-          getSourceSection());
+      GenericMessageSendNode send = GenericMessageSendNode.create(selector,
+          argumentNodes, getSourceSection());
       return replace(send);
     }
 
@@ -599,33 +540,169 @@ public final class MessageSendNode {
     }
   }
 
-  public static final class GenericMessageSendNode
+  /**
+   * Send node with a dispatch chain. Sends with up to three arguments are
+   * handled by subclasses that keep the evaluated arguments in locals. The
+   * argument array is only created by the dispatch chain when the method
+   * is called, but not when it is a trivial method that got inlined.
+   */
+  public abstract static class GenericMessageSendNode
       extends AbstractMessageSendNode {
 
     private final SSymbol selector;
 
     public static GenericMessageSendNode create(final SSymbol selector,
         final ExpressionNode[] argumentNodes, final SourceSection source) {
-      return new GenericMessageSendNode(selector, argumentNodes,
+      return create(selector, argumentNodes,
           new UninitializedDispatchNode(selector), source);
     }
 
+    public static GenericMessageSendNode create(final SSymbol selector,
+        final ExpressionNode[] argumentNodes,
+        final AbstractDispatchNode dispatchNode, final SourceSection source) {
+      switch (argumentNodes.length) {
+        case 1:
+          return new GenericUnarySendNode(selector, argumentNodes,
+              dispatchNode, source);
+        case 2:
+          return new GenericBinarySendNode(selector, argumentNodes,
+              dispatchNode, source);
+        case 3:
+          return new GenericTernarySendNode(selector, argumentNodes,
+              dispatchNode, source);
+        case 4:
+          return new GenericQuaternarySendNode(selector, argumentNodes,
+              dispatchNode, source);
+        default:
+          return new GenericNarySendNode(selector, argumentNodes,
+              dispatchNode, source);
+      }
+    }
+
+    // after this many sends, the dispatch chain is ordered by frequency
+    private static final int REORDER_THRESHOLD = 500;
+
     @Child private AbstractDispatchNode dispatchNode;
 
+    @CompilationFinal private int inlineCacheLimit;
+    @CompilationFinal private boolean dispatchChainOrdered;
+    private int sendCount;
+
     private GenericMessageSendNode(final SSymbol selector,
         final ExpressionNode[] arguments,
         final AbstractDispatchNode dispatchNode, final SourceSection source) {
       super(arguments, source);
       this.selector = selector;
       this.dispatchNode = dispatchNode;
+      this.inlineCacheLimit = AbstractDispatchNode.INLINE_CACHE_SIZE;
     }
 
     @Override
-    public Object doPreEvaluated(final VirtualFrame frame,
+    public final Object doPreEvaluated(final VirtualFrame frame,
         final Object[] arguments) {
+      profile();
       return dispatchNode.executeDispatch(frame, arguments);
     }
 
+    protected final Object dispatchUnary(final VirtualFrame frame,
+        final Object receiver) {
+      profile();
+      return dispatchNode.executeDispatchUnary(frame, receiver);
+    }
+
+    protected final Object dispatchBinary(final VirtualFrame frame,
+        final Object receiver, final Object argument) {
+      profile();
+      return dispatchNode.executeDispatchBinary(frame, receiver, argument);
+    }
+
+    protected final Object dispatchTernary(final VirtualFrame frame,
+        final Object receiver, final Object arg1, final Object arg2) {
+      profile();
+      return dispatchNode.executeDispatchTernary(frame, receiver, arg1, arg2);
+    }
+
+    protected final Object dispatchQuaternary(final VirtualFrame frame,
+        final Object receiver, final Object arg1, final Object arg2,
+        final Object arg3) {
+      profile();
+      return dispatchNode.executeDispatchQuaternary(frame, receiver, arg1,
+          arg2, arg3);
+    }
+
+    private void profile() {
+      if (CompilerDirectives.inInterpreter() && !dispatchChainOrdered) {
+        profileSend();
+      }
+    }
+
+    private void profileSend() {
+      sendCount++;
+      if (sendCount >= REORDER_THRESHOLD) {
+        dispatchChainOrdered = true;
+        if (dispatchNode.lengthOfDispatchChain() > 1) {
+          DispatchChainProfile.sortByHitCount(dispatchNode);
+        }
+      }
+    }
+
+    /**
+     * Called when an entry is added to the dispatch chain, so that the chain
+     * is ordered again after the next REORDER_THRESHOLD sends.
+     */
+    @SlowPath
+    public void dispatchChainGrown() {
+      dispatchChainOrdered = false;
+      sendCount = 0;
+    }
+
+    public int getInlineCacheLimit() {
+      return inlineCacheLimit;
+    }
+
+    /**
+     * Grows the inline cache by one entry, if all cached receiver classes
+     * are used frequently and the maximum cache size is not yet reached.
+     */
+    @SlowPath
+    public boolean tryToExtendInlineCache() {
+      if (inlineCacheLimit < AbstractDispatchNode.MAX_INLINE_CACHE_SIZE
+          && DispatchChainProfile.hasOnlyFrequentlyHitEntries(dispatchNode)) {
+        inlineCacheLimit++;
+        return true;
+      }
+      return false;
+    }
+
+    @SlowPath
+    public ExpressionNode getReceiverNode() {
+      if (argumentNodes.length > 0) {
+        return argumentNodes[0];
+      } else {
+        return null;
+      }
+    }
+
+    @Override
+    public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+      // the call node of a super send is created with the AST, and a copy
+      // needs its own to be split and inlined independently
+      replaceSuperDispatchWithIndependentCopy();
+    }
+
+    @Override
+    public void replaceWithLexicallyEmbeddedNode(
+        final InlinerForLexicallyEmbeddedMethods inliner) {
+      replaceSuperDispatchWithIndependentCopy();
+    }
+
+    private void replaceSuperDispatchWithIndependentCopy() {
+      if (dispatchNode instanceof SuperDispatchNode) {
+        dispatchNode.replace(
+            ((SuperDispatchNode) dispatchNode).createIndependentCopy());
+      }
+    }
+
     @SlowPath
     public AbstractDispatchNode getDispatchListHead() {
       return dispatchNode;
@@ -652,4 +729,79 @@ public final class MessageSendNode {
       return Cost.getCost(dispatchNode);
     }
   }
+
+  private static final class GenericUnarySendNode
+      extends GenericMessageSendNode {
+    private GenericUnarySendNode(final SSymbol selector,
+        final ExpressionNode[] arguments,
+        final AbstractDispatchNode dispatchNode, final SourceSection source) {
+      super(selector, arguments, dispatchNode, source);
+    }
+
+    @Override
+    public Object executeGeneric(final VirtualFrame frame) {
+      Object rcvr = argumentNodes[0].executeGeneric(frame);
+      return dispatchUnary(frame, rcvr);
+    }
+  }
+
+  private static final class GenericBinarySendNode
+      extends GenericMessageSendNode {
+    private GenericBinarySendNode(final SSymbol selector,
+        final ExpressionNode[] arguments,
+        final AbstractDispatchNode dispatchNode, final SourceSection source) {
+      super(selector, arguments, dispatchNode, source);
+    }
+
+    @Override
+    public Object executeGeneric(final VirtualFrame frame) {
+      Object rcvr = argumentNodes[0].executeGeneric(frame);
+      Object arg  = argumentNodes[1].executeGeneric(frame);
+      return dispatchBinary(frame, rcvr, arg);
+    }
+  }
+
+  private static final class GenericTernarySendNode
+      extends GenericMessageSendNode {
+    private GenericTernarySendNode(final SSymbol selector,
+        final ExpressionNode[] arguments,
+        final AbstractDispatchNode dispatchNode, final SourceSection source) {
+      super(selector, arguments, dispatchNode, source);
+    }
+
+    @Override
+    public Object executeGeneric(final VirtualFrame frame) {
+      Object rcvr = argumentNodes[0].executeGeneric(frame);
+      Object arg1 = argumentNodes[1].executeGeneric(frame);
+      Object arg2 = argumentNodes[2].executeGeneric(frame);
+      return dispatchTernary(frame, rcvr, arg1, arg2);
+    }
+  }
+
+  private static final class GenericQuaternarySendNode
+      extends GenericMessageSendNode {
+    private GenericQuaternarySendNode(final SSymbol selector,
+        final ExpressionNode[] arguments,
+        final AbstractDispatchNode dispatchNode, final SourceSection source) {
+      super(selector, arguments, dispatchNode, source);
+    }
+
+    @Override
+    public Object executeGeneric(final VirtualFrame frame) {
+      Object rcvr = argumentNodes[0].executeGeneric(frame);
+      Object arg1 = argumentNodes[1].executeGeneric(frame);
+      Object arg2 = argumentNodes[2].executeGeneric(frame);
+      Object arg3 = argumentNodes[3].executeGeneric(frame);
+      return dispatchQuaternary(frame, rcvr, arg1, arg2, arg3);
+    }
+  }
+
+  private static final class GenericNarySendNode
+      extends GenericMessageSendNode {
+    private GenericNarySendNode(final SSymbol selector,
+        final ExpressionNode[] arguments,
+        final AbstractDispatchNode dispatchNode, final SourceSection source) {
+      super(selector, arguments, dispatchNode, source);
+    }
+  }
 }
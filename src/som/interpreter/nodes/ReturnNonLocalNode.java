@@ -23,6 +23,7 @@ package som.interpreter.nodes;
 
 import som.interpreter.FrameOnStackMarker;
 import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
 import som.interpreter.ReturnException;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SBlock;
@@ -39,8 +40,10 @@ public final class ReturnNonLocalNode extends ContextualNode {
 
   @Child private ExpressionNode expression;
   private final BranchProfile blockEscaped;
+  private final BranchProfile firstReturnToFrame;
   private final FrameSlot frameOnStackMarker;
   private final FrameSlot outerSelfSlot;
+  private final ReturnException returnException;
 
   public ReturnNonLocalNode(final ExpressionNode expression,
       final FrameSlot frameOnStackMarker,
@@ -50,8 +53,10 @@ public final class ReturnNonLocalNode extends ContextualNode {
     super(outerSelfContextLevel, localSelf, source);
     this.expression = expression;
     this.blockEscaped = new BranchProfile();
+    this.firstReturnToFrame = new BranchProfile();
     this.frameOnStackMarker = frameOnStackMarker;
     this.outerSelfSlot      = outerSelfSlot;
+    this.returnException    = new ReturnException();
   }
 
   public ReturnNonLocalNode(final ReturnNonLocalNode node, final FrameSlot inlinedFrameOnStack,
@@ -69,9 +74,16 @@ public final class ReturnNonLocalNode extends ContextualNode {
     MaterializedFrame ctx = determineContext(frame);
     FrameOnStackMarker marker = getMarkerFromContext(ctx);
 
+    if (marker == null) {
+      // the frame is on the stack, but nothing returned to it so far
+      firstReturnToFrame.enter();
+      marker = new FrameOnStackMarker();
+      ctx.setObject(frameOnStackMarker, marker);
+    }
+
     if (marker.isOnStack()) {
       Object result = expression.executeGeneric(frame);
-      throw new ReturnException(result, marker);
+      throw returnException.prepare(result, marker);
     } else {
       blockEscaped.enter();
       SBlock block = (SBlock) FrameUtil.getObjectSafe(frame, localSelf);
@@ -97,6 +109,63 @@ public final class ReturnNonLocalNode extends ContextualNode {
     replace(new ReturnNonLocalNode(this, inlinedFrameOnStack, inlinedOuterSelfSlot, localSelfSlot));
   }
 
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    int level = inliner.getEmbeddedContextLevel(contextLevel);
+    if (level == 0) {
+      // the block was inlined into the method, and the return became local
+      replace(new ReturnLocalNode(expression, frameOnStackMarker,
+          getSourceSection()));
+    } else {
+      inliner.reportNonLocalReturn();
+      replace(new ReturnNonLocalNode(expression, frameOnStackMarker,
+          outerSelfSlot, level, inliner.getEmbeddedLocalSelf(localSelf),
+          getSourceSection()));
+    }
+  }
+
+  /**
+   * Return from a block that was inlined into the method. It still needs to
+   * unwind the expressions of the method, but the marker is in the
+   * method's own frame. Since the exception cannot leave the method, it
+   * does not need a marker to be created.
+   */
+  public static final class ReturnLocalNode extends ExpressionNode {
+    @Child private ExpressionNode expression;
+    private final FrameSlot frameOnStackMarker;
+    private final ReturnException returnException;
+
+    public ReturnLocalNode(final ExpressionNode expression,
+        final FrameSlot frameOnStackMarker, final SourceSection source) {
+      super(source);
+      this.expression         = expression;
+      this.frameOnStackMarker = frameOnStackMarker;
+      this.returnException    = new ReturnException();
+    }
+
+    @Override
+    public Object executeGeneric(final VirtualFrame frame) {
+      Object result = expression.executeGeneric(frame);
+      FrameOnStackMarker marker = (FrameOnStackMarker) FrameUtil.getObjectSafe(
+          frame, frameOnStackMarker);
+      throw returnException.prepare(result, marker);
+    }
+
+    @Override
+    public void executeVoid(final VirtualFrame frame) {
+      executeGeneric(frame);
+    }
+
+    @Override
+    public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+      FrameSlot inlinedFrameOnStackMarker = inliner.getLocalFrameSlot(frameOnStackMarker.getIdentifier());
+      assert inlinedFrameOnStackMarker != null;
+      replace(new ReturnLocalNode(expression, inlinedFrameOnStackMarker,
+          getSourceSection()));
+    }
+  }
+
   public static final class CatchNonLocalReturnNode extends ExpressionNode {
     @Child protected ExpressionNode methodBody;
     private final BranchProfile nonLocalReturnHandler;
@@ -120,49 +189,52 @@ public final class ReturnNonLocalNode extends ContextualNode {
       return methodBody;
     }
 
+    private FrameOnStackMarker getMarker(final VirtualFrame frame) {
+      return (FrameOnStackMarker) FrameUtil.getObjectSafe(frame, frameOnStackMarker);
+    }
+
     @Override
     public Object executeGeneric(final VirtualFrame frame) {
-      FrameOnStackMarker marker = new FrameOnStackMarker();
+      // the marker itself is only created when a block returns to this frame
       frameOnStackMarker.setKind(FrameSlotKind.Object);
-      frame.setObject(frameOnStackMarker, marker);
+      frame.setObject(frameOnStackMarker, null);
 
-      Object result;
       try {
-        result = methodBody.executeGeneric(frame);
+        return methodBody.executeGeneric(frame);
       } catch (ReturnException e) {
-        nonLocalReturnHandler.enter();
-        if (!e.reachedTarget(marker)) {
-          doPropagate.enter();
-          marker.frameNoLongerOnStack();
-          throw e;
-        } else {
-          doCatch.enter();
-          result = e.result();
-        }
+        return handleReturn(frame, e);
+      } finally {
+        frame.setObject(frameOnStackMarker, FrameOnStackMarker.NOT_ON_STACK);
       }
-
-      marker.frameNoLongerOnStack();
-      return result;
     }
 
     @Override
     public void executeVoid(final VirtualFrame frame) {
-      FrameOnStackMarker marker = new FrameOnStackMarker();
       frameOnStackMarker.setKind(FrameSlotKind.Object);
-      frame.setObject(frameOnStackMarker, marker);
+      frame.setObject(frameOnStackMarker, null);
 
       try {
         methodBody.executeVoid(frame);
       } catch (ReturnException e) {
-        nonLocalReturnHandler.enter();
-        if (!e.reachedTarget(marker)) {
-          doPropagate.enter();
-          marker.frameNoLongerOnStack();
-          throw e;
-        }
+        handleReturn(frame, e);
+      } finally {
+        frame.setObject(frameOnStackMarker, FrameOnStackMarker.NOT_ON_STACK);
+      }
+    }
+
+    private Object handleReturn(final VirtualFrame frame,
+        final ReturnException e) {
+      nonLocalReturnHandler.enter();
+      if (!e.reachedTarget(getMarker(frame))) {
+        doPropagate.enter();
+        throw e;
       }
 
-      marker.frameNoLongerOnStack();
+      doCatch.enter();
+      if (ReturnException.COUNT_UNWINDING) {
+        e.reportReachedTarget();
+      }
+      return e.result();
     }
 
     @Override
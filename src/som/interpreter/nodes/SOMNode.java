@@ -22,6 +22,7 @@
 package som.interpreter.nodes;
 
 import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
 import som.interpreter.Types;
 
 import com.oracle.truffle.api.dsl.TypeSystemReference;
@@ -43,6 +44,13 @@ public abstract class SOMNode extends Node {
     // nodes.
   }
 
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    // do nothing!
+    // only nodes that access variables, or that depend on the lexical
+    // context in which they are defined need to be adapted.
+  }
+
   /**
    * @return body of a node that just wraps the actual method body.
    */
@@ -5,6 +5,7 @@ import som.compiler.Variable;
 import som.compiler.Variable.Argument;
 import som.compiler.Variable.Local;
 import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
 import som.interpreter.nodes.LocalVariableNode.LocalSuperReadNode;
 import som.interpreter.nodes.LocalVariableNode.LocalVariableReadNode;
 import som.interpreter.nodes.LocalVariableNode.LocalVariableWriteNode;
@@ -36,6 +37,18 @@ public abstract class UninitializedVariableNode extends ContextualNode {
     this.variable = variable;
   }
 
+  public final Variable getVariable() {
+    return variable;
+  }
+
+  protected final Variable getEmbeddedVariable(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    if (inliner.accessesInlinedBlock(contextLevel)) {
+      return inliner.getEmbeddedLocal(variable.slot);
+    }
+    return variable;
+  }
+
   public static final class UninitializedVariableReadNode extends UninitializedVariableNode {
     public UninitializedVariableReadNode(final Variable variable,
         final int contextLevel, final FrameSlot localSelf, final SourceSection source) {
@@ -74,6 +87,14 @@ public abstract class UninitializedVariableNode extends ContextualNode {
       replace(new UninitializedVariableReadNode(this, varSlot, localSelfSlot));
     }
 
+    @Override
+    public void replaceWithLexicallyEmbeddedNode(
+        final InlinerForLexicallyEmbeddedMethods inliner) {
+      replace(new UninitializedVariableReadNode(getEmbeddedVariable(inliner),
+          inliner.getEmbeddedContextLevel(contextLevel),
+          inliner.getEmbeddedLocalSelf(localSelf), getSourceSection()));
+    }
+
     public boolean accessesArgument() {
       return variable instanceof Argument;
     }
@@ -153,6 +174,15 @@ public abstract class UninitializedVariableNode extends ContextualNode {
       assert varSlot       != null;
       replace(new UninitializedSuperReadNode(this, varSlot, localSelfSlot));
     }
+
+    @Override
+    public void replaceWithLexicallyEmbeddedNode(
+        final InlinerForLexicallyEmbeddedMethods inliner) {
+      replace(new UninitializedSuperReadNode(getEmbeddedVariable(inliner),
+          inliner.getEmbeddedContextLevel(contextLevel),
+          inliner.getEmbeddedLocalSelf(localSelf), holderClass, classSide,
+          getSourceSection()));
+    }
   }
 
   public static final class UninitializedVariableWriteNode extends UninitializedVariableNode {
@@ -210,5 +240,14 @@ public abstract class UninitializedVariableNode extends ContextualNode {
       assert varSlot       != null;
       replace(new UninitializedVariableWriteNode(this, varSlot, localSelfSlot));
     }
+
+    @Override
+    public void replaceWithLexicallyEmbeddedNode(
+        final InlinerForLexicallyEmbeddedMethods inliner) {
+      replace(new UninitializedVariableWriteNode(
+          (Local) getEmbeddedVariable(inliner),
+          inliner.getEmbeddedContextLevel(contextLevel),
+          inliner.getEmbeddedLocalSelf(localSelf), exp, getSourceSection()));
+    }
   }
 }
@@ -1,8 +1,14 @@
 package som.interpreter.nodes.dispatch;
 
+import som.interpreter.SArguments;
+import som.interpreter.TruffleCompiler;
+import som.vm.Universe;
+import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
+import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
@@ -10,29 +16,244 @@ import com.oracle.truffle.api.nodes.Node;
 
 
 public abstract class AbstractDispatchNode extends Node implements DispatchChain {
-  public static final int INLINE_CACHE_SIZE = 6;
+  // the initial limit for the number of entries per dispatch chain
+  public static final int INLINE_CACHE_SIZE =
+      Integer.getInteger("som.inlineCacheSize", 6);
+
+  // sites with stable receiver classes can grow their cache up to this limit
+  public static final int MAX_INLINE_CACHE_SIZE = Math.max(INLINE_CACHE_SIZE,
+      Integer.getInteger("som.maxInlineCacheSize", 10));
 
   public abstract Object executeDispatch(
       final VirtualFrame frame, final Object[] arguments);
 
+  // The following variants take the arguments separately. The argument
+  // array is only created where it is needed, i.e., for the call.
+
+  public Object executeDispatchUnary(final VirtualFrame frame,
+      final Object receiver) {
+    return executeDispatch(frame, new Object[] {receiver});
+  }
+
+  public Object executeDispatchBinary(final VirtualFrame frame,
+      final Object receiver, final Object argument) {
+    return executeDispatch(frame, new Object[] {receiver, argument});
+  }
+
+  public Object executeDispatchTernary(final VirtualFrame frame,
+      final Object receiver, final Object arg1, final Object arg2) {
+    return executeDispatch(frame, new Object[] {receiver, arg1, arg2});
+  }
+
+  public Object executeDispatchQuaternary(final VirtualFrame frame,
+      final Object receiver, final Object arg1, final Object arg2,
+      final Object arg3) {
+    return executeDispatch(frame, new Object[] {receiver, arg1, arg2, arg3});
+  }
+
   public abstract static class AbstractCachedDispatchNode
       extends AbstractDispatchNode {
 
     @Child protected DirectCallNode       cachedMethod;
+    @Child protected TrivialMethodNode    inlinedMethod;
     @Child protected AbstractDispatchNode nextInCache;
 
+    // only counted in the interpreter, used to order the chain by frequency
+    private int hitCount;
+
     public AbstractCachedDispatchNode(final SInvokable method,
         final AbstractDispatchNode nextInCache) {
-      CallTarget methodCallTarget = method.getCallTarget();
-      DirectCallNode cachedMethod = Truffle.getRuntime().createDirectCallNode(methodCallTarget);
+      this(method, nextInCache, true);
+    }
+
+    protected AbstractCachedDispatchNode(final SInvokable method,
+        final AbstractDispatchNode nextInCache,
+        final boolean inlineTrivialMethod) {
+      // trivial methods, e.g., getters and setters, do not need a call
+      TrivialMethodNode inlinedMethod = null;
+      if (inlineTrivialMethod) {
+        inlinedMethod = TrivialMethodNode.create(method);
+      }
+      if (inlinedMethod == null) {
+        CallTarget methodCallTarget = method.getCallTarget();
+        this.cachedMethod = Truffle.getRuntime().createDirectCallNode(methodCallTarget);
+      }
+
+      this.inlinedMethod = inlinedMethod;
+      this.nextInCache   = nextInCache;
+    }
+
+    /**
+     * @return true, if the receiver is handled by this entry of the chain
+     */
+    protected abstract boolean isCachedReceiver(final Object receiver);
+
+    /**
+     * @return false, if the entry depends on assumptions that do not hold
+     *         anymore. Such an entry is removed from the chain.
+     */
+    protected boolean isValid() {
+      return true;
+    }
+
+    private AbstractDispatchNode removeFromChain() {
+      TruffleCompiler.transferToInterpreterAndInvalidate("cached dispatch became invalid");
+      return replace(nextInCache, "cached dispatch became invalid");
+    }
+
+    @Override
+    public final Object executeDispatch(final VirtualFrame frame,
+        final Object[] arguments) {
+      if (!isValid()) {
+        return removeFromChain().executeDispatch(frame, arguments);
+      }
+      if (isCachedReceiver(arguments[0])) {
+        return invoke(frame, arguments);
+      } else {
+        return nextInCache.executeDispatch(frame, arguments);
+      }
+    }
+
+    @Override
+    public final Object executeDispatchUnary(final VirtualFrame frame,
+        final Object receiver) {
+      if (!isValid()) {
+        return removeFromChain().executeDispatchUnary(frame, receiver);
+      }
+      if (isCachedReceiver(receiver)) {
+        if (inlinedMethod != null) {
+          return callInlined(frame, receiver, null);
+        }
+        return invoke(frame, new Object[] {receiver});
+      } else {
+        return nextInCache.executeDispatchUnary(frame, receiver);
+      }
+    }
+
+    @Override
+    public final Object executeDispatchBinary(final VirtualFrame frame,
+        final Object receiver, final Object argument) {
+      if (!isValid()) {
+        return removeFromChain().executeDispatchBinary(frame, receiver, argument);
+      }
+      if (isCachedReceiver(receiver)) {
+        if (inlinedMethod != null) {
+          return callInlined(frame, receiver, argument);
+        }
+        return invoke(frame, new Object[] {receiver, argument});
+      } else {
+        return nextInCache.executeDispatchBinary(frame, receiver, argument);
+      }
+    }
+
+    @Override
+    public final Object executeDispatchTernary(final VirtualFrame frame,
+        final Object receiver, final Object arg1, final Object arg2) {
+      if (!isValid()) {
+        return removeFromChain().executeDispatchTernary(frame, receiver, arg1, arg2);
+      }
+      if (isCachedReceiver(receiver)) {
+        if (inlinedMethod != null) {
+          return callInlined(frame, receiver, arg1);
+        }
+        return invoke(frame, new Object[] {receiver, arg1, arg2});
+      } else {
+        return nextInCache.executeDispatchTernary(frame, receiver, arg1, arg2);
+      }
+    }
+
+    @Override
+    public final Object executeDispatchQuaternary(final VirtualFrame frame,
+        final Object receiver, final Object arg1, final Object arg2,
+        final Object arg3) {
+      if (!isValid()) {
+        return removeFromChain().executeDispatchQuaternary(frame, receiver, arg1, arg2, arg3);
+      }
+      if (isCachedReceiver(receiver)) {
+        if (inlinedMethod != null) {
+          return callInlined(frame, receiver, arg1);
+        }
+        return invoke(frame, new Object[] {receiver, arg1, arg2, arg3});
+      } else {
+        return nextInCache.executeDispatchQuaternary(frame, receiver, arg1,
+            arg2, arg3);
+      }
+    }
 
-      this.cachedMethod = cachedMethod;
-      this.nextInCache  = nextInCache;
+    protected Object invoke(final VirtualFrame frame,
+        final Object[] arguments) {
+      return callCached(frame, arguments);
     }
 
     @Override
     public final int lengthOfDispatchChain() {
       return 1 + nextInCache.lengthOfDispatchChain();
     }
+
+    protected final Object callCached(final VirtualFrame frame,
+        final Object[] arguments) {
+      if (inlinedMethod != null) {
+        return callInlined(frame, arguments[0],
+            arguments.length > 1 ? arguments[1] : null);
+      }
+      if (CompilerDirectives.inInterpreter()) {
+        hitCount++;
+      }
+      return cachedMethod.call(frame, arguments);
+    }
+
+    private Object callInlined(final VirtualFrame frame,
+        final Object receiver, final Object firstArg) {
+      if (CompilerDirectives.inInterpreter()) {
+        hitCount++;
+      }
+      return inlinedMethod.executeInlined(frame, receiver, firstArg);
+    }
+
+    public final int getHitCount() {
+      return hitCount;
+    }
+
+    /**
+     * @return true, if the node relies on a preceding check that the
+     *         receiver is an SObject, see SObjectCheckDispatchNode
+     */
+    public boolean requiresSObjectReceiver() {
+      return false;
+    }
+
+    final AbstractDispatchNode getNextInCache() {
+      return nextInCache;
+    }
+
+    final void setNextInCache(final AbstractDispatchNode next) {
+      nextInCache = insert(next);
+    }
+  }
+
+  /**
+   * Caches the #doesNotUnderstand:arguments: method of the receiver class,
+   * and calls it directly with the selector and arguments of the failed send.
+   */
+  public abstract static class AbstractCachedDnuNode
+      extends AbstractCachedDispatchNode {
+    private final SSymbol selector;
+
+    public AbstractCachedDnuNode(final SClass rcvrClass,
+        final SSymbol selector, final AbstractDispatchNode nextInCache) {
+      // the arguments of the send are passed as array, no need to inline
+      super(rcvrClass.lookupInvokable(
+          Universe.current().symbolFor("doesNotUnderstand:arguments:")),
+          nextInCache, false);
+      this.selector = selector;
+    }
+
+    @Override
+    protected final Object invoke(final VirtualFrame frame,
+        final Object[] arguments) {
+      Object[] argsArr = new Object[] {
+          arguments[0], selector, SArguments.getArgumentsWithoutReceiver(arguments) };
+      return callCached(frame, argsArr);
+    }
   }
 }
@@ -4,8 +4,6 @@ import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDispatc
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 
-import com.oracle.truffle.api.frame.VirtualFrame;
-
 
 public final class CachedBlockDispatchNode extends AbstractCachedDispatchNode {
 
@@ -18,12 +16,8 @@ public final class CachedBlockDispatchNode extends AbstractCachedDispatchNode {
   }
 
   @Override
-  public Object executeDispatch(final VirtualFrame frame, final Object[] arguments) {
-    SBlock rcvr = (SBlock) arguments[0];
-    if (rcvr.getMethod() == cachedSomMethod) {
-      return cachedMethod.call(frame, arguments);
-    } else {
-      return nextInCache.executeDispatch(frame, arguments);
-    }
+  protected boolean isCachedReceiver(final Object receiver) {
+    SBlock rcvr = (SBlock) receiver;
+    return rcvr.getMethod() == cachedSomMethod;
   }
 }
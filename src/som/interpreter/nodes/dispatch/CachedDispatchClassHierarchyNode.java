@@ -0,0 +1,55 @@
+package som.interpreter.nodes.dispatch;
+
+import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDispatchNode;
+import som.vmobjects.SClass;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SObject;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+
+
+/**
+ * Dispatch node based on class hierarchy analysis. If the method is not
+ * overridden in any subclass of its holder, it is the target for all
+ * receivers that are instances of the holder or its subclasses. Thus, a
+ * single node covers all of them, instead of one node per receiver class.
+ * It is only used once a second receiver class reaches the send, a
+ * monomorphic send is covered by a cheaper identity check of the class.
+ *
+ * Once the method gets overridden or replaced, the node removes itself from
+ * the dispatch chain.
+ */
+public final class CachedDispatchClassHierarchyNode extends AbstractCachedDispatchNode {
+
+  private final SClass     holder;
+  private final Assumption noOverride;
+
+  // the index of the holder in the superclass displays. Changing a
+  // superclass of the holder invalidates noOverride as well.
+  private final int        holderDepth;
+
+  public CachedDispatchClassHierarchyNode(final SInvokable method,
+      final Assumption noOverride, final AbstractDispatchNode nextInCache) {
+    super(method, nextInCache);
+    this.holder     = method.getHolder();
+    this.noOverride = noOverride;
+    this.holderDepth = holder.getDepthInHierarchy();
+  }
+
+  @Override
+  protected boolean isValid() {
+    return noOverride.isValid();
+  }
+
+  @Override
+  protected boolean isCachedReceiver(final Object receiver) {
+    SObject rcvr = CompilerDirectives.unsafeCast(receiver, SObject.class, true);
+    return rcvr.getSOMClass().isSubclassOf(holder, holderDepth);
+  }
+
+  @Override
+  public boolean requiresSObjectReceiver() {
+    return true;
+  }
+}
@@ -0,0 +1,44 @@
+package som.interpreter.nodes.dispatch;
+
+import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDispatchNode;
+import som.vm.constants.Nil;
+import som.vmobjects.SInvokable;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+
+/**
+ * Dispatch node for receivers that are read from a field, for which it is
+ * known that all non-nil values stored in it are of the same class.
+ * Instead of loading and comparing the receiver's class, it is sufficient to
+ * check that the receiver is not nil, as long as the assumptions hold.
+ * Once they are invalidated, the node removes itself from the chain.
+ */
+public final class CachedDispatchKnownClassNode extends AbstractCachedDispatchNode {
+
+  @CompilationFinal private final Assumption[] knownClass;
+
+  public CachedDispatchKnownClassNode(final SInvokable method,
+      final Assumption[] knownClass, final AbstractDispatchNode nextInCache) {
+    super(method, nextInCache);
+    this.knownClass = knownClass;
+  }
+
+  @Override
+  protected boolean isCachedReceiver(final Object receiver) {
+    return receiver != Nil.nilObject;
+  }
+
+  @Override
+  @ExplodeLoop
+  protected boolean isValid() {
+    for (Assumption a : knownClass) {
+      if (!a.isValid()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
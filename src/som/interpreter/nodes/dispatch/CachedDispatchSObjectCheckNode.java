@@ -6,27 +6,32 @@ import som.vmobjects.SInvokable;
 import som.vmobjects.SObject;
 
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.VirtualFrame;
 
 
 public final class CachedDispatchSObjectCheckNode extends AbstractCachedDispatchNode {
 
-  private final SClass expectedClass;
+  private final SClass     expectedClass;
+  private final SInvokable method;
 
   public CachedDispatchSObjectCheckNode(final SClass rcvrClass,
       final SInvokable method, final AbstractDispatchNode nextInCache) {
     super(method, nextInCache);
     this.expectedClass = rcvrClass;
+    this.method        = method;
   }
 
   @Override
-  public Object executeDispatch(
-      final VirtualFrame frame, final Object[] arguments) {
-    SObject rcvr = CompilerDirectives.unsafeCast(arguments[0], SObject.class, true);
-    if (rcvr.getSOMClass() == expectedClass) {
-      return cachedMethod.call(frame, arguments);
-    } else {
-      return nextInCache.executeDispatch(frame, arguments);
-    }
+  protected boolean isCachedReceiver(final Object receiver) {
+    SObject rcvr = CompilerDirectives.unsafeCast(receiver, SObject.class, true);
+    return rcvr.getSOMClass() == expectedClass;
+  }
+
+  SInvokable getCachedMethod() {
+    return method;
+  }
+
+  @Override
+  public boolean requiresSObjectReceiver() {
+    return true;
   }
 }
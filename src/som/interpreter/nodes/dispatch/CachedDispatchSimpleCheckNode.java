@@ -3,8 +3,6 @@ package som.interpreter.nodes.dispatch;
 import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDispatchNode;
 import som.vmobjects.SInvokable;
 
-import com.oracle.truffle.api.frame.VirtualFrame;
-
 
 public final class CachedDispatchSimpleCheckNode extends AbstractCachedDispatchNode {
 
@@ -17,13 +15,8 @@ public final class CachedDispatchSimpleCheckNode extends AbstractCachedDispatchN
   }
 
   @Override
-  public Object executeDispatch(final VirtualFrame frame,
-      final Object[] arguments) {
-    if (arguments[0].getClass() == expectedClass) {
-      return cachedMethod.call(frame, arguments);
-    } else {
-      return nextInCache.executeDispatch(frame, arguments);
-    }
+  protected boolean isCachedReceiver(final Object receiver) {
+    return receiver.getClass() == expectedClass;
   }
 
   public static final class CachedDispatchTrueCheckNode
@@ -34,13 +27,8 @@ public final class CachedDispatchSimpleCheckNode extends AbstractCachedDispatchN
     }
 
     @Override
-    public Object executeDispatch(final VirtualFrame frame,
-        final Object[] arguments) {
-      if (arguments[0] == Boolean.TRUE) {
-        return cachedMethod.call(frame, arguments);
-      } else {
-        return nextInCache.executeDispatch(frame, arguments);
-      }
+    protected boolean isCachedReceiver(final Object receiver) {
+      return receiver == Boolean.TRUE;
     }
   }
 
@@ -52,13 +40,8 @@ public final class CachedDispatchSimpleCheckNode extends AbstractCachedDispatchN
     }
 
     @Override
-    public Object executeDispatch(final VirtualFrame frame,
-        final Object[] arguments) {
-      if (arguments[0] == Boolean.FALSE) {
-        return cachedMethod.call(frame, arguments);
-      } else {
-        return nextInCache.executeDispatch(frame, arguments);
-      }
+    protected boolean isCachedReceiver(final Object receiver) {
+      return receiver == Boolean.FALSE;
     }
   }
 }
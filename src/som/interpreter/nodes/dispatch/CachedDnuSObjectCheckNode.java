@@ -1,38 +1,30 @@
 package som.interpreter.nodes.dispatch;
 
-import som.interpreter.SArguments;
-import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDispatchNode;
-import som.vm.Universe;
+import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDnuNode;
 import som.vmobjects.SClass;
 import som.vmobjects.SObject;
 import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.VirtualFrame;
 
 
-public final class CachedDnuSObjectCheckNode extends AbstractCachedDispatchNode {
+public final class CachedDnuSObjectCheckNode extends AbstractCachedDnuNode {
   private final SClass expectedClass;
-  private final SSymbol selector;
 
   public CachedDnuSObjectCheckNode(final SClass rcvrClass,
       final SSymbol selector, final AbstractDispatchNode nextInCache) {
-    super(rcvrClass.lookupInvokable(Universe.current().symbolFor("doesNotUnderstand:arguments:")),
-        nextInCache);
+    super(rcvrClass, selector, nextInCache);
     expectedClass = rcvrClass;
-    this.selector = selector;
   }
 
   @Override
-  public Object executeDispatch(final VirtualFrame frame, final Object[] arguments) {
-    SObject rcvr = CompilerDirectives.unsafeCast(arguments[0], SObject.class, true);
+  protected boolean isCachedReceiver(final Object receiver) {
+    SObject rcvr = CompilerDirectives.unsafeCast(receiver, SObject.class, true);
+    return rcvr.getSOMClass() == expectedClass;
+  }
 
-    if (rcvr.getSOMClass() == expectedClass) {
-      Object[] argsArr = new Object[] {
-          rcvr, selector, SArguments.getArgumentsWithoutReceiver(arguments) };
-      return cachedMethod.call(frame, argsArr);
-    } else {
-      return nextInCache.executeDispatch(frame, arguments);
-    }
+  @Override
+  public boolean requiresSObjectReceiver() {
+    return true;
   }
 }
@@ -0,0 +1,54 @@
+package som.interpreter.nodes.dispatch;
+
+import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDnuNode;
+import som.vmobjects.SClass;
+import som.vmobjects.SSymbol;
+
+
+/**
+ * DNU dispatch for receivers that are not SObjects, e.g., longs, strings,
+ * or arrays. Similar to CachedDispatchSimpleCheckNode, the Java class
+ * determines the SOM class, except for booleans.
+ */
+public final class CachedDnuSimpleCheckNode extends AbstractCachedDnuNode {
+
+  private final Class<?> expectedClass;
+
+  public CachedDnuSimpleCheckNode(final Class<?> rcvrJavaClass,
+      final SClass rcvrClass, final SSymbol selector,
+      final AbstractDispatchNode nextInCache) {
+    super(rcvrClass, selector, nextInCache);
+    this.expectedClass = rcvrJavaClass;
+  }
+
+  @Override
+  protected boolean isCachedReceiver(final Object receiver) {
+    return receiver.getClass() == expectedClass;
+  }
+
+  public static final class CachedDnuTrueCheckNode
+      extends AbstractCachedDnuNode {
+    public CachedDnuTrueCheckNode(final SClass rcvrClass,
+        final SSymbol selector, final AbstractDispatchNode nextInCache) {
+      super(rcvrClass, selector, nextInCache);
+    }
+
+    @Override
+    protected boolean isCachedReceiver(final Object receiver) {
+      return receiver == Boolean.TRUE;
+    }
+  }
+
+  public static final class CachedDnuFalseCheckNode
+      extends AbstractCachedDnuNode {
+    public CachedDnuFalseCheckNode(final SClass rcvrClass,
+        final SSymbol selector, final AbstractDispatchNode nextInCache) {
+      super(rcvrClass, selector, nextInCache);
+    }
+
+    @Override
+    protected boolean isCachedReceiver(final Object receiver) {
+      return receiver == Boolean.FALSE;
+    }
+  }
+}
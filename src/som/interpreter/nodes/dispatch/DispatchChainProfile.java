@@ -0,0 +1,130 @@
+package som.interpreter.nodes.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import som.interpreter.nodes.dispatch.AbstractDispatchNode.AbstractCachedDispatchNode;
+import som.vm.Universe;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * Uses the hit counts of the cached dispatch nodes, which are gathered in
+ * the interpreter, to order dispatch chains by frequency, and to decide
+ * whether a site with a full chain should get a larger cache. The number of
+ * megamorphic sites is available via System>>#megamorphicSites.
+ */
+public final class DispatchChainProfile {
+  // entries with fewer hits indicate that the receiver classes are not stable
+  private static final int MIN_HITS_FOR_LARGER_CACHE = 10;
+
+  private static final boolean TRACE_MEGAMORPHIC =
+      Boolean.getBoolean("som.traceMegamorphic");
+
+  private static int numberOfMegamorphicSites;
+
+  private DispatchChainProfile() { }
+
+  /**
+   * Sorts the entries of the chain by their hit counts, most frequent first.
+   * Entries that require a preceding SObject check are only reordered
+   * among themselves.
+   */
+  public static void sortByHitCount(final AbstractDispatchNode head) {
+    CompilerAsserts.neverPartOfCompilation("DispatchChainProfile.sortByHitCount(.)");
+    AbstractDispatchNode current = head;
+    while (current != null) {
+      if (current instanceof AbstractCachedDispatchNode) {
+        current = sortRun((AbstractCachedDispatchNode) current);
+      } else if (current instanceof SObjectCheckDispatchNode) {
+        current = ((SObjectCheckDispatchNode) current).getNextInCache();
+      } else {
+        current = null;
+      }
+    }
+  }
+
+  /**
+   * Sorts the run of entries starting with the given one.
+   *
+   * @return the first node after the run
+   */
+  private static AbstractDispatchNode sortRun(final AbstractCachedDispatchNode first) {
+    boolean requiresSObject = first.requiresSObjectReceiver();
+    ArrayList<AbstractCachedDispatchNode> run = new ArrayList<>();
+
+    AbstractDispatchNode current = first;
+    while (current instanceof AbstractCachedDispatchNode &&
+        ((AbstractCachedDispatchNode) current).requiresSObjectReceiver() == requiresSObject) {
+      AbstractCachedDispatchNode cached = (AbstractCachedDispatchNode) current;
+      run.add(cached);
+      current = cached.getNextInCache();
+    }
+    AbstractDispatchNode tail = current;
+
+    ArrayList<AbstractCachedDispatchNode> sorted = new ArrayList<>(run);
+    Collections.sort(sorted, new Comparator<AbstractCachedDispatchNode>() {
+      @Override
+      public int compare(final AbstractCachedDispatchNode a,
+          final AbstractCachedDispatchNode b) {
+        return Integer.compare(b.getHitCount(), a.getHitCount());
+      }
+    });
+
+    if (!sorted.equals(run)) {
+      if (sorted.get(0) != first) {
+        first.replace(sorted.get(0), "reorder dispatch chain by frequency");
+      }
+      AbstractDispatchNode next = tail;
+      for (int i = sorted.size() - 1; i >= 0; i--) {
+        sorted.get(i).setNextInCache(next);
+        next = sorted.get(i);
+      }
+    }
+    return tail;
+  }
+
+  /**
+   * @return true, if all entries of the chain have been used frequently,
+   *         which indicates that the receiver classes at the site are stable
+   */
+  public static boolean hasOnlyFrequentlyHitEntries(final AbstractDispatchNode head) {
+    CompilerAsserts.neverPartOfCompilation("DispatchChainProfile.hasOnlyFrequentlyHitEntries(.)");
+    AbstractDispatchNode current = head;
+    while (current != null) {
+      if (current instanceof AbstractCachedDispatchNode) {
+        AbstractCachedDispatchNode cached = (AbstractCachedDispatchNode) current;
+        if (cached.getHitCount() < MIN_HITS_FOR_LARGER_CACHE) {
+          return false;
+        }
+        current = cached.getNextInCache();
+      } else if (current instanceof SObjectCheckDispatchNode) {
+        current = ((SObjectCheckDispatchNode) current).getNextInCache();
+      } else {
+        current = null;
+      }
+    }
+    return true;
+  }
+
+  public static void reportMegamorphicSite(final SSymbol selector,
+      final Node site) {
+    CompilerAsserts.neverPartOfCompilation("DispatchChainProfile.reportMegamorphicSite(..)");
+    numberOfMegamorphicSites++;
+
+    if (TRACE_MEGAMORPHIC) {
+      SourceSection source = site.getSourceSection();
+      Universe.errorPrintln("[megamorphic send] #" + selector.getString()
+          + (source == null ? "" : " at " + source.getShortDescription()));
+    }
+  }
+
+  public static int getNumberOfMegamorphicSites() {
+    return numberOfMegamorphicSites;
+  }
+}
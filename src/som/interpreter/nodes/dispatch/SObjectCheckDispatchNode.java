@@ -32,6 +32,59 @@ public final class SObjectCheckDispatchNode extends AbstractDispatchNode {
     }
   }
 
+  @Override
+  public Object executeDispatchUnary(final VirtualFrame frame,
+      final Object receiver) {
+    if (receiver instanceof SObject) {
+      return nextInCache.executeDispatchUnary(frame, receiver);
+    } else {
+      uninitialized.enter();
+      return uninitializedDispatch.executeDispatchUnary(frame, receiver);
+    }
+  }
+
+  @Override
+  public Object executeDispatchBinary(final VirtualFrame frame,
+      final Object receiver, final Object argument) {
+    if (receiver instanceof SObject) {
+      return nextInCache.executeDispatchBinary(frame, receiver, argument);
+    } else {
+      uninitialized.enter();
+      return uninitializedDispatch.executeDispatchBinary(frame, receiver,
+          argument);
+    }
+  }
+
+  @Override
+  public Object executeDispatchTernary(final VirtualFrame frame,
+      final Object receiver, final Object arg1, final Object arg2) {
+    if (receiver instanceof SObject) {
+      return nextInCache.executeDispatchTernary(frame, receiver, arg1, arg2);
+    } else {
+      uninitialized.enter();
+      return uninitializedDispatch.executeDispatchTernary(frame, receiver,
+          arg1, arg2);
+    }
+  }
+
+  @Override
+  public Object executeDispatchQuaternary(final VirtualFrame frame,
+      final Object receiver, final Object arg1, final Object arg2,
+      final Object arg3) {
+    if (receiver instanceof SObject) {
+      return nextInCache.executeDispatchQuaternary(frame, receiver, arg1,
+          arg2, arg3);
+    } else {
+      uninitialized.enter();
+      return uninitializedDispatch.executeDispatchQuaternary(frame, receiver,
+          arg1, arg2, arg3);
+    }
+  }
+
+  AbstractDispatchNode getNextInCache() {
+    return nextInCache;
+  }
+
   @Override
   public int lengthOfDispatchChain() {
     return nextInCache.lengthOfDispatchChain();
@@ -1,10 +1,14 @@
 package som.interpreter.nodes.dispatch;
 
+import som.interpreter.SArguments;
+import som.interpreter.TruffleCompiler;
 import som.interpreter.nodes.ISuperReadNode;
+import som.vm.Universe;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SSymbol;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -13,6 +17,12 @@ import com.oracle.truffle.api.nodes.DirectCallNode;
 /**
  * Super sends are special, they lead to a lexically defined receiver class.
  * So, it's always the cached receiver.
+ *
+ * The target is only guarded by an assumption on the stability of the
+ * lookup in the lexical superclass. If the hierarchy changes, the node
+ * redoes the lookup. If the method got removed, the node sends
+ * #doesNotUnderstand:arguments:, which is also looked up in the lexical
+ * superclass.
  */
 public final class SuperDispatchNode extends AbstractDispatchNode {
 
@@ -25,28 +35,63 @@ public final class SuperDispatchNode extends AbstractDispatchNode {
   public static SuperDispatchNode create(final SSymbol selector,
       final SClass lookupClass) {
     CompilerAsserts.neverPartOfCompilation("SuperDispatchNode.create2");
+    // acquire the assumption first, to not miss changes during the lookup
+    Assumption stableLookup = lookupClass.getStableLookupAssumption(selector);
     SInvokable method = lookupClass.lookupInvokable(selector);
 
-    if (method == null) {
-      throw new RuntimeException("Currently #dnu with super sent is not yet implemented. ");
+    boolean sendsDnu = method == null;
+    if (sendsDnu) {
+      method = lookupClass.lookupInvokable(
+          Universe.current().symbolFor("doesNotUnderstand:arguments:"));
     }
     DirectCallNode superMethodNode = Truffle.getRuntime().createDirectCallNode(
         method.getCallTarget());
-    return new SuperDispatchNode(superMethodNode);
+    return new SuperDispatchNode(selector, lookupClass, stableLookup,
+        superMethodNode, sendsDnu);
   }
 
+  private final SSymbol    selector;
+  private final SClass     lookupClass;
+  private final Assumption stableLookup;
+  private final boolean    sendsDnu;
+
   @Child private DirectCallNode cachedSuperMethod;
 
-  private SuperDispatchNode(final DirectCallNode superMethod) {
+  private SuperDispatchNode(final SSymbol selector, final SClass lookupClass,
+      final Assumption stableLookup, final DirectCallNode superMethod,
+      final boolean sendsDnu) {
+    this.selector     = selector;
+    this.lookupClass  = lookupClass;
+    this.stableLookup = stableLookup;
+    this.sendsDnu     = sendsDnu;
     this.cachedSuperMethod = superMethod;
   }
 
   @Override
   public Object executeDispatch(
       final VirtualFrame frame, final Object[] arguments) {
+    if (!stableLookup.isValid()) {
+      TruffleCompiler.transferToInterpreterAndInvalidate("super send target changed");
+      return replace(create(selector, lookupClass), "super send target changed").
+          executeDispatch(frame, arguments);
+    }
+    if (sendsDnu) {
+      Object[] argsArr = new Object[] {
+          arguments[0], selector, SArguments.getArgumentsWithoutReceiver(arguments) };
+      return cachedSuperMethod.call(frame, argsArr);
+    }
     return cachedSuperMethod.call(frame, arguments);
   }
 
+  /**
+   * @return a node with its own call node, used when the AST is copied for
+   *         splitting
+   */
+  public SuperDispatchNode createIndependentCopy() {
+    CompilerAsserts.neverPartOfCompilation("SuperDispatchNode.createIndependentCopy");
+    return create(selector, lookupClass);
+  }
+
   @Override
   public int lengthOfDispatchChain() {
     return 1;
@@ -0,0 +1,159 @@
+package som.interpreter.nodes.dispatch;
+
+import som.interpreter.Method;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.FieldNode.FieldReadNode;
+import som.interpreter.nodes.FieldNode.FieldWriteNode;
+import som.interpreter.nodes.SequenceNode;
+import som.interpreter.nodes.UninitializedVariableNode.UninitializedVariableReadNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.interpreter.nodes.literals.LiteralNode;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SObject;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
+
+
+/**
+ * Inlined version of a trivial method, i.e., a method that only returns
+ * self, a literal, or a field of self, or that only sets a field of self.
+ * Such methods are evaluated directly on the arguments of the send, without
+ * a call and without a frame. Since they use at most the first argument,
+ * only the receiver and the first argument are passed.
+ */
+public abstract class TrivialMethodNode extends Node {
+
+  public abstract Object executeInlined(final VirtualFrame frame,
+      final Object receiver, final Object firstArg);
+
+  /**
+   * @return a node that evaluates the method without calling it, or null,
+   *         if the method is not trivial
+   */
+  public static TrivialMethodNode create(final SInvokable method) {
+    CompilerAsserts.neverPartOfCompilation("TrivialMethodNode.create(.)");
+    if (!(method.getInvokable() instanceof Method)
+        || method.getInvokable().isBlock()) {
+      return null;
+    }
+
+    ExpressionNode body = method.getInvokable().getUninitializedBody().
+        getFirstMethodBodyNode();
+
+    if (isLocalSelfRead(body)) {
+      return new ReturnSelfNode();
+    }
+
+    if (body instanceof LiteralNode && !(body instanceof BlockNode)) {
+      return new LiteralReturnNode(NodeUtil.cloneNode((LiteralNode) body));
+    }
+
+    if (body instanceof FieldReadNode
+        && ((FieldReadNode) body).accessesLocalSelf()) {
+      return new FieldGetterNode(new FieldReadNode((FieldReadNode) body));
+    }
+
+    if (isSetter(body)) {
+      return new FieldSetterNode(copySetter(body), false);
+    }
+
+    if (body instanceof SequenceNode) {
+      ExpressionNode[] expressions = ((SequenceNode) body).getExpressions();
+      if (expressions.length == 2 && isSetter(expressions[0])
+          && isLocalSelfRead(expressions[1])) {
+        return new FieldSetterNode(copySetter(expressions[0]), true);
+      }
+    }
+    return null;
+  }
+
+  private static boolean isLocalSelfRead(final ExpressionNode node) {
+    if (!(node instanceof UninitializedVariableReadNode)) {
+      return false;
+    }
+    UninitializedVariableReadNode read = (UninitializedVariableReadNode) node;
+    return read.accessesSelf() && !read.accessesOuterContext();
+  }
+
+  /**
+   * A setter writes the first argument of the method into a field of self.
+   */
+  private static boolean isSetter(final ExpressionNode node) {
+    if (!(node instanceof FieldWriteNode)
+        || !((FieldWriteNode) node).accessesLocalSelf()) {
+      return false;
+    }
+
+    ExpressionNode value = ((FieldWriteNode) node).getValue();
+    if (!(value instanceof UninitializedVariableReadNode)) {
+      return false;
+    }
+
+    UninitializedVariableReadNode read = (UninitializedVariableReadNode) value;
+    return read.accessesArgument() && !read.accessesOuterContext()
+        && read.getArgumentIndex() == 1;
+  }
+
+  private static FieldWriteNode copySetter(final ExpressionNode node) {
+    return NodeUtil.cloneNode((FieldWriteNode) node);
+  }
+
+  private static final class ReturnSelfNode extends TrivialMethodNode {
+    @Override
+    public Object executeInlined(final VirtualFrame frame,
+        final Object receiver, final Object firstArg) {
+      return receiver;
+    }
+  }
+
+  private static final class LiteralReturnNode extends TrivialMethodNode {
+    @Child private LiteralNode literal;
+
+    LiteralReturnNode(final LiteralNode literal) {
+      this.literal = literal;
+    }
+
+    @Override
+    public Object executeInlined(final VirtualFrame frame,
+        final Object receiver, final Object firstArg) {
+      return literal.executeGeneric(frame);
+    }
+  }
+
+  private static final class FieldGetterNode extends TrivialMethodNode {
+    @Child private FieldReadNode read;
+
+    FieldGetterNode(final FieldReadNode read) {
+      this.read = read;
+    }
+
+    @Override
+    public Object executeInlined(final VirtualFrame frame,
+        final Object receiver, final Object firstArg) {
+      return read.executeEvaluated((SObject) receiver);
+    }
+  }
+
+  private static final class FieldSetterNode extends TrivialMethodNode {
+    @Child private FieldWriteNode write;
+    private final boolean returnsSelf;
+
+    FieldSetterNode(final FieldWriteNode write, final boolean returnsSelf) {
+      this.write       = write;
+      this.returnsSelf = returnsSelf;
+    }
+
+    @Override
+    public Object executeInlined(final VirtualFrame frame,
+        final Object receiver, final Object firstArg) {
+      Object value = write.executeEvaluated(frame, (SObject) receiver, firstArg);
+      if (returnsSelf) {
+        return receiver;
+      }
+      return value;
+    }
+  }
+}
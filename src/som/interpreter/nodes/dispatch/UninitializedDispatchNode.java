@@ -2,15 +2,21 @@ package som.interpreter.nodes.dispatch;
 
 import static som.interpreter.TruffleCompiler.transferToInterpreterAndInvalidate;
 import som.interpreter.Types;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.FieldNode.FieldReadNode;
 import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
 import som.interpreter.nodes.dispatch.CachedDispatchSimpleCheckNode.CachedDispatchFalseCheckNode;
 import som.interpreter.nodes.dispatch.CachedDispatchSimpleCheckNode.CachedDispatchTrueCheckNode;
-import som.vm.NotYetImplementedException;
+import som.interpreter.nodes.dispatch.CachedDnuSimpleCheckNode.CachedDnuFalseCheckNode;
+import som.interpreter.nodes.dispatch.CachedDnuSimpleCheckNode.CachedDnuTrueCheckNode;
+import som.interpreter.objectstorage.FieldAccessorNode.AbstractReadFieldNode;
+import som.interpreter.objectstorage.FieldAccessorNode.ReadObjectFieldNode;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SObject;
 import som.vmobjects.SSymbol;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 
@@ -39,19 +45,41 @@ public final class UninitializedDispatchNode extends AbstractDispatchWithLookupN
     GenericMessageSendNode sendNode = (GenericMessageSendNode) i.getParent();
 
 
-    if (chainDepth < INLINE_CACHE_SIZE) {
+    if (chainDepth < sendNode.getInlineCacheLimit()
+        || sendNode.tryToExtendInlineCache()) {
       SClass rcvrClass = Types.getClassOf(rcvr);
       SInvokable method = rcvrClass.lookupInvokable(selector);
 
-      UninitializedDispatchNode newChainEnd = new UninitializedDispatchNode(selector);
+      // trivial methods are inlined by the cached dispatch nodes, see
+      // TrivialMethodNode
+      if (rcvr instanceof SObject && method != null && chainDepth == 0
+          && isReceiverOfKnownClass(sendNode, rcvrClass)) {
+        // the receiver is read from a field that only contains objects of
+        // this class, the class check is covered by assumptions
+        ReadObjectFieldNode read = (ReadObjectFieldNode)
+            ((FieldReadNode) sendNode.getReceiverNode()).getReadNode();
+        sendNode.dispatchChainGrown();
+        AbstractCachedDispatchNode node = new CachedDispatchKnownClassNode(
+            method, read.getKnownClassAssumptions(),
+            new UninitializedDispatchNode(selector));
+        return replace(node).executeDispatch(frame, arguments);
+      }
 
-//        if (method.getInvokable().isAlwaysToBeInlined()) {
-//          InlinedDispatchNode inlined = InlinedDispatchNode.create(
-//              rcvrClass, method, newChainEnd, universe);
-//          return replace(inlined).executeDispatch(frame, arguments);
-//        } else {
       if (rcvr instanceof SObject) {
         AbstractCachedDispatchNode node;
+        CachedDispatchSObjectCheckNode sameMethod = findEntryForMethod(method);
+        Assumption noOverride = sameMethod == null
+            ? null : getNoOverrideAssumption(method);
+        if (noOverride != null) {
+          // a second receiver class for the same method, instead of adding
+          // an entry, a single node covers all subclasses of the holder
+          node = new CachedDispatchClassHierarchyNode(
+              method, noOverride, sameMethod.getNextInCache());
+          return sameMethod.replace(node).executeDispatch(frame, arguments);
+        }
+
+        UninitializedDispatchNode newChainEnd = new UninitializedDispatchNode(selector);
+        sendNode.dispatchChainGrown();
         if (method != null) {
           node = new CachedDispatchSObjectCheckNode(
               rcvrClass, method, newChainEnd);
@@ -60,7 +88,7 @@ public final class UninitializedDispatchNode extends AbstractDispatchWithLookupN
               rcvrClass, selector, newChainEnd);
         }
 
-        if ((getParent() instanceof CachedDispatchSObjectCheckNode)) {
+        if (isInSObjectCheckedChain()) {
           return replace(node).executeDispatch(frame, arguments);
         } else {
           SObjectCheckDispatchNode checkNode = new SObjectCheckDispatchNode(node,
@@ -68,15 +96,22 @@ public final class UninitializedDispatchNode extends AbstractDispatchWithLookupN
           return replace(checkNode).executeDispatch(frame, arguments);
         }
       } else {
-        if (method == null) {
-          throw new NotYetImplementedException();
-        }
         // the simple checks are prepended
 
         AbstractCachedDispatchNode node;
         AbstractDispatchNode next = sendNode.getDispatchListHead();
+        sendNode.dispatchChainGrown();
 
-        if (rcvr == Boolean.TRUE) {
+        if (method == null) {
+          if (rcvr == Boolean.TRUE) {
+            node = new CachedDnuTrueCheckNode(rcvrClass, selector, next);
+          } else if (rcvr == Boolean.FALSE) {
+            node = new CachedDnuFalseCheckNode(rcvrClass, selector, next);
+          } else {
+            node = new CachedDnuSimpleCheckNode(
+                rcvr.getClass(), rcvrClass, selector, next);
+          }
+        } else if (rcvr == Boolean.TRUE) {
           node = new CachedDispatchTrueCheckNode(method, next);
         } else if (rcvr == Boolean.FALSE) {
           node = new CachedDispatchFalseCheckNode(method, next);
@@ -89,18 +124,56 @@ public final class UninitializedDispatchNode extends AbstractDispatchWithLookupN
       }
     }
 
-    // the chain is longer than the maximum defined by INLINE_CACHE_SIZE and
-    // thus, this callsite is considered to be megaprophic, and we generalize
-    // it.
-    // Or, the lookup failed, and we have a callsite that leads to a
-    // does not understand, which means, we also treat this callsite as
-    // megamorphic.
-    // TODO: see whether we could get #DNUs fast.
+    // the chain is longer than the limit of the send node, which is at most
+    // MAX_INLINE_CACHE_SIZE, and thus, this callsite is considered to be
+    // megaprophic, and we generalize it.
+    DispatchChainProfile.reportMegamorphicSite(selector, sendNode);
     GenericDispatchNode genericReplacement = new GenericDispatchNode(selector);
     sendNode.replaceDispatchListHead(genericReplacement);
     return genericReplacement.executeDispatch(frame, arguments);
   }
 
+  private Assumption getNoOverrideAssumption(final SInvokable method) {
+    if (method == null || method.getHolder() == null) {
+      return null;
+    }
+    return method.getHolder().getNoOverrideAssumption(selector);
+  }
+
+  private CachedDispatchSObjectCheckNode findEntryForMethod(
+      final SInvokable method) {
+    if (method == null) {
+      return null;
+    }
+    Node i = getParent();
+    while (i instanceof AbstractDispatchNode) {
+      if (i instanceof CachedDispatchSObjectCheckNode
+          && ((CachedDispatchSObjectCheckNode) i).getCachedMethod() == method) {
+        return (CachedDispatchSObjectCheckNode) i;
+      }
+      i = i.getParent();
+    }
+    return null;
+  }
+
+  private boolean isInSObjectCheckedChain() {
+    Node parent = getParent();
+    return parent instanceof CachedDispatchSObjectCheckNode
+        || parent instanceof CachedDispatchClassHierarchyNode
+        || parent instanceof CachedDnuSObjectCheckNode;
+  }
+
+  private static boolean isReceiverOfKnownClass(
+      final GenericMessageSendNode sendNode, final SClass rcvrClass) {
+    ExpressionNode receiver = sendNode.getReceiverNode();
+    if (!(receiver instanceof FieldReadNode)) {
+      return false;
+    }
+    AbstractReadFieldNode read = ((FieldReadNode) receiver).getReadNode();
+    return read instanceof ReadObjectFieldNode
+        && ((ReadObjectFieldNode) read).getKnownClass() == rcvrClass;
+  }
+
   @Override
   public int lengthOfDispatchChain() {
     return 0;
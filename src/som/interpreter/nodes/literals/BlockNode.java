@@ -1,12 +1,16 @@
 package som.interpreter.nodes.literals;
 
+import static som.interpreter.TruffleCompiler.transferToInterpreterAndInvalidate;
 import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
 import som.interpreter.Invokable;
+import som.interpreter.LexicalContext;
 import som.vm.Universe;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SInvokable.SMethod;
 
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.source.SourceSection;
 
@@ -14,15 +18,27 @@ public class BlockNode extends LiteralNode {
 
   protected final SMethod  blockMethod;
 
+  // a block without context has no state, so all evaluations of the
+  // literal can share the same block object
+  @CompilationFinal private SBlock sharedBlock;
+
   public BlockNode(final SMethod blockMethod,
       final SourceSection source) {
     super(source);
     this.blockMethod  = blockMethod;
   }
 
+  public final SMethod getMethod() {
+    return blockMethod;
+  }
+
   @Override
   public SBlock executeSBlock(final VirtualFrame frame) {
-    return Universe.newBlock(blockMethod, null);
+    if (sharedBlock == null) {
+      transferToInterpreterAndInvalidate("BlockNode.allocateSharedBlock");
+      sharedBlock = Universe.newBlock(blockMethod, null);
+    }
+    return sharedBlock;
   }
 
   @Override
@@ -31,14 +47,38 @@ public class BlockNode extends LiteralNode {
   }
 
   @Override
-  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
-    SMethod forInlining = (SMethod) cloneMethod(inliner);
-    replace(new BlockNode(forInlining, getSourceSection()));
+  public final void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    replace(cloneForLexicalContext(inliner.getLexicalContext()));
+  }
+
+  @Override
+  public final void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    replace(cloneForEmbedding(inliner));
   }
 
-  protected SInvokable cloneMethod(final Inliner inliner) {
+  /**
+   * @return a copy of the block literal with a copy of the block method,
+   *         which is defined in the given lexical context
+   */
+  public BlockNode cloneForLexicalContext(final LexicalContext outerContext) {
+    SMethod forInlining = (SMethod) cloneMethod(outerContext);
+    return new BlockNode(forInlining, getSourceSection());
+  }
+
+  /**
+   * @return a copy of the block literal with the block method adapted to the
+   *         removed context level of the inlined block in which it is nested
+   */
+  public BlockNode cloneForEmbedding(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    return new BlockNode(inliner.embedNestedBlock(blockMethod),
+        getSourceSection());
+  }
+
+  protected SInvokable cloneMethod(final LexicalContext outerContext) {
     Invokable clonedInvokable = blockMethod.getInvokable().
-        cloneWithNewLexicalContext(inliner.getLexicalContext());
+        cloneWithNewLexicalContext(outerContext);
     SInvokable forInlining = Universe.newMethod(blockMethod.getSignature(),
         clonedInvokable, false, new SMethod[0]);
     return forInlining;
@@ -61,9 +101,16 @@ public class BlockNode extends LiteralNode {
     }
 
     @Override
-    public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
-      SMethod forInlining = (SMethod) cloneMethod(inliner);
-      replace(new BlockNodeWithContext(forInlining, getSourceSection()));
+    public BlockNode cloneForLexicalContext(final LexicalContext outerContext) {
+      SMethod forInlining = (SMethod) cloneMethod(outerContext);
+      return new BlockNodeWithContext(forInlining, getSourceSection());
+    }
+
+    @Override
+    public BlockNode cloneForEmbedding(
+        final InlinerForLexicallyEmbeddedMethods inliner) {
+      return new BlockNodeWithContext(inliner.embedNestedBlock(blockMethod),
+          getSourceSection());
     }
   }
 }
@@ -3,10 +3,14 @@ package som.interpreter.nodes.nary;
 import som.interpreter.TruffleCompiler;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
+import som.primitives.EagerPrimitives;
+import som.primitives.EagerPrimitives.FallbackSite;
+import som.primitives.EagerPrimitives.ReceiverTypes;
 import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.api.utilities.BranchProfile;
 
 
@@ -18,19 +22,36 @@ public final class EagerBinaryPrimitiveNode extends BinaryExpressionNode {
 
   private final BranchProfile unsupportedSpecialization;
   private final SSymbol selector;
+  private final ReceiverTypes receiverTypes;
+  private final FallbackSite  site;
 
   public EagerBinaryPrimitiveNode(
       final SSymbol selector,
       final ExpressionNode receiver,
       final ExpressionNode argument,
-      final BinaryExpressionNode primitive) {
-    super(null);
+      final BinaryExpressionNode primitive,
+      final SourceSection source) {
+    this(selector, receiver, argument, primitive, ReceiverTypes.ANY, null,
+        source);
+  }
+
+  public EagerBinaryPrimitiveNode(
+      final SSymbol selector,
+      final ExpressionNode receiver,
+      final ExpressionNode argument,
+      final BinaryExpressionNode primitive,
+      final ReceiverTypes receiverTypes,
+      final FallbackSite site,
+      final SourceSection source) {
+    super(source);
     this.receiver  = receiver;
     this.argument  = argument;
     this.primitive = primitive;
 
     this.unsupportedSpecialization = new BranchProfile();
     this.selector = selector;
+    this.receiverTypes = receiverTypes;
+    this.site = site;
   }
 
   @Override
@@ -52,29 +73,42 @@ public final class EagerBinaryPrimitiveNode extends BinaryExpressionNode {
   @Override
   public Object executeEvaluated(final VirtualFrame frame,
     final Object receiver, final Object argument) {
+    if (!receiverTypes.accepts(receiver)) {
+      return fallBack(frame, receiver, argument, true);
+    }
+
     try {
       return primitive.executeEvaluated(frame, receiver, argument);
     } catch (UnsupportedSpecializationException e) {
-      unsupportedSpecialization.enter();
-      TruffleCompiler.transferToInterpreterAndInvalidate("Eager Primitive with unsupported specialization.");
-      return makeGenericSend().doPreEvaluated(frame,
-          new Object[] {receiver, argument});
+      return fallBack(frame, receiver, argument, false);
     }
   }
 
   @Override
   public void executeEvaluatedVoid(final VirtualFrame frame,
     final Object receiver, final Object argument) {
+    if (!receiverTypes.accepts(receiver)) {
+      fallBack(frame, receiver, argument, true);
+      return;
+    }
+
     try {
       primitive.executeEvaluatedVoid(frame, receiver, argument);
     } catch (UnsupportedSpecializationException e) {
-      unsupportedSpecialization.enter();
-      TruffleCompiler.transferToInterpreterAndInvalidate("Eager Primitive with unsupported specialization.");
-      makeGenericSend().doPreEvaluated(frame,
-          new Object[] {receiver, argument});
+      fallBack(frame, receiver, argument, false);
     }
   }
 
+  private Object fallBack(final VirtualFrame frame, final Object receiver,
+      final Object argument, final boolean unsupportedReceiver) {
+    unsupportedSpecialization.enter();
+    TruffleCompiler.transferToInterpreterAndInvalidate("Eager Primitive with unsupported specialization.");
+    EagerPrimitives.reportFallback(selector, getSourceSection(), site,
+        unsupportedReceiver);
+    return makeGenericSend().doPreEvaluated(frame,
+        new Object[] {receiver, argument});
+  }
+
   private GenericMessageSendNode makeGenericSend() {
     GenericMessageSendNode node = GenericMessageSendNode.create(selector,
         new ExpressionNode[] {receiver, argument}, getSourceSection());
@@ -0,0 +1,122 @@
+package som.interpreter.nodes.nary;
+
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
+import som.interpreter.nodes.PreevaluatedExpression;
+import som.primitives.EagerPrimitives;
+import som.primitives.EagerPrimitives.FallbackSite;
+import som.primitives.EagerPrimitives.ReceiverTypes;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.utilities.BranchProfile;
+
+
+public final class EagerTernaryPrimitiveNode extends TernaryExpressionNode
+    implements PreevaluatedExpression {
+
+  @Child private ExpressionNode receiver;
+  @Child private ExpressionNode firstArg;
+  @Child private ExpressionNode secondArg;
+  @Child private TernaryExpressionNode primitive;
+
+  private final BranchProfile unsupportedSpecialization;
+  private final SSymbol selector;
+  private final ReceiverTypes receiverTypes;
+  private final FallbackSite  site;
+
+  public EagerTernaryPrimitiveNode(
+      final SSymbol selector,
+      final ExpressionNode receiver,
+      final ExpressionNode firstArg,
+      final ExpressionNode secondArg,
+      final TernaryExpressionNode primitive,
+      final ReceiverTypes receiverTypes,
+      final FallbackSite site,
+      final SourceSection source) {
+    super(source);
+    this.receiver  = receiver;
+    this.firstArg  = firstArg;
+    this.secondArg = secondArg;
+    this.primitive = primitive;
+
+    this.unsupportedSpecialization = new BranchProfile();
+    this.selector = selector;
+    this.receiverTypes = receiverTypes;
+    this.site = site;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    Object rcvr = receiver.executeGeneric(frame);
+    Object arg1 = firstArg.executeGeneric(frame);
+    Object arg2 = secondArg.executeGeneric(frame);
+
+    return executeEvaluated(frame, rcvr, arg1, arg2);
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    Object rcvr = receiver.executeGeneric(frame);
+    Object arg1 = firstArg.executeGeneric(frame);
+    Object arg2 = secondArg.executeGeneric(frame);
+
+    executeEvaluatedVoid(frame, rcvr, arg1, arg2);
+  }
+
+  @Override
+  public Object executeEvaluated(final VirtualFrame frame,
+    final Object receiver, final Object firstArg, final Object secondArg) {
+    if (!receiverTypes.accepts(receiver)) {
+      return fallBack(frame, receiver, firstArg, secondArg, true);
+    }
+
+    try {
+      return primitive.executeEvaluated(frame, receiver, firstArg, secondArg);
+    } catch (UnsupportedSpecializationException e) {
+      return fallBack(frame, receiver, firstArg, secondArg, false);
+    }
+  }
+
+  @Override
+  public void executeEvaluatedVoid(final VirtualFrame frame,
+    final Object receiver, final Object firstArg, final Object secondArg) {
+    if (!receiverTypes.accepts(receiver)) {
+      fallBack(frame, receiver, firstArg, secondArg, true);
+      return;
+    }
+
+    try {
+      primitive.executeEvaluatedVoid(frame, receiver, firstArg, secondArg);
+    } catch (UnsupportedSpecializationException e) {
+      fallBack(frame, receiver, firstArg, secondArg, false);
+    }
+  }
+
+  private Object fallBack(final VirtualFrame frame, final Object receiver,
+      final Object firstArg, final Object secondArg,
+      final boolean unsupportedReceiver) {
+    unsupportedSpecialization.enter();
+    TruffleCompiler.transferToInterpreterAndInvalidate("Eager Primitive with unsupported specialization.");
+    EagerPrimitives.reportFallback(selector, getSourceSection(), site,
+        unsupportedReceiver);
+    return makeGenericSend().doPreEvaluated(frame,
+        new Object[] {receiver, firstArg, secondArg});
+  }
+
+  @Override
+  public Object doPreEvaluated(final VirtualFrame frame,
+      final Object[] arguments) {
+    return executeEvaluated(frame, arguments[0], arguments[1], arguments[2]);
+  }
+
+  private GenericMessageSendNode makeGenericSend() {
+    GenericMessageSendNode node = GenericMessageSendNode.create(selector,
+        new ExpressionNode[] {receiver, firstArg, secondArg},
+        getSourceSection());
+    return replace(node);
+  }
+}
@@ -1,11 +1,16 @@
 package som.interpreter.nodes.nary;
 
+import som.interpreter.TruffleCompiler;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
+import som.primitives.EagerPrimitives;
+import som.primitives.EagerPrimitives.FallbackSite;
+import som.primitives.EagerPrimitives.ReceiverTypes;
 import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.api.utilities.BranchProfile;
 
 
@@ -16,15 +21,27 @@ public class EagerUnaryPrimitiveNode extends UnaryExpressionNode {
 
   private final BranchProfile unsupportedSpecialization;
   private final SSymbol selector;
+  private final ReceiverTypes receiverTypes;
+  private final FallbackSite  site;
 
   public EagerUnaryPrimitiveNode(final SSymbol selector,
-      final ExpressionNode receiver, final UnaryExpressionNode primitive) {
-    super(null);
+      final ExpressionNode receiver, final UnaryExpressionNode primitive,
+      final SourceSection source) {
+    this(selector, receiver, primitive, ReceiverTypes.ANY, null, source);
+  }
+
+  public EagerUnaryPrimitiveNode(final SSymbol selector,
+      final ExpressionNode receiver, final UnaryExpressionNode primitive,
+      final ReceiverTypes receiverTypes, final FallbackSite site,
+      final SourceSection source) {
+    super(source);
     this.receiver  = receiver;
     this.primitive = primitive;
 
     this.unsupportedSpecialization = new BranchProfile();
     this.selector = selector;
+    this.receiverTypes = receiverTypes;
+    this.site = site;
   }
 
   @Override
@@ -43,25 +60,41 @@ public class EagerUnaryPrimitiveNode extends UnaryExpressionNode {
   @Override
   public Object executeEvaluated(final VirtualFrame frame,
       final Object receiver) {
+    if (!receiverTypes.accepts(receiver)) {
+      return fallBack(frame, receiver, true);
+    }
+
     try {
       return primitive.executeEvaluated(frame, receiver);
     } catch (UnsupportedSpecializationException e) {
-      unsupportedSpecialization.enter();
-      return makeGenericSend().doPreEvaluated(frame, new Object[] {receiver});
+      return fallBack(frame, receiver, false);
     }
   }
 
   @Override
   public void executeEvaluatedVoid(final VirtualFrame frame,
       final Object receiver) {
+    if (!receiverTypes.accepts(receiver)) {
+      fallBack(frame, receiver, true);
+      return;
+    }
+
     try {
       primitive.executeEvaluatedVoid(frame, receiver);
     } catch (UnsupportedSpecializationException e) {
-      unsupportedSpecialization.enter();
-      makeGenericSend().doPreEvaluated(frame, new Object[] {receiver});
+      fallBack(frame, receiver, false);
     }
   }
 
+  private Object fallBack(final VirtualFrame frame, final Object receiver,
+      final boolean unsupportedReceiver) {
+    unsupportedSpecialization.enter();
+    TruffleCompiler.transferToInterpreterAndInvalidate("Eager Primitive with unsupported specialization.");
+    EagerPrimitives.reportFallback(selector, getSourceSection(), site,
+        unsupportedReceiver);
+    return makeGenericSend().doPreEvaluated(frame, new Object[] {receiver});
+  }
+
   private GenericMessageSendNode makeGenericSend() {
     GenericMessageSendNode node = GenericMessageSendNode.create(selector,
         new ExpressionNode[] {receiver}, getSourceSection());
@@ -0,0 +1,134 @@
+package som.interpreter.nodes.specialized;
+
+import java.util.Arrays;
+
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
+import som.interpreter.LexicalContext;
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.MessageSendNode.GenericMessageSendNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * Control structure of which the parser inlined the literal blocks into the
+ * method. The bodies of the blocks are evaluated in the frame of the method.
+ *
+ * The original blocks are kept for the case that the receiver is not of the
+ * expected type. Then, the node is replaced by a normal message send.
+ * They are not part of the AST, see {@link OriginalBlock}.
+ */
+public abstract class AbstractInlinedLiteralsNode extends ExpressionNode {
+
+  private final SSymbol selector;
+
+  // the original blocks in the order of the arguments of the message,
+  // they follow all arguments that are not inlined blocks
+  private OriginalBlock[] originalBlocks;
+
+  public AbstractInlinedLiteralsNode(final SSymbol selector,
+      final BlockNode[] originalBlocks, final SourceSection source) {
+    super(source);
+    this.selector       = selector;
+    this.originalBlocks = new OriginalBlock[originalBlocks.length];
+    for (int i = 0; i < originalBlocks.length; i++) {
+      this.originalBlocks[i] = new OriginalBlock(originalBlocks[i], null);
+    }
+  }
+
+  protected AbstractInlinedLiteralsNode(final AbstractInlinedLiteralsNode node) {
+    super(node.getSourceSection());
+    this.selector       = node.selector;
+    this.originalBlocks = node.originalBlocks;
+  }
+
+  protected final SSymbol getSelector() {
+    return selector;
+  }
+
+  /**
+   * Replaces the control structure by a normal message send. The original
+   * blocks are appended to the arguments that were evaluated already.
+   */
+  protected final Object sendToUnsupportedReceiver(final VirtualFrame frame,
+      final ExpressionNode[] evaluatedNodes, final Object[] evaluatedArguments) {
+    TruffleCompiler.transferToInterpreterAndInvalidate("Inlined control structure with unsupported receiver.");
+    int numArgs = evaluatedNodes.length + originalBlocks.length;
+    ExpressionNode[] argumentNodes = Arrays.copyOf(evaluatedNodes, numArgs);
+    Object[] arguments = Arrays.copyOf(evaluatedArguments, numArgs);
+
+    for (int i = 0; i < originalBlocks.length; i++) {
+      BlockNode block = originalBlocks[i].createNode();
+      argumentNodes[evaluatedNodes.length + i] = block;
+      arguments[evaluatedNodes.length + i]     = block.executeGeneric(frame);
+    }
+
+    GenericMessageSendNode send = GenericMessageSendNode.create(selector,
+        argumentNodes, getSourceSection());
+    return replace(send).doPreEvaluated(frame, arguments);
+  }
+
+  @Override
+  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    OriginalBlock[] blocks = new OriginalBlock[originalBlocks.length];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = originalBlocks[i].forSplit(inliner.getLexicalContext());
+    }
+    originalBlocks = blocks;
+  }
+
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    OriginalBlock[] blocks = new OriginalBlock[originalBlocks.length];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = originalBlocks[i].forEmbedding(inliner);
+    }
+    originalBlocks = blocks;
+  }
+
+
+  /**
+   * A literal block of the original message send. It is not a child of the
+   * inlined node, so that splitting the method does not copy the block
+   * method, which is only needed if the control structure falls back to a
+   * message send. Instead, the lexical context of the split is remembered,
+   * and the block method is copied when the fallback is created.
+   */
+  private static final class OriginalBlock {
+    private final BlockNode      block;
+    private final LexicalContext splitContext;
+
+    OriginalBlock(final BlockNode block, final LexicalContext splitContext) {
+      this.block        = block;
+      this.splitContext = splitContext;
+    }
+
+    OriginalBlock forSplit(final LexicalContext context) {
+      return new OriginalBlock(block, context);
+    }
+
+    /**
+     * Methods are embedded while they are parsed, i.e., before any split.
+     * At that time, the method generation context is still available.
+     */
+    OriginalBlock forEmbedding(
+        final InlinerForLexicallyEmbeddedMethods inliner) {
+      assert splitContext == null;
+      return new OriginalBlock(block.cloneForEmbedding(inliner), null);
+    }
+
+    BlockNode createNode() {
+      if (splitContext == null) {
+        return NodeUtil.cloneNode(block);
+      }
+      return block.cloneForLexicalContext(splitContext);
+    }
+  }
+}
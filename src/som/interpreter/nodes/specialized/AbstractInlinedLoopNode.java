@@ -0,0 +1,109 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * Inlined loop, which can continue in compiled code while it is running.
+ *
+ * The loop is executed one iteration at a time, and all state of the loop
+ * is kept in the frame of the method. Thus, after the loop ran for
+ * -Dsom.osr.threshold iterations in the interpreter, the remaining
+ * iterations are executed in chunks by a copy of the loop in a separate
+ * call target, which gets the frame of the method as argument. As soon as
+ * this call target gets compiled, the loop continues in compiled code, even
+ * though the method itself is still being interpreted.
+ * A threshold of 0 disables this on-stack replacement.
+ */
+public abstract class AbstractInlinedLoopNode extends AbstractInlinedLiteralsNode {
+
+  private static final long OSR_THRESHOLD =
+      Integer.getInteger("som.osr.threshold", 100000);
+  static final int OSR_CHUNK_SIZE =
+      Integer.getInteger("som.osr.chunkSize", 1000);
+
+  // only used in the interpreter
+  private RootCallTarget osrTarget;
+
+  public AbstractInlinedLoopNode(final SSymbol selector,
+      final BlockNode[] originalBlocks, final SourceSection source) {
+    super(selector, originalBlocks, source);
+  }
+
+  protected AbstractInlinedLoopNode(final AbstractInlinedLoopNode node) {
+    super(node);
+  }
+
+  /**
+   * Execute a single iteration of the loop.
+   *
+   * @return false, if the loop is finished
+   */
+  protected abstract boolean executeIteration(VirtualFrame frame);
+
+  protected final void executeLoop(final VirtualFrame frame) {
+    if (CompilerDirectives.inInterpreter()) {
+      executeLoopInInterpreter(frame);
+      return;
+    }
+
+    while (executeIteration(frame)) { }
+  }
+
+  private void executeLoopInInterpreter(final VirtualFrame frame) {
+    long iterationCount = 0;
+
+    try {
+      while (executeIteration(frame)) {
+        iterationCount++;
+
+        if (iterationCount == OSR_THRESHOLD) {
+          iterationCount += continueInOSRTarget(frame);
+          return;
+        }
+      }
+    } finally {
+      reportLoopCount(iterationCount);
+    }
+  }
+
+  private long continueInOSRTarget(final VirtualFrame frame) {
+    CompilerAsserts.neverPartOfCompilation("continueInOSRTarget");
+    if (osrTarget == null) {
+      osrTarget = Truffle.getRuntime().createCallTarget(
+          new OSRLoopRootNode(NodeUtil.cloneNode(this)));
+    }
+
+    Object[] arguments = new Object[] {frame.materialize()};
+    long iterationCount = 0;
+    long chunk;
+    do {
+      chunk = (long) osrTarget.call(arguments);
+      iterationCount += chunk;
+    } while (chunk == OSR_CHUNK_SIZE);
+    return iterationCount;
+  }
+
+  /**
+   * @return the number of executed iterations, which is smaller than
+   *         maxIterations, if the loop is finished
+   */
+  final long executeIterations(final VirtualFrame frame,
+      final int maxIterations) {
+    for (int i = 0; i < maxIterations; i++) {
+      if (!executeIteration(frame)) {
+        return i;
+      }
+    }
+    return maxIterations;
+  }
+}
@@ -0,0 +1,69 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #and: and #or: with the literal block inlined. The block is only
+ * evaluated if the receiver does not already determine the result.
+ */
+public abstract class BooleanInlinedLiteralNode extends AbstractInlinedLiteralsNode {
+  @Child private ExpressionNode receiverNode;
+  @Child private ExpressionNode argumentNode;
+
+  private final boolean shortCircuitResult;
+
+  private BooleanInlinedLiteralNode(final ExpressionNode receiverNode,
+      final ExpressionNode argumentNode, final BlockNode argumentBlock,
+      final boolean shortCircuitResult, final SSymbol selector,
+      final SourceSection source) {
+    super(selector, new BlockNode[] {argumentBlock}, source);
+    this.receiverNode       = receiverNode;
+    this.argumentNode       = argumentNode;
+    this.shortCircuitResult = shortCircuitResult;
+  }
+
+  @Override
+  public final Object executeGeneric(final VirtualFrame frame) {
+    boolean rcvr;
+    try {
+      rcvr = receiverNode.executeBoolean(frame);
+    } catch (UnexpectedResultException e) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {receiverNode}, new Object[] {e.getResult()});
+    }
+
+    if (rcvr == shortCircuitResult) {
+      return rcvr;
+    } else {
+      return argumentNode.executeGeneric(frame);
+    }
+  }
+
+  @Override
+  public final void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  public static final class AndInlinedLiteralNode extends BooleanInlinedLiteralNode {
+    public AndInlinedLiteralNode(final ExpressionNode receiverNode,
+        final ExpressionNode argumentNode, final BlockNode argumentBlock,
+        final SSymbol selector, final SourceSection source) {
+      super(receiverNode, argumentNode, argumentBlock, false, selector, source);
+    }
+  }
+
+  public static final class OrInlinedLiteralNode extends BooleanInlinedLiteralNode {
+    public OrInlinedLiteralNode(final ExpressionNode receiverNode,
+        final ExpressionNode argumentNode, final BlockNode argumentBlock,
+        final SSymbol selector, final SourceSection source) {
+      super(receiverNode, argumentNode, argumentBlock, true, selector, source);
+    }
+  }
+}
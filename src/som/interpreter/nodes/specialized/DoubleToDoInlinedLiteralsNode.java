@@ -0,0 +1,142 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+
+/**
+ * #to:do: and #downTo:do: with the literal block inlined and a double as
+ * receiver. {@link IntToDoInlinedLiteralsNode} and
+ * {@link IntDownToDoInlinedLiteralsNode} replace themselves with this node,
+ * when they encounter a double receiver. The limit can be a double or an
+ * integer. An integer receiver turns it into an
+ * {@link IntOrDoubleToDoInlinedLiteralsNode}, which handles both.
+ *
+ * Since the index cannot be stepped back without loss of precision, it is
+ * stepped after each evaluation of the body.
+ */
+public final class DoubleToDoInlinedLiteralsNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode fromNode;
+  @Child private ExpressionNode toNode;
+  @Child private ExpressionNode bodyNode;
+
+  private final FrameSlot loopIndex;
+  private final FrameSlot limit;
+
+  // false for #downTo:do:
+  private final boolean ascending;
+
+  DoubleToDoInlinedLiteralsNode(final AbstractInlinedLoopNode node,
+      final ExpressionNode fromNode, final ExpressionNode toNode,
+      final ExpressionNode bodyNode, final FrameSlot loopIndex,
+      final FrameSlot limit, final boolean ascending) {
+    super(node);
+    this.fromNode  = fromNode;
+    this.toNode    = toNode;
+    this.bodyNode  = bodyNode;
+    this.loopIndex = loopIndex;
+    this.limit     = limit;
+    this.ascending = ascending;
+  }
+
+  private DoubleToDoInlinedLiteralsNode(final DoubleToDoInlinedLiteralsNode node,
+      final FrameSlot loopIndex, final FrameSlot limit) {
+    this(node, node.fromNode, node.toNode, node.bodyNode, loopIndex, limit,
+        node.ascending);
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    return executeEvaluated(frame, fromNode.executeGeneric(frame),
+        toNode.executeGeneric(frame));
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  Object executeEvaluated(final VirtualFrame frame, final Object from,
+      final Object to) {
+    if (from instanceof Long) {
+      TruffleCompiler.transferToInterpreterAndInvalidate("DoubleToDoInlinedLiteralsNode with integer receiver.");
+      IntOrDoubleToDoInlinedLiteralsNode node =
+          new IntOrDoubleToDoInlinedLiteralsNode(this, fromNode, toNode,
+              bodyNode, loopIndex, limit, ascending);
+      return replace(node).executeEvaluated(frame, from, to);
+    }
+
+    if (!(from instanceof Double)) {
+      return sendToUnsupportedArguments(frame, from, to);
+    }
+
+    if (to instanceof Double) {
+      doLoop(frame, (double) from, (double) to);
+    } else if (to instanceof Long) {
+      doLoop(frame, (double) from, (long) to);
+    } else {
+      return sendToUnsupportedArguments(frame, from, to);
+    }
+    return from;
+  }
+
+  private Object sendToUnsupportedArguments(final VirtualFrame frame,
+      final Object from, final Object to) {
+    return sendToUnsupportedReceiver(frame,
+        new ExpressionNode[] {fromNode, toNode}, new Object[] {from, to});
+  }
+
+  private void doLoop(final VirtualFrame frame, final double from,
+      final double to) {
+    if (loopIndex.getKind() != FrameSlotKind.Double
+        || limit.getKind() != FrameSlotKind.Double) {
+      TruffleCompiler.transferToInterpreter("DoubleToDoInlinedLiteralsNode.initLoopIndex");
+      loopIndex.setKind(FrameSlotKind.Double);
+      limit.setKind(FrameSlotKind.Double);
+    }
+
+    frame.setDouble(loopIndex, from);
+    frame.setDouble(limit, to);
+    executeLoop(frame);
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    double i  = FrameUtil.getDoubleSafe(frame, loopIndex);
+    double to = FrameUtil.getDoubleSafe(frame, limit);
+    if (ascending ? i > to : i < to) {
+      return false;
+    }
+    bodyNode.executeVoid(frame);
+    frame.setDouble(loopIndex, ascending ? i + 1.0 : i - 1.0);
+    return true;
+  }
+
+  @Override
+  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    super.replaceWithIndependentCopyForInlining(inliner);
+    FrameSlot inlinedLoopIndex = inliner.getLocalFrameSlot(loopIndex.getIdentifier());
+    FrameSlot inlinedLimit     = inliner.getLocalFrameSlot(limit.getIdentifier());
+    assert inlinedLoopIndex != null && inlinedLimit != null;
+    replace(new DoubleToDoInlinedLiteralsNode(this, inlinedLoopIndex,
+        inlinedLimit));
+  }
+
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    super.replaceWithLexicallyEmbeddedNode(inliner);
+    if (inliner.isInlinedBlockBody()) {
+      replace(new DoubleToDoInlinedLiteralsNode(this,
+          inliner.getEmbeddedLocal(loopIndex).getSlot(),
+          inliner.getEmbeddedLocal(limit).getSlot()));
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vm.constants.Nil;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #ifTrue: and #ifFalse: with the literal block inlined.
+ */
+public final class IfInlinedLiteralNode extends AbstractInlinedLiteralsNode {
+  @Child private ExpressionNode conditionNode;
+  @Child private ExpressionNode bodyNode;
+
+  private final boolean expectedBool;
+
+  public IfInlinedLiteralNode(final ExpressionNode conditionNode,
+      final boolean expectedBool, final ExpressionNode bodyNode,
+      final BlockNode bodyBlock, final SSymbol selector,
+      final SourceSection source) {
+    super(selector, new BlockNode[] {bodyBlock}, source);
+    this.conditionNode = conditionNode;
+    this.expectedBool  = expectedBool;
+    this.bodyNode      = bodyNode;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    boolean condition;
+    try {
+      condition = conditionNode.executeBoolean(frame);
+    } catch (UnexpectedResultException e) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {conditionNode}, new Object[] {e.getResult()});
+    }
+
+    if (condition == expectedBool) {
+      return bodyNode.executeGeneric(frame);
+    } else {
+      return Nil.nilObject;
+    }
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+}
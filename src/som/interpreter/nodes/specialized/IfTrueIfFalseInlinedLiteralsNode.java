@@ -0,0 +1,51 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #ifTrue:ifFalse: and #ifFalse:ifTrue: with both literal blocks inlined.
+ */
+public final class IfTrueIfFalseInlinedLiteralsNode extends AbstractInlinedLiteralsNode {
+  @Child private ExpressionNode conditionNode;
+  @Child private ExpressionNode trueNode;
+  @Child private ExpressionNode falseNode;
+
+  public IfTrueIfFalseInlinedLiteralsNode(final ExpressionNode conditionNode,
+      final ExpressionNode trueNode, final ExpressionNode falseNode,
+      final BlockNode firstBlock, final BlockNode secondBlock,
+      final SSymbol selector, final SourceSection source) {
+    super(selector, new BlockNode[] {firstBlock, secondBlock}, source);
+    this.conditionNode = conditionNode;
+    this.trueNode      = trueNode;
+    this.falseNode     = falseNode;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    boolean condition;
+    try {
+      condition = conditionNode.executeBoolean(frame);
+    } catch (UnexpectedResultException e) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {conditionNode}, new Object[] {e.getResult()});
+    }
+
+    if (condition) {
+      return trueNode.executeGeneric(frame);
+    } else {
+      return falseNode.executeGeneric(frame);
+    }
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+}
@@ -0,0 +1,126 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #downTo:do: with the literal block inlined, analogous to
+ * {@link IntToDoInlinedLiteralsNode}. It replaces itself with a
+ * {@link DoubleToDoInlinedLiteralsNode}, when it encounters a double receiver.
+ */
+public final class IntDownToDoInlinedLiteralsNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode fromNode;
+  @Child private ExpressionNode toNode;
+  @Child private ExpressionNode bodyNode;
+
+
+  private final FrameSlot loopIndex;
+  private final FrameSlot limit;
+
+  public IntDownToDoInlinedLiteralsNode(final ExpressionNode fromNode,
+      final ExpressionNode toNode, final ExpressionNode bodyNode,
+      final BlockNode bodyBlock, final FrameSlot loopIndex,
+      final FrameSlot limit, final SSymbol selector,
+      final SourceSection source) {
+    super(selector, new BlockNode[] {bodyBlock}, source);
+    this.fromNode  = fromNode;
+    this.toNode    = toNode;
+    this.bodyNode  = bodyNode;
+    this.loopIndex = loopIndex;
+    this.limit     = limit;
+  }
+
+  private IntDownToDoInlinedLiteralsNode(final IntDownToDoInlinedLiteralsNode node,
+      final FrameSlot loopIndex, final FrameSlot limit) {
+    super(node);
+    this.fromNode  = node.fromNode;
+    this.toNode    = node.toNode;
+    this.bodyNode  = node.bodyNode;
+    this.loopIndex = loopIndex;
+    this.limit     = limit;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    Object from = fromNode.executeGeneric(frame);
+    Object to   = toNode.executeGeneric(frame);
+
+    if (from instanceof Double) {
+      TruffleCompiler.transferToInterpreterAndInvalidate("IntDownToDoInlinedLiteralsNode with double receiver.");
+      DoubleToDoInlinedLiteralsNode node = new DoubleToDoInlinedLiteralsNode(
+          this, fromNode, toNode, bodyNode, loopIndex, limit, false);
+      return replace(node).executeEvaluated(frame, from, to);
+    }
+
+    if (!(from instanceof Long) || !(to instanceof Long)) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {fromNode, toNode}, new Object[] {from, to});
+    }
+
+    doLoop(frame, (long) from, (long) to);
+    return from;
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  private void doLoop(final VirtualFrame frame, final long from, final long to) {
+    if (loopIndex.getKind() != FrameSlotKind.Long
+        || limit.getKind() != FrameSlotKind.Long) {
+      TruffleCompiler.transferToInterpreter("IntDownToDoInlinedLiteralsNode.initLoopIndex");
+      loopIndex.setKind(FrameSlotKind.Long);
+      limit.setKind(FrameSlotKind.Long);
+    }
+
+    // the index is decremented before each iteration, for from being
+    // Long.MAX_VALUE, from + 1 wraps around and the decrement restores it
+    frame.setLong(loopIndex, from + 1);
+    frame.setLong(limit, to);
+    executeLoop(frame);
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    long i = FrameUtil.getLongSafe(frame, loopIndex) - 1;
+    if (i < FrameUtil.getLongSafe(frame, limit)) {
+      return false;
+    }
+    frame.setLong(loopIndex, i);
+    bodyNode.executeVoid(frame);
+    return true;
+  }
+
+  @Override
+  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    super.replaceWithIndependentCopyForInlining(inliner);
+    FrameSlot inlinedLoopIndex = inliner.getLocalFrameSlot(loopIndex.getIdentifier());
+    FrameSlot inlinedLimit     = inliner.getLocalFrameSlot(limit.getIdentifier());
+    assert inlinedLoopIndex != null && inlinedLimit != null;
+    replace(new IntDownToDoInlinedLiteralsNode(this, inlinedLoopIndex,
+        inlinedLimit));
+  }
+
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    super.replaceWithLexicallyEmbeddedNode(inliner);
+    if (inliner.isInlinedBlockBody()) {
+      replace(new IntDownToDoInlinedLiteralsNode(this,
+          inliner.getEmbeddedLocal(loopIndex).getSlot(),
+          inliner.getEmbeddedLocal(limit).getSlot()));
+    }
+  }
+}
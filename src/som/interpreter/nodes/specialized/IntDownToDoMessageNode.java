@@ -0,0 +1,83 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.PreevaluatedExpression;
+import som.interpreter.nodes.nary.TernaryExpressionNode;
+import som.vmobjects.SBlock;
+import som.vmobjects.SInvokable;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+
+
+public abstract class IntDownToDoMessageNode extends TernaryExpressionNode
+    implements PreevaluatedExpression {
+
+  private final SInvokable blockMethod;
+  @Child private DirectCallNode valueSend;
+
+  public IntDownToDoMessageNode(final ExpressionNode originalNode,
+      final SBlock block) {
+    super(originalNode.getSourceSection());
+    blockMethod = block.getMethod();
+    valueSend = Truffle.getRuntime().createDirectCallNode(
+                    blockMethod.getCallTarget());
+  }
+
+  public IntDownToDoMessageNode(final IntDownToDoMessageNode node) {
+    super(node.getSourceSection());
+    this.blockMethod = node.blockMethod;
+    this.valueSend   = node.valueSend;
+  }
+
+  @Override
+  public final Object doPreEvaluated(final VirtualFrame frame,
+      final Object[] arguments) {
+    return executeEvaluated(frame, arguments[0], arguments[1], arguments[2]);
+  }
+
+  protected final boolean isSameBlockLong(final long receiver, final long limit, final SBlock block) {
+    return block.getMethod() == blockMethod;
+  }
+
+  @Specialization(guards = "isSameBlockLong")
+  public final long doIntDownToDo(final VirtualFrame frame, final long receiver, final long limit, final SBlock block) {
+    try {
+      if (receiver >= limit) {
+        valueSend.call(frame, new Object[] {block, receiver});
+      }
+      for (long i = receiver - 1; i >= limit; i--) {
+        valueSend.call(frame, new Object[] {block, i});
+      }
+    } finally {
+      if (CompilerDirectives.inInterpreter() && (receiver - limit) > 0) {
+        reportLoopCount(receiver - limit);
+      }
+    }
+    return receiver;
+  }
+
+  protected final boolean isSameBlockDouble(final long receiver, final double limit, final SBlock block) {
+    return block.getMethod() == blockMethod;
+  }
+
+  @Specialization(guards = "isSameBlockDouble")
+  public final long doIntDownToDo(final VirtualFrame frame, final long receiver, final double limit, final SBlock block) {
+    try {
+      if (receiver >= limit) {
+        valueSend.call(frame, new Object[] {block, receiver});
+      }
+      for (long i = receiver - 1; i >= limit; i--) {
+        valueSend.call(frame, new Object[] {block, i});
+      }
+    } finally {
+      if (CompilerDirectives.inInterpreter() && (receiver - limit) > 0) {
+        reportLoopCount(receiver - (long) limit);
+      }
+    }
+    return receiver;
+  }
+}
@@ -0,0 +1,141 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+
+/**
+ * #to:do: and #downTo:do: with the literal block inlined, for a site that
+ * sees integer as well as double receivers.
+ * {@link DoubleToDoInlinedLiteralsNode} replaces
+ * itself with this node, when it encounters an integer receiver. The index
+ * and the limit are kept boxed, so that the kind of their locals does not
+ * change between the executions of the loop.
+ */
+public final class IntOrDoubleToDoInlinedLiteralsNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode fromNode;
+  @Child private ExpressionNode toNode;
+  @Child private ExpressionNode bodyNode;
+
+  private final FrameSlot loopIndex;
+  private final FrameSlot limit;
+
+  // false for #downTo:do:
+  private final boolean ascending;
+
+  IntOrDoubleToDoInlinedLiteralsNode(final AbstractInlinedLoopNode node,
+      final ExpressionNode fromNode, final ExpressionNode toNode,
+      final ExpressionNode bodyNode, final FrameSlot loopIndex,
+      final FrameSlot limit, final boolean ascending) {
+    super(node);
+    this.fromNode  = fromNode;
+    this.toNode    = toNode;
+    this.bodyNode  = bodyNode;
+    this.loopIndex = loopIndex;
+    this.limit     = limit;
+    this.ascending = ascending;
+  }
+
+  private IntOrDoubleToDoInlinedLiteralsNode(
+      final IntOrDoubleToDoInlinedLiteralsNode node, final FrameSlot loopIndex,
+      final FrameSlot limit) {
+    this(node, node.fromNode, node.toNode, node.bodyNode, loopIndex, limit,
+        node.ascending);
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    return executeEvaluated(frame, fromNode.executeGeneric(frame),
+        toNode.executeGeneric(frame));
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  Object executeEvaluated(final VirtualFrame frame, final Object from,
+      final Object to) {
+    if (!isIntOrDouble(from) || !isIntOrDouble(to)) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {fromNode, toNode}, new Object[] {from, to});
+    }
+
+    if (loopIndex.getKind() != FrameSlotKind.Object
+        || limit.getKind() != FrameSlotKind.Object) {
+      TruffleCompiler.transferToInterpreter("IntOrDoubleToDoInlinedLiteralsNode.initLoopIndex");
+      loopIndex.setKind(FrameSlotKind.Object);
+      limit.setKind(FrameSlotKind.Object);
+    }
+
+    frame.setObject(loopIndex, from);
+    frame.setObject(limit, to);
+    executeLoop(frame);
+    return from;
+  }
+
+  private static boolean isIntOrDouble(final Object value) {
+    return value instanceof Long || value instanceof Double;
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    Object i  = FrameUtil.getObjectSafe(frame, loopIndex);
+    Object to = FrameUtil.getObjectSafe(frame, limit);
+    if (ascending ? isGreaterThan(i, to) : isGreaterThan(to, i)) {
+      return false;
+    }
+    bodyNode.executeVoid(frame);
+
+    if (i instanceof Double) {
+      frame.setObject(loopIndex, ascending ? (double) i + 1.0 : (double) i - 1.0);
+    } else if ((long) i == (ascending ? Long.MAX_VALUE : Long.MIN_VALUE)) {
+      // there is no next integer index
+      return false;
+    } else {
+      frame.setObject(loopIndex, ascending ? (long) i + 1 : (long) i - 1);
+    }
+    return true;
+  }
+
+  private static boolean isGreaterThan(final Object left, final Object right) {
+    if (left instanceof Long) {
+      if (right instanceof Long) {
+        return (long) left > (long) right;
+      }
+      return (long) left > (double) right;
+    }
+    if (right instanceof Long) {
+      return (double) left > (long) right;
+    }
+    return (double) left > (double) right;
+  }
+
+  @Override
+  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    super.replaceWithIndependentCopyForInlining(inliner);
+    FrameSlot inlinedLoopIndex = inliner.getLocalFrameSlot(loopIndex.getIdentifier());
+    FrameSlot inlinedLimit     = inliner.getLocalFrameSlot(limit.getIdentifier());
+    assert inlinedLoopIndex != null && inlinedLimit != null;
+    replace(new IntOrDoubleToDoInlinedLiteralsNode(this, inlinedLoopIndex,
+        inlinedLimit));
+  }
+
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    super.replaceWithLexicallyEmbeddedNode(inliner);
+    if (inliner.isInlinedBlockBody()) {
+      replace(new IntOrDoubleToDoInlinedLiteralsNode(this,
+          inliner.getEmbeddedLocal(loopIndex).getSlot(),
+          inliner.getEmbeddedLocal(limit).getSlot()));
+    }
+  }
+}
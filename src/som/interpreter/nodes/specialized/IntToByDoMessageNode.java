@@ -1,19 +1,16 @@
 package som.interpreter.nodes.specialized;
 
-import som.interpreter.Invokable;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.PreevaluatedExpression;
 import som.interpreter.nodes.nary.QuaternaryExpressionNode;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
-import com.oracle.truffle.api.nodes.Node;
 
 
 public abstract class IntToByDoMessageNode extends QuaternaryExpressionNode
@@ -22,9 +19,9 @@ public abstract class IntToByDoMessageNode extends QuaternaryExpressionNode
   private final SInvokable blockMethod;
   @Child private DirectCallNode valueSend;
 
-  public IntToByDoMessageNode(final ExpressionNode orignialNode,
+  public IntToByDoMessageNode(final ExpressionNode originalNode,
       final SBlock block) {
-    super(orignialNode.getSourceSection());
+    super(originalNode.getSourceSection());
     blockMethod = block.getMethod();
     valueSend = Truffle.getRuntime().createDirectCallNode(
                     blockMethod.getCallTarget());
@@ -84,15 +81,4 @@ public abstract class IntToByDoMessageNode extends QuaternaryExpressionNode
     }
     return receiver;
   }
-
-  protected final void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof Invokable)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
-  }
 }
@@ -0,0 +1,127 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #to:do: with the literal block inlined. The block argument became a local
+ * of the method, which is set before each evaluation of the body. To be able
+ * to continue the loop in an OSR call target, the limit is kept in a hidden
+ * local of the method as well.
+ */
+public final class IntToDoInlinedLiteralsNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode fromNode;
+  @Child private ExpressionNode toNode;
+  @Child private ExpressionNode bodyNode;
+
+
+  private final FrameSlot loopIndex;
+  private final FrameSlot limit;
+
+  public IntToDoInlinedLiteralsNode(final ExpressionNode fromNode,
+      final ExpressionNode toNode, final ExpressionNode bodyNode,
+      final BlockNode bodyBlock, final FrameSlot loopIndex,
+      final FrameSlot limit, final SSymbol selector,
+      final SourceSection source) {
+    super(selector, new BlockNode[] {bodyBlock}, source);
+    this.fromNode  = fromNode;
+    this.toNode    = toNode;
+    this.bodyNode  = bodyNode;
+    this.loopIndex = loopIndex;
+    this.limit     = limit;
+  }
+
+  private IntToDoInlinedLiteralsNode(final IntToDoInlinedLiteralsNode node,
+      final FrameSlot loopIndex, final FrameSlot limit) {
+    super(node);
+    this.fromNode  = node.fromNode;
+    this.toNode    = node.toNode;
+    this.bodyNode  = node.bodyNode;
+    this.loopIndex = loopIndex;
+    this.limit     = limit;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    Object from = fromNode.executeGeneric(frame);
+    Object to   = toNode.executeGeneric(frame);
+
+    if (from instanceof Double) {
+      TruffleCompiler.transferToInterpreterAndInvalidate("IntToDoInlinedLiteralsNode with double receiver.");
+      DoubleToDoInlinedLiteralsNode node = new DoubleToDoInlinedLiteralsNode(
+          this, fromNode, toNode, bodyNode, loopIndex, limit, true);
+      return replace(node).executeEvaluated(frame, from, to);
+    }
+
+    if (!(from instanceof Long) || !(to instanceof Long)) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {fromNode, toNode}, new Object[] {from, to});
+    }
+
+    doLoop(frame, (long) from, (long) to);
+    return from;
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  private void doLoop(final VirtualFrame frame, final long from, final long to) {
+    if (loopIndex.getKind() != FrameSlotKind.Long
+        || limit.getKind() != FrameSlotKind.Long) {
+      TruffleCompiler.transferToInterpreter("IntToDoInlinedLiteralsNode.initLoopIndex");
+      loopIndex.setKind(FrameSlotKind.Long);
+      limit.setKind(FrameSlotKind.Long);
+    }
+
+    // the index is incremented before each iteration, for from being
+    // Long.MIN_VALUE, from - 1 wraps around and the increment restores it
+    frame.setLong(loopIndex, from - 1);
+    frame.setLong(limit, to);
+    executeLoop(frame);
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    long i = FrameUtil.getLongSafe(frame, loopIndex) + 1;
+    if (i > FrameUtil.getLongSafe(frame, limit)) {
+      return false;
+    }
+    frame.setLong(loopIndex, i);
+    bodyNode.executeVoid(frame);
+    return true;
+  }
+
+  @Override
+  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    super.replaceWithIndependentCopyForInlining(inliner);
+    FrameSlot inlinedLoopIndex = inliner.getLocalFrameSlot(loopIndex.getIdentifier());
+    FrameSlot inlinedLimit     = inliner.getLocalFrameSlot(limit.getIdentifier());
+    assert inlinedLoopIndex != null && inlinedLimit != null;
+    replace(new IntToDoInlinedLiteralsNode(this, inlinedLoopIndex,
+        inlinedLimit));
+  }
+
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    super.replaceWithLexicallyEmbeddedNode(inliner);
+    if (inliner.isInlinedBlockBody()) {
+      replace(new IntToDoInlinedLiteralsNode(this,
+          inliner.getEmbeddedLocal(loopIndex).getSlot(),
+          inliner.getEmbeddedLocal(limit).getSlot()));
+    }
+  }
+}
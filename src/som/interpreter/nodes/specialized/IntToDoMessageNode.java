@@ -1,21 +1,16 @@
 package som.interpreter.nodes.specialized;
 
-import som.interpreter.Invokable;
 import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.PreevaluatedExpression;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
-import com.oracle.truffle.api.nodes.Node;
-import com.oracle.truffle.api.nodes.RootNode;
 
 
 public abstract class IntToDoMessageNode extends TernaryExpressionNode
@@ -24,9 +19,9 @@ public abstract class IntToDoMessageNode extends TernaryExpressionNode
   private final SInvokable blockMethod;
   @Child private DirectCallNode valueSend;
 
-  public IntToDoMessageNode(final ExpressionNode orignialNode,
+  public IntToDoMessageNode(final ExpressionNode originalNode,
       final SBlock block) {
-    super(orignialNode.getSourceSection());
+    super(originalNode.getSourceSection());
     blockMethod = block.getMethod();
     valueSend = Truffle.getRuntime().createDirectCallNode(
                     blockMethod.getCallTarget());
@@ -85,16 +80,4 @@ public abstract class IntToDoMessageNode extends TernaryExpressionNode
     }
     return receiver;
   }
-
-  @SlowPath
-  private void reportLoopCount(final long count) {
-    CompilerAsserts.neverPartOfCompilation("reportLoopCount");
-    Node current = getParent();
-    while (current != null && !(current instanceof RootNode)) {
-      current = current.getParent();
-    }
-    if (current != null) {
-      ((Invokable) current).propagateLoopCountThroughoutLexicalScope(count);
-    }
-  }
 }
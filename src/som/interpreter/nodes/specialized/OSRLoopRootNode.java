@@ -0,0 +1,42 @@
+package som.interpreter.nodes.specialized;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+
+/**
+ * Root of the call target that continues a long running loop, see
+ * {@link AbstractInlinedLoopNode}. Each call executes up to
+ * -Dsom.osr.chunkSize iterations in the frame of the method, which is passed
+ * as the only argument, and returns the number of executed iterations.
+ */
+final class OSRLoopRootNode extends RootNode {
+
+  @Child private AbstractInlinedLoopNode loop;
+
+  OSRLoopRootNode(final AbstractInlinedLoopNode loop) {
+    super(loop.getSourceSection(), new FrameDescriptor());
+    this.loop = loop;
+  }
+
+  @Override
+  public Object execute(final VirtualFrame frame) {
+    MaterializedFrame methodFrame = (MaterializedFrame) frame.getArguments()[0];
+    long iterationCount = loop.executeIterations(methodFrame,
+        AbstractInlinedLoopNode.OSR_CHUNK_SIZE);
+
+    if (CompilerDirectives.inInterpreter()) {
+      reportLoopCount((int) iterationCount);
+    }
+    return iterationCount;
+  }
+
+  @Override
+  public String toString() {
+    return "OSR loop " + loop.getSelector().getString() + "@"
+        + Integer.toHexString(hashCode());
+  }
+}
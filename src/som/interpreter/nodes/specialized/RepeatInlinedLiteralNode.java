@@ -0,0 +1,41 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vm.constants.Nil;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #repeat with the literal receiver block inlined. The loop is only left by
+ * a return from the body.
+ */
+public final class RepeatInlinedLiteralNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode bodyNode;
+
+  public RepeatInlinedLiteralNode(final ExpressionNode bodyNode,
+      final SSymbol selector, final SourceSection source) {
+    super(selector, new BlockNode[0], source);
+    this.bodyNode = bodyNode;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    executeVoid(frame);
+    return Nil.nilObject;
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeLoop(frame);
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    bodyNode.executeVoid(frame);
+    return true;
+  }
+}
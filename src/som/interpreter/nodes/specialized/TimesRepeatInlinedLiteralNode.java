@@ -0,0 +1,98 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.Inliner;
+import som.interpreter.InlinerForLexicallyEmbeddedMethods;
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #timesRepeat: with the literal block inlined. The number of remaining
+ * iterations is kept in a hidden local of the method.
+ */
+public final class TimesRepeatInlinedLiteralNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode receiverNode;
+  @Child private ExpressionNode bodyNode;
+
+  private final FrameSlot remainingIterations;
+
+  public TimesRepeatInlinedLiteralNode(final ExpressionNode receiverNode,
+      final ExpressionNode bodyNode, final BlockNode bodyBlock,
+      final FrameSlot remainingIterations, final SSymbol selector,
+      final SourceSection source) {
+    super(selector, new BlockNode[] {bodyBlock}, source);
+    this.receiverNode        = receiverNode;
+    this.bodyNode            = bodyNode;
+    this.remainingIterations = remainingIterations;
+  }
+
+  private TimesRepeatInlinedLiteralNode(final TimesRepeatInlinedLiteralNode node,
+      final FrameSlot remainingIterations) {
+    super(node);
+    this.receiverNode        = node.receiverNode;
+    this.bodyNode            = node.bodyNode;
+    this.remainingIterations = remainingIterations;
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    Object receiver = receiverNode.executeGeneric(frame);
+
+    if (!(receiver instanceof Long)) {
+      return sendToUnsupportedReceiver(frame,
+          new ExpressionNode[] {receiverNode}, new Object[] {receiver});
+    }
+
+    if (remainingIterations.getKind() != FrameSlotKind.Long) {
+      TruffleCompiler.transferToInterpreter("TimesRepeatInlinedLiteralNode.initRemainingIterations");
+      remainingIterations.setKind(FrameSlotKind.Long);
+    }
+
+    frame.setLong(remainingIterations, (long) receiver);
+    executeLoop(frame);
+    return receiver;
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    long remaining = FrameUtil.getLongSafe(frame, remainingIterations);
+    if (remaining <= 0) {
+      return false;
+    }
+    frame.setLong(remainingIterations, remaining - 1);
+    bodyNode.executeVoid(frame);
+    return true;
+  }
+
+  @Override
+  public void replaceWithIndependentCopyForInlining(final Inliner inliner) {
+    super.replaceWithIndependentCopyForInlining(inliner);
+    FrameSlot inlinedRemaining = inliner.getLocalFrameSlot(
+        remainingIterations.getIdentifier());
+    assert inlinedRemaining != null;
+    replace(new TimesRepeatInlinedLiteralNode(this, inlinedRemaining));
+  }
+
+  @Override
+  public void replaceWithLexicallyEmbeddedNode(
+      final InlinerForLexicallyEmbeddedMethods inliner) {
+    super.replaceWithLexicallyEmbeddedNode(inliner);
+    if (inliner.isInlinedBlockBody()) {
+      replace(new TimesRepeatInlinedLiteralNode(this,
+          inliner.getEmbeddedLocal(remainingIterations).getSlot()));
+    }
+  }
+}
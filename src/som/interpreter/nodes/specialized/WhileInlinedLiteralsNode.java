@@ -0,0 +1,120 @@
+package som.interpreter.nodes.specialized;
+
+import som.interpreter.TruffleCompiler;
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.literals.BlockNode;
+import som.vm.constants.Nil;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ControlFlowException;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * #whileTrue: and #whileFalse: with the literal receiver and argument
+ * blocks inlined. #whileTrue and #whileFalse without argument have no body.
+ *
+ * If the condition does not evaluate to a boolean, the result is sent
+ * #mustBeBoolean, and the answer decides whether the loop continues. The
+ * condition is not evaluated a second time for that iteration. Thus, the
+ * node does not need to fall back to a message send.
+ */
+public final class WhileInlinedLiteralsNode extends AbstractInlinedLoopNode {
+  @Child private ExpressionNode conditionNode;
+  @Child private ExpressionNode bodyNode;
+
+  private final boolean expectedBool;
+
+  public WhileInlinedLiteralsNode(final ExpressionNode conditionNode,
+      final ExpressionNode bodyNode, final boolean expectedBool,
+      final SSymbol selector, final SourceSection source) {
+    super(selector, new BlockNode[0], source);
+    this.conditionNode = conditionNode;
+    this.bodyNode      = bodyNode;
+    this.expectedBool  = expectedBool;
+  }
+
+  public WhileInlinedLiteralsNode(final ExpressionNode conditionNode,
+      final boolean expectedBool, final SSymbol selector,
+      final SourceSection source) {
+    this(conditionNode, null, expectedBool, selector, source);
+  }
+
+  /**
+   * Leaves the loop, also when it continues in an OSR call target, with the
+   * result of the condition that is not a boolean.
+   */
+  private static final class NonBooleanConditionException
+      extends ControlFlowException {
+    private static final long serialVersionUID = -5296545385536932421L;
+
+    private final Object condition;
+
+    NonBooleanConditionException(final Object condition) {
+      this.condition = condition;
+    }
+
+    Object getCondition() {
+      return condition;
+    }
+  }
+
+  @Override
+  public Object executeGeneric(final VirtualFrame frame) {
+    boolean continueLoop = true;
+    while (continueLoop) {
+      try {
+        executeLoop(frame);
+        continueLoop = false;
+      } catch (NonBooleanConditionException e) {
+        continueLoop = continueWithNonBooleanCondition(frame, e.getCondition());
+      }
+    }
+    return Nil.nilObject;
+  }
+
+  @Override
+  public void executeVoid(final VirtualFrame frame) {
+    executeGeneric(frame);
+  }
+
+  /**
+   * Completes the iteration, in which the condition evaluated to the given
+   * non-boolean value.
+   *
+   * @return true, if the loop continues with the next iteration
+   */
+  private boolean continueWithNonBooleanCondition(final VirtualFrame frame,
+      final Object condition) {
+    TruffleCompiler.transferToInterpreter("WhileInlinedLiteralsNode with non-boolean condition.");
+    Object result = SAbstractObject.sendMustBeBoolean(condition);
+    if (!(result instanceof Boolean) || (boolean) result != expectedBool) {
+      return false;
+    }
+    if (bodyNode != null) {
+      bodyNode.executeVoid(frame);
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean executeIteration(final VirtualFrame frame) {
+    boolean condition;
+    try {
+      condition = conditionNode.executeBoolean(frame);
+    } catch (UnexpectedResultException e) {
+      throw new NonBooleanConditionException(e.getResult());
+    }
+
+    if (condition != expectedBool) {
+      return false;
+    }
+    if (bodyNode != null) {
+      bodyNode.executeVoid(frame);
+    }
+    return true;
+  }
+}
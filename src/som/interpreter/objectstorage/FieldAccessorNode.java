@@ -3,12 +3,17 @@ package som.interpreter.objectstorage;
 import som.interpreter.TruffleCompiler;
 import som.interpreter.TypesGen;
 import som.interpreter.objectstorage.StorageLocation.AbstractObjectStorageLocation;
+import som.interpreter.objectstorage.StorageLocation.BooleanStorageLocation;
 import som.interpreter.objectstorage.StorageLocation.DoubleStorageLocation;
 import som.interpreter.objectstorage.StorageLocation.LongStorageLocation;
 import som.vm.constants.Nil;
+import som.vmobjects.SClass;
 import som.vmobjects.SObject;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
@@ -45,6 +50,10 @@ public abstract class FieldAccessorNode extends Node {
       return TypesGen.TYPES.expectDouble(read(obj));
     }
 
+    public boolean readBoolean(final SObject obj) throws UnexpectedResultException {
+      return TypesGen.TYPES.expectBoolean(read(obj));
+    }
+
     protected final Object specializeAndRead(final SObject obj, final String reason, final AbstractReadFieldNode next) {
       return specialize(obj, reason, next).read(obj);
     }
@@ -79,20 +88,63 @@ public abstract class FieldAccessorNode extends Node {
     protected final ObjectLayout layout;
     @Child private AbstractReadFieldNode nextInCache;
 
+    private final Assumption stable;
+    private final Assumption latestLayout;
+
+    // if the node only reads from a single receiver, e.g., a singleton
+    // object, the value of a stable field is folded for constant receivers.
+    // The receiver is only kept as long as the profile can still be used.
+    @CompilationFinal private SObject stableReceiver;
+    @CompilationFinal private Object  stableValue;
+    @CompilationFinal private boolean profileDisabled;
+
     public ReadSpecializedFieldNode(final int fieldIndex,
         final ObjectLayout layout, final AbstractReadFieldNode next) {
       super(fieldIndex);
       this.layout = layout;
       nextInCache = next;
+      stable = layout.getStorageLocation(fieldIndex).getStableAssumption();
+      latestLayout = layout.getLatestLayoutAssumption();
     }
 
     protected final boolean hasExpectedLayout(final SObject obj) {
-      return layout == obj.getObjectLayout();
+      return layout == obj.getObjectLayout() && latestLayout.isValid();
+    }
+
+    protected final boolean hasStableValue(final SObject obj) {
+      return obj == stableReceiver && stable.isValid();
+    }
+
+    protected final Object getStableValue() {
+      return stableValue;
+    }
+
+    /**
+     * Record the initialized value of the field. It is only done in the
+     * interpreter, compiled code relies on the profile gathered before.
+     */
+    protected final void profileStableValue(final SObject obj, final Object value) {
+      if (!CompilerDirectives.inInterpreter() || profileDisabled) {
+        return;
+      }
+
+      if (!stable.isValid() || (stableReceiver != null && stableReceiver != obj)) {
+        // the profile is not used anymore, do not keep the receiver alive
+        profileDisabled = true;
+        stableReceiver  = null;
+        stableValue     = null;
+      } else if (stableReceiver == null) {
+        stableReceiver = obj;
+        stableValue    = value;
+      }
     }
 
     protected final AbstractReadFieldNode respecializedNodeOrNext(final SObject obj) {
       if (layout.layoutForSameClass(obj.getObjectLayout())) {
         return specialize(obj, "update outdated read node", nextInCache);
+      } else if (!latestLayout.isValid()) {
+        TruffleCompiler.transferToInterpreterAndInvalidate("drop obsolete layout");
+        return replace(nextInCache, "drop read node for obsolete layout");
       } else {
         return nextInCache;
       }
@@ -137,7 +189,12 @@ public abstract class FieldAccessorNode extends Node {
     public long readLong(final SObject obj) throws UnexpectedResultException {
       boolean assumption = hasExpectedLayout(obj);
       if (assumption) {
-        return storage.readLong(obj, assumption);
+        if (hasStableValue(obj)) {
+          return (long) getStableValue();
+        }
+        long value = storage.readLong(obj, assumption);
+        profileStableValue(obj, value);
+        return value;
       } else {
         return respecializedNodeOrNext(obj).readLong(obj);
       }
@@ -166,7 +223,12 @@ public abstract class FieldAccessorNode extends Node {
     public double readDouble(final SObject obj) throws UnexpectedResultException {
       boolean assumption = hasExpectedLayout(obj);
       if (assumption) {
-        return storage.readDouble(obj, assumption);
+        if (hasStableValue(obj)) {
+          return (double) getStableValue();
+        }
+        double value = storage.readDouble(obj, assumption);
+        profileStableValue(obj, value);
+        return value;
       } else {
         return respecializedNodeOrNext(obj).readDouble(obj);
       }
@@ -182,24 +244,89 @@ public abstract class FieldAccessorNode extends Node {
     }
   }
 
+  public static final class ReadBooleanFieldNode extends ReadSpecializedFieldNode {
+    private final BooleanStorageLocation storage;
+
+    public ReadBooleanFieldNode(final int fieldIndex, final ObjectLayout layout,
+        final AbstractReadFieldNode next) {
+      super(fieldIndex, layout, next);
+      this.storage = (BooleanStorageLocation) layout.getStorageLocation(fieldIndex);
+    }
+
+    @Override
+    public boolean readBoolean(final SObject obj) throws UnexpectedResultException {
+      boolean assumption = hasExpectedLayout(obj);
+      if (assumption) {
+        if (hasStableValue(obj)) {
+          return (boolean) getStableValue();
+        }
+        boolean value = storage.readBoolean(obj, assumption);
+        profileStableValue(obj, value);
+        return value;
+      } else {
+        return respecializedNodeOrNext(obj).readBoolean(obj);
+      }
+    }
+
+    @Override
+    public Object read(final SObject obj) {
+      try {
+        return readBoolean(obj);
+      } catch (UnexpectedResultException e) {
+        return e.getResult();
+      }
+    }
+  }
+
   public static final class ReadObjectFieldNode extends ReadSpecializedFieldNode {
     private final AbstractObjectStorageLocation storage;
 
+    // valid as long as this node only saw objects with the expected layout
+    private final Assumption onlyExpectedLayout;
+
     public ReadObjectFieldNode(final int fieldIndex, final ObjectLayout layout,
         final AbstractReadFieldNode next) {
       super(fieldIndex, layout, next);
       this.storage = (AbstractObjectStorageLocation) layout.getStorageLocation(fieldIndex);
+      onlyExpectedLayout = Truffle.getRuntime().createAssumption(
+          "read node saw only expected layout");
     }
 
     @Override
     public Object read(final SObject obj) {
       boolean assumption = hasExpectedLayout(obj);
       if (assumption) {
-        return storage.read(obj, assumption);
+        if (hasStableValue(obj)) {
+          return getStableValue();
+        }
+        Object value = storage.read(obj, assumption);
+        if (value != Nil.nilObject) {
+          profileStableValue(obj, value);
+        }
+        return value;
       } else {
+        onlyExpectedLayout.invalidate();
         return respecializedNodeOrNext(obj).read(obj);
       }
     }
+
+    /**
+     * @return the class of all non-nil values read by this node, or null if
+     *         it is not known. It remains valid as long as the assumptions
+     *         returned by getKnownClassAssumptions() are valid.
+     */
+    public SClass getKnownClass() {
+      if (onlyExpectedLayout.isValid()) {
+        return storage.getMonomorphicStoredClass();
+      } else {
+        return null;
+      }
+    }
+
+    public Assumption[] getKnownClassAssumptions() {
+      return new Assumption[] {onlyExpectedLayout,
+          storage.getMonomorphicStoredClassAssumption()};
+    }
   }
 
   public abstract static class AbstractWriteFieldNode extends FieldAccessorNode {
@@ -219,10 +346,16 @@ public abstract class FieldAccessorNode extends Node {
       return value;
     }
 
+    public boolean write(final SObject obj, final boolean value) {
+      write(obj, (Object) value);
+      return value;
+    }
+
     protected final void writeAndRespecialize(final SObject obj, final Object value,
         final String reason, final AbstractWriteFieldNode next) {
       TruffleCompiler.transferToInterpreterAndInvalidate(reason);
 
+      obj.updateLayoutToMatchClass();
       obj.setField(fieldIndex, value);
 
       final ObjectLayout layout = obj.getObjectLayout();
@@ -251,15 +384,27 @@ public abstract class FieldAccessorNode extends Node {
     protected final ObjectLayout layout;
     @Child protected AbstractWriteFieldNode nextInCache;
 
+    private final Assumption latestLayout;
+
     public WriteSpecializedFieldNode(final int fieldIndex,
         final ObjectLayout layout, final AbstractWriteFieldNode next) {
       super(fieldIndex);
       this.layout = layout;
       nextInCache = next;
+      latestLayout = layout.getLatestLayoutAssumption();
     }
 
     protected final boolean hasExpectedLayout(final SObject obj) {
-      return layout == obj.getObjectLayout();
+      return layout == obj.getObjectLayout() && latestLayout.isValid();
+    }
+
+    protected final AbstractWriteFieldNode nextOrDropObsolete() {
+      if (latestLayout.isValid()) {
+        return nextInCache;
+      } else {
+        TruffleCompiler.transferToInterpreterAndInvalidate("drop obsolete layout");
+        return replace(nextInCache, "drop write node for obsolete layout");
+      }
     }
   }
 
@@ -280,7 +425,7 @@ public abstract class FieldAccessorNode extends Node {
         if (layout.layoutForSameClass(obj.getObjectLayout())) {
           writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
         } else {
-          nextInCache.write(obj, value);
+          nextOrDropObsolete().write(obj, value);
         }
       }
       return value;
@@ -294,7 +439,7 @@ public abstract class FieldAccessorNode extends Node {
         if (layout.layoutForSameClass(obj.getObjectLayout())) {
           writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
         } else {
-          nextInCache.write(obj, (long) value);
+          nextOrDropObsolete().write(obj, value);
         }
       }
       return value;
@@ -318,7 +463,7 @@ public abstract class FieldAccessorNode extends Node {
         if (layout.layoutForSameClass(obj.getObjectLayout())) {
           writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
         } else {
-          nextInCache.write(obj, value);
+          nextOrDropObsolete().write(obj, value);
         }
       }
       return value;
@@ -332,7 +477,45 @@ public abstract class FieldAccessorNode extends Node {
         if (layout.layoutForSameClass(obj.getObjectLayout())) {
           writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
         } else {
-          nextInCache.write(obj, (double) value);
+          nextOrDropObsolete().write(obj, value);
+        }
+      }
+      return value;
+    }
+  }
+
+  public static final class WriteBooleanFieldNode extends WriteSpecializedFieldNode {
+    private final BooleanStorageLocation storage;
+
+    public WriteBooleanFieldNode(final int fieldIndex, final ObjectLayout layout,
+        final AbstractWriteFieldNode next) {
+      super(fieldIndex, layout, next);
+      this.storage = (BooleanStorageLocation) layout.getStorageLocation(fieldIndex);
+    }
+
+    @Override
+    public boolean write(final SObject obj, final boolean value) {
+      if (hasExpectedLayout(obj)) {
+        storage.writeBoolean(obj, value);
+      } else {
+        if (layout.layoutForSameClass(obj.getObjectLayout())) {
+          writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
+        } else {
+          nextOrDropObsolete().write(obj, value);
+        }
+      }
+      return value;
+    }
+
+    @Override
+    public Object write(final SObject obj, final Object value) {
+      if (value instanceof Boolean) {
+        write(obj, (boolean) value);
+      } else {
+        if (layout.layoutForSameClass(obj.getObjectLayout())) {
+          writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
+        } else {
+          nextOrDropObsolete().write(obj, value);
         }
       }
       return value;
@@ -356,7 +539,7 @@ public abstract class FieldAccessorNode extends Node {
         if (layout.layoutForSameClass(obj.getObjectLayout())) {
           writeAndRespecialize(obj, value, "update outdated read node", nextInCache);
         } else {
-          nextInCache.write(obj, value);
+          nextOrDropObsolete().write(obj, value);
         }
       }
       return value;
@@ -0,0 +1,129 @@
+package som.interpreter.objectstorage;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import som.vmobjects.SClass;
+
+import com.oracle.truffle.api.CompilerAsserts;
+
+
+/**
+ * The table of all layouts that were derived from the same root layout,
+ * i.e., typically all layouts of the instances of one class.
+ *
+ * It canonicalizes layouts so that a vector of storage types is always
+ * represented by the same ObjectLayout, independent of the order in which
+ * the fields got their types.
+ */
+public final class LayoutTransitionTable {
+  private final SClass forClass;
+
+  private final HashMap<TypeVector, WeakReference<ObjectLayout>> layouts;
+
+  private int numberOfLayoutsCreated;
+  private int numberOfObsoleteLayouts;
+
+  LayoutTransitionTable(final SClass forClass) {
+    this.forClass = forClass;
+    layouts = new HashMap<>();
+  }
+
+  ObjectLayout createRootLayout(final int numberOfFields) {
+    return getOrCreateLayout(new Class<?>[numberOfFields]);
+  }
+
+  ObjectLayout getOrCreateLayout(final Class<?>[] storageTypes) {
+    CompilerAsserts.neverPartOfCompilation("LayoutTransitionTable");
+    TypeVector key = new TypeVector(storageTypes);
+
+    WeakReference<ObjectLayout> ref = layouts.get(key);
+    ObjectLayout layout = ref == null ? null : ref.get();
+
+    if (layout == null) {
+      layout = new ObjectLayout(storageTypes, forClass, this);
+      layouts.put(key, new WeakReference<>(layout));
+      numberOfLayoutsCreated++;
+    }
+    return layout;
+  }
+
+  public SClass getForClass() {
+    return forClass;
+  }
+
+  public int getNumberOfLayoutsCreated() {
+    return numberOfLayoutsCreated;
+  }
+
+  void layoutBecameObsolete() {
+    numberOfObsoleteLayouts++;
+  }
+
+  /**
+   * @return the number of layouts that were replaced by a newer one, whether
+   *         they are still reachable or not
+   */
+  public int getNumberOfObsoleteLayouts() {
+    return numberOfObsoleteLayouts;
+  }
+
+  /**
+   * @return the number of obsolete layouts that are still reachable, i.e.,
+   *         used by instances that were not migrated yet, or by AST nodes
+   */
+  public int getNumberOfLiveObsoleteLayouts() {
+    CompilerAsserts.neverPartOfCompilation("LayoutTransitionTable");
+    int live = 0;
+    for (WeakReference<ObjectLayout> ref : layouts.values()) {
+      ObjectLayout layout = ref.get();
+      if (layout != null && layout.isObsolete()) {
+        live++;
+      }
+    }
+    return live;
+  }
+
+  /**
+   * @return the number of layouts that are still reachable, either from
+   *         objects, the class, or from AST nodes
+   */
+  public int getNumberOfLiveLayouts() {
+    CompilerAsserts.neverPartOfCompilation("LayoutTransitionTable");
+    int live = 0;
+    Iterator<WeakReference<ObjectLayout>> i = layouts.values().iterator();
+    while (i.hasNext()) {
+      if (i.next().get() == null) {
+        i.remove();
+      } else {
+        live++;
+      }
+    }
+    return live;
+  }
+
+  private static final class TypeVector {
+    private final Class<?>[] types;
+    private final int hash;
+
+    TypeVector(final Class<?>[] types) {
+      this.types = types;
+      this.hash  = Arrays.hashCode(types);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof TypeVector)) {
+        return false;
+      }
+      return Arrays.equals(types, ((TypeVector) obj).types);
+    }
+  }
+}
@@ -1,9 +1,16 @@
 package som.interpreter.objectstorage;
 
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
 import som.interpreter.objectstorage.StorageLocation.UnwrittenStorageLocation;
 import som.vmobjects.SClass;
 import som.vmobjects.SObject;
 
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.Truffle;
+
 
 
 public final class ObjectLayout {
@@ -13,28 +20,64 @@ public final class ObjectLayout {
   private final int objectStorageLocationsUsed;
   private final int totalNumberOfStorageLocations;
 
+  // the number of inline fields of the SObject variant used for the objects
+  private final int numberOfInlineFields;
+
   private final StorageLocation[] storageLocations;
   private final Class<?>[]        storageTypes;
 
-  public ObjectLayout(final int numberOfFields, final SClass forClass) {
-    this(new Class<?>[numberOfFields], forClass);
+  // all layouts for the same class share the transition table, which makes
+  // sure that each vector of storage types is represented by one layout
+  private final LayoutTransitionTable transitionTable;
+
+  // cache of the transitions taken from this layout, keyed by field index
+  // and resulting type, it does not keep obsolete layouts alive
+  private final HashMap<Transition, WeakReference<ObjectLayout>> transitions;
+
+  // valid as long as this layout is the one used for new instances of the
+  // class, once it becomes obsolete, instances are migrated and AST nodes
+  // should stop specializing on it
+  private final Assumption latestLayout;
+
+  public static ObjectLayout createRootLayout(final int numberOfFields,
+      final SClass forClass) {
+    return new LayoutTransitionTable(forClass).createRootLayout(numberOfFields);
   }
 
-  public ObjectLayout(final Class<?>[] knownFieldTypes, final SClass forClass) {
-    this.forClass = forClass;
+  ObjectLayout(final Class<?>[] knownFieldTypes, final SClass forClass,
+      final LayoutTransitionTable transitionTable) {
+    this.forClass        = forClass;
+    this.transitionTable = transitionTable;
+    transitions = new HashMap<>();
+    latestLayout = Truffle.getRuntime().createAssumption("latest layout");
 
     storageTypes = knownFieldTypes;
     totalNumberOfStorageLocations = knownFieldTypes.length;
+    numberOfInlineFields = SObject.getNumberOfInlineFieldsFor(knownFieldTypes.length);
     storageLocations = new StorageLocation[knownFieldTypes.length];
 
+    // booleans are packed into the primitive fields after longs and doubles
+    int firstBooleanPrimIdx = 0;
+    for (Class<?> type : knownFieldTypes) {
+      if (type == Long.class || type == Double.class) {
+        firstBooleanPrimIdx++;
+      }
+    }
+
     int nextFreePrimIdx = 0;
     int nextFreeObjIdx  = 0;
+    int nextFreeBoolIdx = 0;
 
     for (int i = 0; i < totalNumberOfStorageLocations; i++) {
       Class<?> type = knownFieldTypes[i];
 
       StorageLocation storage;
-      if (type == Long.class) {
+      if (type == Boolean.class) {
+        storage = StorageLocation.createForBoolean(this,
+            firstBooleanPrimIdx + nextFreeBoolIdx / StorageLocation.BOOLEANS_PER_PRIM_FIELD,
+            nextFreeBoolIdx % StorageLocation.BOOLEANS_PER_PRIM_FIELD);
+        nextFreeBoolIdx++;
+      } else if (type == Long.class) {
         storage = StorageLocation.createForLong(this, nextFreePrimIdx);
         nextFreePrimIdx++;
       } else if (type == Double.class) {
@@ -51,7 +94,9 @@ public final class ObjectLayout {
       storageLocations[i] = storage;
     }
 
-    primitiveStorageLocationsUsed = nextFreePrimIdx;
+    primitiveStorageLocationsUsed = nextFreePrimIdx
+        + (nextFreeBoolIdx + StorageLocation.BOOLEANS_PER_PRIM_FIELD - 1)
+          / StorageLocation.BOOLEANS_PER_PRIM_FIELD;
     objectStorageLocationsUsed    = nextFreeObjIdx;
   }
 
@@ -63,6 +108,43 @@ public final class ObjectLayout {
     return storageTypes.length;
   }
 
+  public int getNumberOfInlineFields() {
+    return numberOfInlineFields;
+  }
+
+  public boolean isObsolete() {
+    return !latestLayout.isValid();
+  }
+
+  public Assumption getLatestLayoutAssumption() {
+    return latestLayout;
+  }
+
+  public void markObsolete() {
+    CompilerAsserts.neverPartOfCompilation("ObjectLayout.markObsolete()");
+    if (latestLayout.isValid()) {
+      latestLayout.invalidate();
+      transitionTable.layoutBecameObsolete();
+    }
+  }
+
+  public LayoutTransitionTable getTransitionTable() {
+    return transitionTable;
+  }
+
+  private ObjectLayout transitionTo(final int fieldIndex, final Class<?> type) {
+    Transition transition = new Transition(fieldIndex, type);
+    WeakReference<ObjectLayout> ref = transitions.get(transition);
+    ObjectLayout target = ref == null ? null : ref.get();
+    if (target == null) {
+      Class<?>[] newStorageTypes = storageTypes.clone();
+      newStorageTypes[fieldIndex] = type;
+      target = transitionTable.getOrCreateLayout(newStorageTypes);
+      transitions.put(transition, new WeakReference<>(target));
+    }
+    return target;
+  }
+
   public ObjectLayout withGeneralizedField(final long fieldIndex) {
     return withGeneralizedField((int) fieldIndex);
   }
@@ -72,15 +154,13 @@ public final class ObjectLayout {
       return this;
     } else {
       assert storageTypes[fieldIndex] != Object.class;
-      Class<?>[] withGeneralizedField = storageTypes.clone();
-      withGeneralizedField[fieldIndex] = Object.class;
-      return new ObjectLayout(withGeneralizedField, forClass);
+      return transitionTo(fieldIndex, Object.class);
     }
   }
 
   public ObjectLayout withInitializedField(final long fieldIndex, final Class<?> type) {
     Class <?> specType;
-    if (type == Long.class || type == Double.class) {
+    if (type == Long.class || type == Double.class || type == Boolean.class) {
       specType = type;
     } else {
       specType = Object.class;
@@ -93,9 +173,7 @@ public final class ObjectLayout {
       return this;
     } else {
       assert storageTypes[fieldIndex] == null;
-      Class<?>[] withInitializedField = storageTypes.clone();
-      withInitializedField[fieldIndex] = type;
-      return new ObjectLayout(withInitializedField, forClass);
+      return transitionTo(fieldIndex, type);
     }
   }
 
@@ -108,14 +186,45 @@ public final class ObjectLayout {
   }
 
   public int getNumberOfUsedExtendedObjectStorageLocations() {
-    int requiredExtensionFields = objectStorageLocationsUsed - SObject.NUM_OBJECT_FIELDS;
+    int requiredExtensionFields = objectStorageLocationsUsed - numberOfInlineFields;
     if (requiredExtensionFields < 0) { requiredExtensionFields = 0; }
     return requiredExtensionFields;
   }
 
+  public int getNumberOfExtendedPrimUsedMaps() {
+    int requiredMaps = (primitiveStorageLocationsUsed + SObject.PRIM_USED_MAP_BITS - 1)
+        / SObject.PRIM_USED_MAP_BITS - 1;
+    if (requiredMaps < 0) { requiredMaps = 0; }
+    return requiredMaps;
+  }
+
   public int getNumberOfUsedExtendedPrimStorageLocations() {
-    int requiredExtensionFields = primitiveStorageLocationsUsed - SObject.NUM_PRIMITIVE_FIELDS;
+    int requiredExtensionFields = primitiveStorageLocationsUsed - numberOfInlineFields;
     if (requiredExtensionFields < 0) { requiredExtensionFields = 0;  }
     return requiredExtensionFields;
   }
+
+  private static final class Transition {
+    private final int      fieldIndex;
+    private final Class<?> type;
+
+    Transition(final int fieldIndex, final Class<?> type) {
+      this.fieldIndex = fieldIndex;
+      this.type       = type;
+    }
+
+    @Override
+    public int hashCode() {
+      return fieldIndex * 31 + type.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof Transition)) {
+        return false;
+      }
+      Transition other = (Transition) obj;
+      return fieldIndex == other.fieldIndex && type == other.type;
+    }
+  }
 }
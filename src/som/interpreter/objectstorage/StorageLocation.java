@@ -3,19 +3,25 @@ package som.interpreter.objectstorage;
 import som.interpreter.TruffleCompiler;
 import som.interpreter.objectstorage.FieldAccessorNode.AbstractReadFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.AbstractWriteFieldNode;
+import som.interpreter.objectstorage.FieldAccessorNode.ReadBooleanFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.ReadDoubleFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.ReadLongFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.ReadObjectFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.ReadUnwrittenFieldNode;
+import som.interpreter.objectstorage.FieldAccessorNode.WriteBooleanFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.WriteDoubleFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.WriteLongFieldNode;
 import som.interpreter.objectstorage.FieldAccessorNode.WriteObjectFieldNode;
 import som.vm.constants.Nil;
+import som.vmobjects.SClass;
 import som.vmobjects.SObject;
 import sun.misc.Unsafe;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
 
@@ -31,10 +37,21 @@ public abstract class StorageLocation {
     void   writeDouble(final SObject obj, final double value);
   }
 
+  public interface BooleanStorageLocation {
+    boolean readBoolean(final SObject obj, boolean assumptionValid) throws UnexpectedResultException;
+    void    writeBoolean(final SObject obj, final boolean value);
+  }
+
+  /**
+   * Booleans are bit-packed into the primitive fields. Each boolean uses two
+   * bits, one indicating whether it is set, and one for its value.
+   */
+  public static final int BOOLEANS_PER_PRIM_FIELD = 32;
+
   public static StorageLocation createForLong(final ObjectLayout layout,
       final int primFieldIndex) {
     CompilerAsserts.neverPartOfCompilation("StorageLocation");
-    if (primFieldIndex < SObject.NUM_PRIMITIVE_FIELDS) {
+    if (primFieldIndex < layout.getNumberOfInlineFields()) {
       return new LongDirectStoreLocation(layout, primFieldIndex);
     } else {
       return new LongArrayStoreLocation(layout, primFieldIndex);
@@ -44,17 +61,27 @@ public abstract class StorageLocation {
   public static StorageLocation createForDouble(final ObjectLayout layout,
       final int primFieldIndex) {
     CompilerAsserts.neverPartOfCompilation("StorageLocation");
-    if (primFieldIndex < SObject.NUM_PRIMITIVE_FIELDS) {
+    if (primFieldIndex < layout.getNumberOfInlineFields()) {
       return new DoubleDirectStoreLocation(layout, primFieldIndex);
     } else {
       return new DoubleArrayStoreLocation(layout, primFieldIndex);
     }
   }
 
+  public static StorageLocation createForBoolean(final ObjectLayout layout,
+      final int primFieldIndex, final int bitIndex) {
+    CompilerAsserts.neverPartOfCompilation("StorageLocation");
+    if (primFieldIndex < layout.getNumberOfInlineFields()) {
+      return new BooleanDirectStoreLocation(layout, primFieldIndex, bitIndex);
+    } else {
+      return new BooleanArrayStoreLocation(layout, primFieldIndex, bitIndex);
+    }
+  }
+
   public static StorageLocation createForObject(final ObjectLayout layout,
       final int objFieldIndex) {
     CompilerAsserts.neverPartOfCompilation("StorageLocation");
-    if (objFieldIndex < SObject.NUM_PRIMITIVE_FIELDS) {
+    if (objFieldIndex < layout.getNumberOfInlineFields()) {
       return new ObjectDirectStorageLocation(layout, objFieldIndex);
     } else {
       return new ObjectArrayStorageLocation(layout, objFieldIndex);
@@ -63,8 +90,14 @@ public abstract class StorageLocation {
 
   private ObjectLayout layout;
 
+  // valid as long as the fields that use this location were only written
+  // when they were initialized, which allows reads from constant receivers
+  // to be folded
+  private final Assumption stable;
+
   protected StorageLocation(final ObjectLayout layout) {
     this.layout = layout;
+    stable = Truffle.getRuntime().createAssumption("stable field");
   }
 
   public abstract boolean isSet(SObject obj, boolean assumptionValid);
@@ -80,6 +113,25 @@ public abstract class StorageLocation {
     return layout;
   }
 
+  public final Assumption getStableAssumption() {
+    return stable;
+  }
+
+  /**
+   * Needs to be called before a write, to detect that a field, which was
+   * already initialized, is written again.
+   */
+  protected final void checkStable(final SObject obj) {
+    if (stable.isValid() && isInitialized(obj)) {
+      TruffleCompiler.transferToInterpreterAndInvalidate("field not stable");
+      stable.invalidate();
+    }
+  }
+
+  protected boolean isInitialized(final SObject obj) {
+    return isSet(obj, true);
+  }
+
   public final class GeneralizeStorageLocationException extends Exception {
     private static final long serialVersionUID = 4610497040788136337L;
   }
@@ -134,14 +186,63 @@ public abstract class StorageLocation {
   public abstract static class AbstractObjectStorageLocation extends StorageLocation {
     protected final int fieldIndex;
 
+    // the class of all non-nil values stored so far, as long as the
+    // assumption is valid
+    @CompilationFinal private SClass storedClass;
+    private final Assumption monomorphicStoredClass;
+
     public AbstractObjectStorageLocation(final ObjectLayout layout, final int fieldIndex) {
       super(layout);
       this.fieldIndex = fieldIndex;
+      monomorphicStoredClass = Truffle.getRuntime().createAssumption(
+          "monomorphic stored class");
     }
 
     @Override
     public abstract void write(final SObject obj, final Object value);
 
+    @Override
+    protected final boolean isInitialized(final SObject obj) {
+      Object value = read(obj, true);
+      return value != null && value != Nil.nilObject;
+    }
+
+    protected final void profileStoredClass(final Object value) {
+      if (!monomorphicStoredClass.isValid() || value == Nil.nilObject) {
+        return;
+      }
+
+      if (value instanceof SObject) {
+        SClass valueClass = ((SObject) value).getSOMClass();
+        if (valueClass == storedClass) {
+          return;
+        }
+        if (storedClass == null) {
+          TruffleCompiler.transferToInterpreterAndInvalidate("first stored class");
+          storedClass = valueClass;
+          return;
+        }
+      }
+      TruffleCompiler.transferToInterpreterAndInvalidate("polymorphic stored class");
+      monomorphicStoredClass.invalidate();
+    }
+
+    /**
+     * @return the class of all non-nil values stored in this location so
+     *         far, or null if it is not known
+     */
+    public final SClass getMonomorphicStoredClass() {
+      if (monomorphicStoredClass.isValid()) {
+        return storedClass;
+      } else {
+        return null;
+      }
+    }
+
+    public final Assumption getMonomorphicStoredClassAssumption() {
+      return monomorphicStoredClass;
+    }
+
     @Override
     public final Class<?> getStoredClass() {
       return Object.class;
@@ -187,6 +288,8 @@ public abstract class StorageLocation {
     @Override
     public void write(final SObject obj, final Object value) {
       assert value != null;
+      checkStable(obj);
+      profileStoredClass(value);
 
       // TODO: for the moment Graal doesn't seem to get the optimizations
       // right, still need to pass in the correct location identifier, which can probably be `this`.
@@ -198,7 +301,7 @@ public abstract class StorageLocation {
     private final int extensionIndex;
     public ObjectArrayStorageLocation(final ObjectLayout layout, final int fieldIndex) {
       super(layout, fieldIndex);
-      extensionIndex = fieldIndex - SObject.NUM_OBJECT_FIELDS;
+      extensionIndex = fieldIndex - layout.getNumberOfInlineFields();
     }
 
     @Override
@@ -218,6 +321,8 @@ public abstract class StorageLocation {
     @Override
     public void write(final SObject obj, final Object value) {
       assert value != null;
+      checkStable(obj);
+      profileStoredClass(value);
 
       // TODO: should we use unsafe operations to avoid overhead of array bounce check etc.?
       obj.getExtensionObjFields()[extensionIndex] = value;
@@ -225,20 +330,31 @@ public abstract class StorageLocation {
   }
 
   public abstract static class PrimitiveStorageLocation extends StorageLocation {
-    protected final int mask;
+    protected final long mask;
+    protected final int  maskIndex;
 
     protected PrimitiveStorageLocation(final ObjectLayout layout, final int primField) {
       super(layout);
-      mask = SObject.getPrimitiveFieldMask(primField);
+      mask      = SObject.getPrimitiveFieldMask(primField);
+      maskIndex = SObject.getPrimitiveFieldMaskIndex(primField);
     }
 
     @Override
     public final boolean isSet(final SObject obj, final boolean assumptionValid) {
-      return obj.isPrimitiveSet(mask);
+      // the location is a compilation constant, so only one branch remains
+      if (maskIndex < 0) {
+        return obj.isPrimitiveSet(mask);
+      } else {
+        return obj.isExtendedPrimitiveSet(maskIndex, mask);
+      }
     }
 
     protected final void markAsSet(final SObject obj) {
-      obj.markPrimAsSet(mask);
+      if (maskIndex < 0) {
+        obj.markPrimAsSet(mask);
+      } else {
+        obj.markExtendedPrimAsSet(maskIndex, mask);
+      }
     }
   }
 
@@ -299,6 +415,7 @@ public abstract class StorageLocation {
 
     @Override
     public void writeDouble(final SObject obj, final double value) {
+      checkStable(obj);
       CompilerDirectives.unsafePutDouble(obj, offset, value, null);
       markAsSet(obj);
     }
@@ -367,6 +484,7 @@ public abstract class StorageLocation {
 
     @Override
     public void writeLong(final SObject obj, final long value) {
+      checkStable(obj);
       CompilerDirectives.unsafePutLong(obj, offset, value, null);
       markAsSet(obj);
     }
@@ -395,7 +513,7 @@ public abstract class StorageLocation {
     protected final int extensionIndex;
     public PrimitiveArrayStoreLocation(final ObjectLayout layout, final int primField) {
       super(layout, primField);
-      extensionIndex = primField - SObject.NUM_PRIMITIVE_FIELDS;
+      extensionIndex = primField - layout.getNumberOfInlineFields();
       assert extensionIndex >= 0;
     }
   }
@@ -443,6 +561,7 @@ public abstract class StorageLocation {
 
     @Override
     public void writeLong(final SObject obj, final long value) {
+      checkStable(obj);
       obj.getExtendedPrimFields()[extensionIndex] = value;
       markAsSet(obj);
     }
@@ -514,6 +633,7 @@ public abstract class StorageLocation {
 
     @Override
     public void writeDouble(final SObject obj, final double value) {
+      checkStable(obj);
       final long[] arr = obj.getExtendedPrimFields();
 
       // TODO: for the moment Graal doesn't seem to get the optimizations
@@ -544,4 +664,133 @@ public abstract class StorageLocation {
       return new WriteDoubleFieldNode(fieldIndex, layout, next);
     }
   }
+
+  public abstract static class AbstractBooleanStorageLocation extends StorageLocation
+      implements BooleanStorageLocation {
+    private final long setMask;
+    private final long valueMask;
+
+    protected AbstractBooleanStorageLocation(final ObjectLayout layout,
+        final int bitIndex) {
+      super(layout);
+      assert 0 <= bitIndex && bitIndex < BOOLEANS_PER_PRIM_FIELD;
+      setMask   = 1L << (2 * bitIndex);
+      valueMask = 1L << (2 * bitIndex + 1);
+    }
+
+    protected abstract long readBits(SObject obj);
+    protected abstract void writeBits(SObject obj, long bits);
+
+    @Override
+    public final boolean isSet(final SObject obj, final boolean assumptionValid) {
+      return (readBits(obj) & setMask) != 0;
+    }
+
+    @Override
+    public final Object read(final SObject obj, final boolean assumptionValid) {
+      try {
+        return readBoolean(obj, assumptionValid);
+      } catch (UnexpectedResultException e) {
+        CompilerAsserts.neverPartOfCompilation("StorageLocation");
+        TruffleCompiler.transferToInterpreterAndInvalidate("unstabelized read node");
+        return e.getResult();
+      }
+    }
+
+    @Override
+    public final boolean readBoolean(final SObject obj, final boolean assumptionValid) throws UnexpectedResultException {
+      long bits = readBits(obj);
+      if ((bits & setMask) != 0) {
+        return (bits & valueMask) != 0;
+      } else {
+        CompilerAsserts.neverPartOfCompilation("StorageLocation");
+        TruffleCompiler.transferToInterpreterAndInvalidate("unstabelized read node");
+        throw new UnexpectedResultException(Nil.nilObject);
+      }
+    }
+
+    @Override
+    public final void write(final SObject obj, final Object value) throws GeneralizeStorageLocationException {
+      assert value != null;
+      if (value instanceof Boolean) {
+        writeBoolean(obj, (boolean) value);
+      } else {
+        CompilerAsserts.neverPartOfCompilation("StorageLocation");
+        TruffleCompiler.transferToInterpreterAndInvalidate("unstabelized write node");
+        throw new GeneralizeStorageLocationException();
+      }
+    }
+
+    @Override
+    public final void writeBoolean(final SObject obj, final boolean value) {
+      checkStable(obj);
+      long bits = readBits(obj) | setMask;
+      if (value) {
+        bits |= valueMask;
+      } else {
+        bits &= ~valueMask;
+      }
+      writeBits(obj, bits);
+    }
+
+    @Override
+    public final Class<?> getStoredClass() {
+      return Boolean.class;
+    }
+
+    @Override
+    public final AbstractReadFieldNode getReadNode(final int fieldIndex,
+        final ObjectLayout layout, final AbstractReadFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new ReadBooleanFieldNode(fieldIndex, layout, next);
+    }
+
+    @Override
+    public final AbstractWriteFieldNode getWriteNode(final int fieldIndex,
+        final ObjectLayout layout, final AbstractWriteFieldNode next) {
+      CompilerAsserts.neverPartOfCompilation("StorageLocation");
+      return new WriteBooleanFieldNode(fieldIndex, layout, next);
+    }
+  }
+
+  public static final class BooleanDirectStoreLocation extends AbstractBooleanStorageLocation {
+    private final long offset;
+
+    public BooleanDirectStoreLocation(final ObjectLayout layout,
+        final int primField, final int bitIndex) {
+      super(layout, bitIndex);
+      offset = SObject.getPrimitiveFieldOffset(primField);
+    }
+
+    @Override
+    protected long readBits(final SObject obj) {
+      return CompilerDirectives.unsafeGetLong(obj, offset, true, null);
+    }
+
+    @Override
+    protected void writeBits(final SObject obj, final long bits) {
+      CompilerDirectives.unsafePutLong(obj, offset, bits, null);
+    }
+  }
+
+  public static final class BooleanArrayStoreLocation extends AbstractBooleanStorageLocation {
+    private final int extensionIndex;
+
+    public BooleanArrayStoreLocation(final ObjectLayout layout,
+        final int primField, final int bitIndex) {
+      super(layout, bitIndex);
+      extensionIndex = primField - layout.getNumberOfInlineFields();
+      assert extensionIndex >= 0;
+    }
+
+    @Override
+    protected long readBits(final SObject obj) {
+      return obj.getExtendedPrimFields()[extensionIndex];
+    }
+
+    @Override
+    protected void writeBits(final SObject obj, final long bits) {
+      obj.getExtendedPrimFields()[extensionIndex] = bits;
+    }
+  }
 }
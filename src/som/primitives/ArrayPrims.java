@@ -1,28 +1,183 @@
 package som.primitives;
 
-import java.util.Arrays;
-
+import som.interpreter.TruffleCompiler;
 import som.interpreter.nodes.nary.BinaryExpressionNode.BinarySideEffectFreeExpressionNode;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.vm.constants.Classes;
 import som.vm.constants.Nil;
+import som.vmobjects.SArray;
+import som.vmobjects.SArray.PartiallyEmptyArray;
 import som.vmobjects.SClass;
 
 import com.oracle.truffle.api.dsl.Specialization;
 
 
 public final class ArrayPrims {
+
+  /**
+   * Empty arrays have no storage that would check the index, so, the check
+   * is done explicitly to raise the same error as for the other strategies.
+   */
+  private static void checkEmptyArrayIndex(final SArray receiver,
+      final long index) {
+    if (index < 1 || index > receiver.getEmptyStorage()) {
+      TruffleCompiler.transferToInterpreter("index out of bounds");
+      throw new ArrayIndexOutOfBoundsException("Array index out of range: "
+          + (index - 1));
+    }
+  }
+
+  @EagerPrimitive(selector = "at:", receiverType = SArray.class)
   public abstract static class AtPrim extends BinarySideEffectFreeExpressionNode {
-    @Specialization
-    public final Object doSArray(final Object[] receiver, final long argument) {
-      return receiver[(int) argument - 1];
+    protected static final boolean isEmptyType(final SArray receiver) {
+      return receiver.isEmptyType();
+    }
+
+    protected static final boolean isPartiallyEmptyType(final SArray receiver) {
+      return receiver.isPartiallyEmptyType();
+    }
+
+    protected static final boolean isObjectType(final SArray receiver) {
+      return receiver.isObjectType();
+    }
+
+    protected static final boolean isLongType(final SArray receiver) {
+      return receiver.isLongType();
+    }
+
+    protected static final boolean isDoubleType(final SArray receiver) {
+      return receiver.isDoubleType();
+    }
+
+    protected static final boolean isBooleanType(final SArray receiver) {
+      return receiver.isBooleanType();
+    }
+
+    @Specialization(guards = "isEmptyType")
+    public final Object doEmptySArray(final SArray receiver, final long idx) {
+      checkEmptyArrayIndex(receiver, idx);
+      return Nil.nilObject;
+    }
+
+    @Specialization(guards = "isPartiallyEmptyType")
+    public final Object doPartiallyEmptySArray(final SArray receiver, final long idx) {
+      return receiver.getPartiallyEmptyStorage().get(idx - 1);
+    }
+
+    @Specialization(guards = "isObjectType")
+    public final Object doObjectSArray(final SArray receiver, final long idx) {
+      return receiver.getObjectStorage()[(int) idx - 1];
+    }
+
+    @Specialization(guards = "isLongType")
+    public final long doLongSArray(final SArray receiver, final long idx) {
+      return receiver.getLongStorage()[(int) idx - 1];
+    }
+
+    @Specialization(guards = "isDoubleType")
+    public final double doDoubleSArray(final SArray receiver, final long idx) {
+      return receiver.getDoubleStorage()[(int) idx - 1];
+    }
+
+    @Specialization(guards = "isBooleanType")
+    public final boolean doBooleanSArray(final SArray receiver, final long idx) {
+      return receiver.getBooleanStorage()[(int) idx - 1];
     }
   }
 
+  @EagerPrimitive(selector = "at:put:", receiverType = SArray.class)
   public abstract static class AtPutPrim extends TernaryExpressionNode {
-    @Specialization
-    public final Object doSArray(final Object[] receiver, final long index, final Object value) {
-      receiver[(int) index - 1] = value;
+    protected static final boolean isEmptyType(final SArray receiver) {
+      return receiver.isEmptyType();
+    }
+
+    protected static final boolean isPartiallyEmptyType(final SArray receiver) {
+      return receiver.isPartiallyEmptyType();
+    }
+
+    protected static final boolean isObjectType(final SArray receiver) {
+      return receiver.isObjectType();
+    }
+
+    protected static final boolean isLongType(final SArray receiver) {
+      return receiver.isLongType();
+    }
+
+    protected static final boolean isDoubleType(final SArray receiver) {
+      return receiver.isDoubleType();
+    }
+
+    protected static final boolean isBooleanType(final SArray receiver) {
+      return receiver.isBooleanType();
+    }
+
+    @Specialization(guards = "isEmptyType")
+    public final Object doEmptySArray(final SArray receiver, final long index,
+        final Object value) {
+      checkEmptyArrayIndex(receiver, index);
+      if (value != Nil.nilObject) {
+        receiver.transitionFromEmptyToPartiallyEmptyWith(index - 1, value);
+      }
+      return value;
+    }
+
+    @Specialization(guards = "isPartiallyEmptyType")
+    public final Object doPartiallyEmptySArray(final SArray receiver,
+        final long index, final Object value) {
+      PartiallyEmptyArray storage = receiver.getPartiallyEmptyStorage();
+      storage.set(index - 1, value);
+      if (storage.isFull()) {
+        receiver.transitionFromPartiallyEmpty();
+      }
+      return value;
+    }
+
+    @Specialization(guards = "isObjectType")
+    public final Object doObjectSArray(final SArray receiver, final long index,
+        final Object value) {
+      receiver.getObjectStorage()[(int) index - 1] = value;
+      return value;
+    }
+
+    @Specialization(guards = "isLongType")
+    public final long doLongSArray(final SArray receiver, final long index,
+        final long value) {
+      receiver.getLongStorage()[(int) index - 1] = value;
+      return value;
+    }
+
+    @Specialization(guards = "isLongType")
+    public final Object doLongSArray(final SArray receiver, final long index,
+        final Object value) {
+      receiver.transitionToObjectWithValue(index - 1, value);
+      return value;
+    }
+
+    @Specialization(guards = "isDoubleType")
+    public final double doDoubleSArray(final SArray receiver, final long index,
+        final double value) {
+      receiver.getDoubleStorage()[(int) index - 1] = value;
+      return value;
+    }
+
+    @Specialization(guards = "isDoubleType")
+    public final Object doDoubleSArray(final SArray receiver, final long index,
+        final Object value) {
+      receiver.transitionToObjectWithValue(index - 1, value);
+      return value;
+    }
+
+    @Specialization(guards = "isBooleanType")
+    public final boolean doBooleanSArray(final SArray receiver, final long index,
+        final boolean value) {
+      receiver.getBooleanStorage()[(int) index - 1] = value;
+      return value;
+    }
+
+    @Specialization(guards = "isBooleanType")
+    public final Object doBooleanSArray(final SArray receiver, final long index,
+        final Object value) {
+      receiver.transitionToObjectWithValue(index - 1, value);
       return value;
     }
   }
@@ -34,10 +189,8 @@ public final class ArrayPrims {
     }
 
     @Specialization(guards = "receiverIsArrayClass")
-    public final Object[] doSClass(final SClass receiver, final long length) {
-      Object[] result = new Object[(int) length];
-      Arrays.fill(result, Nil.nilObject);
-      return result;
+    public final SArray doSClass(final SClass receiver, final long length) {
+      return SArray.create(length);
     }
   }
 }
@@ -9,6 +9,7 @@ import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.dsl.Specialization;
 
 
+@EagerPrimitive(selector = "asString", receiverType = {Long.class, Double.class, BigInteger.class, SSymbol.class})
 public abstract class AsStringPrim extends UnarySideEffectFreeExpressionNode {
 
   @Specialization
@@ -34,6 +34,7 @@ public abstract class BlockPrims {
     }
   }
 
+  @EagerPrimitive(selector = "value", receiverType = SBlock.class)
   public abstract static class ValueNonePrim extends UnaryExpressionNode
       implements ValuePrimitiveNode {
     @Child private AbstractDispatchNode dispatchNode;
@@ -45,7 +46,7 @@ public abstract class BlockPrims {
 
     @Specialization
     public final Object doSBlock(final VirtualFrame frame, final SBlock receiver) {
-      return dispatchNode.executeDispatch(frame, new Object[] {receiver});
+      return dispatchNode.executeDispatchUnary(frame, receiver);
     }
 
     @Override
@@ -68,6 +69,7 @@ public abstract class BlockPrims {
     }
   }
 
+  @EagerPrimitive(selector = "value:", receiverType = SBlock.class)
   public abstract static class ValueOnePrim extends BinaryExpressionNode
       implements ValuePrimitiveNode  {
     @Child private AbstractDispatchNode dispatchNode;
@@ -80,7 +82,7 @@ public abstract class BlockPrims {
     @Specialization
     public final Object doSBlock(final VirtualFrame frame, final SBlock receiver,
         final Object arg) {
-      return dispatchNode.executeDispatch(frame, new Object[] {receiver, arg});
+      return dispatchNode.executeDispatchBinary(frame, receiver, arg);
     }
 
     @Override
@@ -115,7 +117,8 @@ public abstract class BlockPrims {
     @Specialization
     public final Object doSBlock(final VirtualFrame frame,
         final SBlock receiver, final Object arg1, final Object arg2) {
-      return dispatchNode.executeDispatch(frame, new Object[] {receiver, arg1, arg2});
+      return dispatchNode.executeDispatchTernary(frame, receiver, arg1,
+          arg2);
     }
 
     @Override
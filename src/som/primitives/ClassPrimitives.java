@@ -27,6 +27,7 @@ package som.primitives;
 
 import som.primitives.ClassPrimsFactory.InstanceFieldsPrimFactory;
 import som.primitives.ClassPrimsFactory.InstanceInvokablesPrimFactory;
+import som.primitives.ClassPrimsFactory.InstanceLayoutStatisticsPrimFactory;
 import som.primitives.ClassPrimsFactory.NamePrimFactory;
 import som.primitives.ClassPrimsFactory.SuperClassPrimFactory;
 
@@ -38,5 +39,6 @@ public final class ClassPrimitives extends Primitives {
     installInstancePrimitive("superclass", SuperClassPrimFactory.getInstance());
     installInstancePrimitive("methods",    InstanceInvokablesPrimFactory.getInstance());
     installInstancePrimitive("fields",     InstanceFieldsPrimFactory.getInstance());
+    installExtensionPrimitive("instanceLayoutStatistics", InstanceLayoutStatisticsPrimFactory.getInstance());
   }
 }
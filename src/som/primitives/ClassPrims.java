@@ -1,14 +1,27 @@
 package som.primitives;
 
+import java.util.Arrays;
+
 import som.interpreter.nodes.nary.UnaryExpressionNode.UnarySideEffectFreeExpressionNode;
 import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
 import som.vmobjects.SClass;
 
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.dsl.Specialization;
 
 
 public class ClassPrims {
 
+  /**
+   * The arrays of the class must not be changed through the SOM array. The
+   * copy is an Object[], so that it can store values of any type.
+   */
+  @SlowPath
+  private static Object[] copyOf(final Object[] classArray) {
+    return Arrays.copyOf(classArray, classArray.length, Object[].class);
+  }
+
   public abstract static class NamePrim extends UnarySideEffectFreeExpressionNode {
     @Specialization
     public final SAbstractObject doSClass(final SClass receiver) {
@@ -25,15 +38,37 @@ public class ClassPrims {
 
   public abstract static class InstanceInvokablesPrim extends UnarySideEffectFreeExpressionNode {
     @Specialization
-    public final Object[] doSClass(final SClass receiver) {
-      return receiver.getInstanceInvokables();
+    public final SArray doSClass(final SClass receiver) {
+      return SArray.create(copyOf(receiver.getInstanceInvokables()));
     }
   }
 
   public abstract static class InstanceFieldsPrim extends UnarySideEffectFreeExpressionNode {
     @Specialization
-    public final Object[] doSClass(final SClass receiver) {
-      return receiver.getInstanceFields();
+    public final SArray doSClass(final SClass receiver) {
+      return SArray.create(copyOf(receiver.getInstanceFields()));
+    }
+  }
+
+  public abstract static class InstanceLayoutStatisticsPrim extends UnarySideEffectFreeExpressionNode {
+    @Specialization
+    public final SArray doSClass(final SClass receiver) {
+      return getStatistics(receiver);
+    }
+
+    /**
+     * @return an array with the number of layouts created for the instances
+     *         of the class, the number of them that are still reachable, the
+     *         number of layouts that became obsolete, and the number of
+     *         obsolete layouts that are still reachable
+     */
+    @SlowPath
+    private static SArray getStatistics(final SClass clazz) {
+      return SArray.create(new Object[] {
+          (long) clazz.getNumberOfInstanceLayoutsCreated(),
+          (long) clazz.getNumberOfLiveInstanceLayouts(),
+          (long) clazz.getNumberOfObsoleteInstanceLayouts(),
+          (long) clazz.getNumberOfLiveObsoleteInstanceLayouts()});
     }
   }
 }
@@ -7,6 +7,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 
 public abstract class DoublePrims  {
 
+  @EagerPrimitive(selector = "round", receiverType = Double.class)
   public abstract static class RoundPrim extends UnarySideEffectFreeExpressionNode {
     @Specialization
     public final long doDouble(final double receiver) {
@@ -0,0 +1,26 @@
+package som.primitives;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Marks a primitive node that is used directly at send sites of the
+ * selector, instead of a message send, see EagerPrimitives.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EagerPrimitive {
+
+  /** The selector of the sends that are replaced by the primitive. */
+  String selector();
+
+  /**
+   * The primitive is only used for receivers of these types. An empty list
+   * means that the primitive's specializations decide, and unsupported
+   * receivers cause a fallback to a normal send.
+   */
+  Class<?>[] receiverType() default {};
+}
@@ -0,0 +1,288 @@
+package som.primitives;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import som.interpreter.nodes.ExpressionNode;
+import som.interpreter.nodes.nary.BinaryExpressionNode;
+import som.interpreter.nodes.nary.EagerBinaryPrimitiveNode;
+import som.interpreter.nodes.nary.EagerTernaryPrimitiveNode;
+import som.interpreter.nodes.nary.EagerUnaryPrimitiveNode;
+import som.interpreter.nodes.nary.TernaryExpressionNode;
+import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.primitives.arithmetic.GreaterThanPrimFactory;
+import som.primitives.arithmetic.LessThanOrEqualPrimFactory;
+import som.vmobjects.SArray;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.source.SourceSection;
+
+
+/**
+ * Registry of the primitives that replace message sends directly at the
+ * send site. The selector and the receiver types are taken from the
+ * EagerPrimitive annotation of the node classes. Primitives are registered
+ * when they are installed, see Primitives.constructPrimitive(...).
+ *
+ * A site at which an eager primitive fell back to a normal send is not
+ * specialized eagerly again, for instance, when the method gets split. The
+ * sites are only recorded for System>>#eagerPrimitiveFallbacks with
+ * -Dsom.eagerPrimitiveStatistics=true.
+ */
+public final class EagerPrimitives {
+
+  private static final class Entry {
+    private final NodeFactory<? extends ExpressionNode> factory;
+    private final ReceiverTypes receiverTypes;
+
+    Entry(final NodeFactory<? extends ExpressionNode> factory,
+        final ReceiverTypes receiverTypes) {
+      this.factory       = factory;
+      this.receiverTypes = receiverTypes;
+    }
+  }
+
+  /**
+   * Receiver guard of the eager primitive nodes. The types are kept in final
+   * fields instead of an array, so that they are constants in compiled code,
+   * and the guard folds to type checks.
+   */
+  public static final class ReceiverTypes {
+    public static final ReceiverTypes ANY = new ReceiverTypes(new Class<?>[0]);
+
+    private static final int MAX_TYPES = 4;
+
+    private final int      numberOfTypes;
+    private final Class<?> type1;
+    private final Class<?> type2;
+    private final Class<?> type3;
+    private final Class<?> type4;
+
+    ReceiverTypes(final Class<?>[] types) {
+      if (types.length > MAX_TYPES) {
+        throw new RuntimeException("Eager primitives support at most "
+            + MAX_TYPES + " receiver types.");
+      }
+      numberOfTypes = types.length;
+      type1 = types.length > 0 ? types[0] : null;
+      type2 = types.length > 1 ? types[1] : null;
+      type3 = types.length > 2 ? types[2] : null;
+      type4 = types.length > 3 ? types[3] : null;
+    }
+
+    public boolean accepts(final Object receiver) {
+      return numberOfTypes == 0
+          || type1.isInstance(receiver)
+          || (numberOfTypes > 1 && type2.isInstance(receiver))
+          || (numberOfTypes > 2 && type3.isInstance(receiver))
+          || (numberOfTypes > 3 && type4.isInstance(receiver));
+    }
+  }
+
+  /**
+   * Created by the uninitialized send node of a site. The copies of the site,
+   * which are created when a method is split, share it. Thus, once an eager
+   * primitive fell back to a send, the copies are not specialized eagerly.
+   */
+  public static final class FallbackSite {
+    private boolean fellBack;
+
+    public boolean hasFallenBack() {
+      return fellBack;
+    }
+  }
+
+  private static final class SiteStatistics {
+    private final SSymbol       selector;
+    private final SourceSection source;
+    private long unsupportedReceiver;
+    private long unsupportedSpecialization;
+
+    SiteStatistics(final SSymbol selector, final SourceSection source) {
+      this.selector = selector;
+      this.source   = source;
+    }
+
+    long getNumberOfFallbacks() {
+      return unsupportedReceiver + unsupportedSpecialization;
+    }
+  }
+
+  private static final boolean RECORD_STATISTICS =
+      Boolean.getBoolean("som.eagerPrimitiveStatistics");
+
+  private static final HashMap<String, List<Entry>> entries = new HashMap<>();
+  private static final HashMap<SourceSection, SiteStatistics> fallbackSites = new HashMap<>();
+  private static long numberOfFallbacks;
+
+  static {
+    // these primitives are not installed in any class
+    register(GreaterThanPrimFactory.getInstance());
+    register(LessThanOrEqualPrimFactory.getInstance());
+  }
+
+  private EagerPrimitives() { }
+
+  private static void register(
+      final NodeFactory<? extends ExpressionNode> factory) {
+    if (!registerIfEager(factory)) {
+      throw new RuntimeException("The node class "
+          + factory.getNodeClass().getSimpleName()
+          + " is not annotated with @EagerPrimitive");
+    }
+  }
+
+  /**
+   * Registers the primitive, if its node class is annotated with
+   * EagerPrimitive.
+   *
+   * @return false, if the node class is not annotated
+   */
+  public static synchronized boolean registerIfEager(
+      final NodeFactory<? extends ExpressionNode> factory) {
+    EagerPrimitive annotation = factory.getNodeClass().getAnnotation(
+        EagerPrimitive.class);
+    if (annotation == null) {
+      return false;
+    }
+
+    List<Entry> forSelector = entries.get(annotation.selector());
+    if (forSelector == null) {
+      forSelector = new ArrayList<>();
+      entries.put(annotation.selector(), forSelector);
+    }
+    for (Entry entry : forSelector) {
+      if (entry.factory == factory) {
+        return true;
+      }
+    }
+    forSelector.add(new Entry(factory,
+        new ReceiverTypes(annotation.receiverType())));
+    return true;
+  }
+
+  /**
+   * @return an eager primitive node for the send, or null if there is no
+   *         primitive for the selector and the current receiver
+   */
+  public static ExpressionNode create(final SSymbol selector,
+      final ExpressionNode[] argumentNodes, final Object[] arguments,
+      final FallbackSite site, final SourceSection source) {
+    CompilerAsserts.neverPartOfCompilation("EagerPrimitives.create(...)");
+    List<Entry> forSelector = getEntries(selector);
+    if (forSelector == null || site.hasFallenBack()) {
+      return null;
+    }
+
+    for (Entry entry : forSelector) {
+      if (entry.receiverTypes.accepts(arguments[0])) {
+        return createEagerNode(selector, argumentNodes, entry, site, source);
+      }
+    }
+    return null;
+  }
+
+  private static ExpressionNode createEagerNode(final SSymbol selector,
+      final ExpressionNode[] argumentNodes, final Entry entry,
+      final FallbackSite site, final SourceSection source) {
+    // the primitive's own child nodes are not used, the eager node evaluates
+    // the arguments
+    ExpressionNode primitive = entry.factory.createNode(
+        new Object[argumentNodes.length]);
+
+    switch (argumentNodes.length) {
+      case 1:
+        return new EagerUnaryPrimitiveNode(selector, argumentNodes[0],
+            (UnaryExpressionNode) primitive, entry.receiverTypes, site,
+            source);
+      case 2:
+        return new EagerBinaryPrimitiveNode(selector, argumentNodes[0],
+            argumentNodes[1], (BinaryExpressionNode) primitive,
+            entry.receiverTypes, site, source);
+      case 3:
+        return new EagerTernaryPrimitiveNode(selector, argumentNodes[0],
+            argumentNodes[1], argumentNodes[2],
+            (TernaryExpressionNode) primitive, entry.receiverTypes, site,
+            source);
+      default:
+        throw new RuntimeException("Eager primitives with "
+            + argumentNodes.length + " arguments are not supported.");
+    }
+  }
+
+  private static synchronized List<Entry> getEntries(final SSymbol selector) {
+    return entries.get(selector.getString());
+  }
+
+  /**
+   * Records that the eager primitive at the site did not match its
+   * receiver, and was replaced by a normal send.
+   *
+   * @param site the site of the send, null for eager primitives that are
+   *             not created from the registry
+   * @param unsupportedReceiver true, if the receiver type guard failed,
+   *                            false, if the primitive had no matching
+   *                            specialization
+   */
+  public static synchronized void reportFallback(final SSymbol selector,
+      final SourceSection source, final FallbackSite site,
+      final boolean unsupportedReceiver) {
+    CompilerAsserts.neverPartOfCompilation("EagerPrimitives.reportFallback(...)");
+    numberOfFallbacks++;
+    if (site != null) {
+      site.fellBack = true;
+    }
+    if (!RECORD_STATISTICS || source == null) {
+      return;
+    }
+
+    SiteStatistics statistics = fallbackSites.get(source);
+    if (statistics == null) {
+      statistics = new SiteStatistics(selector, source);
+      fallbackSites.put(source, statistics);
+    }
+    if (unsupportedReceiver) {
+      statistics.unsupportedReceiver++;
+    } else {
+      statistics.unsupportedSpecialization++;
+    }
+  }
+
+  public static synchronized long getNumberOfFallbacks() {
+    return numberOfFallbacks;
+  }
+
+  /**
+   * @return an array with an entry for each site at which an eager primitive
+   *         fell back to a send. Each entry is an array with the selector,
+   *         the source location, and the number of fallbacks because of an
+   *         unsupported receiver, and because of a missing specialization.
+   *         Sites with more than one fallback got specialized repeatedly.
+   *         The array is empty, unless -Dsom.eagerPrimitiveStatistics=true
+   *         is given.
+   */
+  public static synchronized SArray getFallbackStatistics() {
+    CompilerAsserts.neverPartOfCompilation("EagerPrimitives.getFallbackStatistics()");
+    ArrayList<SiteStatistics> sites = new ArrayList<>(fallbackSites.values());
+    Collections.sort(sites, new Comparator<SiteStatistics>() {
+      @Override
+      public int compare(final SiteStatistics a, final SiteStatistics b) {
+        return Long.compare(b.getNumberOfFallbacks(), a.getNumberOfFallbacks());
+      }
+    });
+
+    Object[] result = new Object[sites.size()];
+    for (int i = 0; i < result.length; i++) {
+      SiteStatistics site = sites.get(i);
+      result[i] = SArray.create(new Object[] {site.selector,
+          site.source.getShortDescription(), site.unsupportedReceiver,
+          site.unsupportedSpecialization});
+    }
+    return SArray.create(result);
+  }
+}
@@ -3,6 +3,7 @@ package som.primitives;
 import java.math.BigInteger;
 
 import som.interpreter.nodes.nary.BinaryExpressionNode.BinarySideEffectFreeExpressionNode;
+import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SObject;
@@ -10,6 +11,7 @@ import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.dsl.Specialization;
 
+@EagerPrimitive(selector = "==")
 public abstract class EqualsEqualsPrim extends BinarySideEffectFreeExpressionNode {
 
   @Specialization(order = 1)
@@ -43,7 +45,7 @@ public abstract class EqualsEqualsPrim extends BinarySideEffectFreeExpressionNod
   }
 
   @Specialization(order = 46)
-  public final boolean doArray(final Object[] left, final Object right) {
+  public final boolean doArray(final SArray left, final Object right) {
     return left == right;
   }
 
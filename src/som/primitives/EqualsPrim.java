@@ -8,6 +8,7 @@ import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.dsl.Specialization;
 
+@EagerPrimitive(selector = "=")
 public abstract class EqualsPrim extends BinarySideEffectFreeExpressionNode {
   @Specialization(order = 1)
   public final boolean doBoolean(final boolean left, final boolean right) {
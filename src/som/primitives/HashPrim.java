@@ -5,6 +5,7 @@ import som.vmobjects.SAbstractObject;
 
 import com.oracle.truffle.api.dsl.Specialization;
 
+@EagerPrimitive(selector = "hashcode", receiverType = String.class)
 public abstract class HashPrim extends UnarySideEffectFreeExpressionNode {
   @Specialization
   public final long doSString(final String receiver) {
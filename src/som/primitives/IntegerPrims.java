@@ -30,6 +30,7 @@ public abstract class IntegerPrims {
     }
   }
 
+  @EagerPrimitive(selector = "<<", receiverType = Long.class)
   public abstract static class LeftShiftPrim extends ArithmeticPrim {
     private final BranchProfile overflow = new BranchProfile();
 
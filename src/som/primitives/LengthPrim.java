@@ -1,13 +1,64 @@
 package som.primitives;
 
 import som.interpreter.nodes.nary.UnaryExpressionNode.UnarySideEffectFreeExpressionNode;
+import som.vmobjects.SArray;
 
 import com.oracle.truffle.api.dsl.Specialization;
 
+@EagerPrimitive(selector = "length", receiverType = {SArray.class, String.class})
 public abstract class LengthPrim extends UnarySideEffectFreeExpressionNode {
-  @Specialization
-  public final long doSArray(final Object[] receiver) {
-    return receiver.length;
+  protected static final boolean isEmptyType(final SArray receiver) {
+    return receiver.isEmptyType();
+  }
+
+  protected static final boolean isPartiallyEmptyType(final SArray receiver) {
+    return receiver.isPartiallyEmptyType();
+  }
+
+  protected static final boolean isObjectType(final SArray receiver) {
+    return receiver.isObjectType();
+  }
+
+  protected static final boolean isLongType(final SArray receiver) {
+    return receiver.isLongType();
+  }
+
+  protected static final boolean isDoubleType(final SArray receiver) {
+    return receiver.isDoubleType();
+  }
+
+  protected static final boolean isBooleanType(final SArray receiver) {
+    return receiver.isBooleanType();
+  }
+
+  @Specialization(guards = "isEmptyType")
+  public final long doEmptySArray(final SArray receiver) {
+    return receiver.getEmptyStorage();
+  }
+
+  @Specialization(guards = "isPartiallyEmptyType")
+  public final long doPartiallyEmptySArray(final SArray receiver) {
+    return receiver.getPartiallyEmptyStorage().getLength();
+  }
+
+  @Specialization(guards = "isObjectType")
+  public final long doObjectSArray(final SArray receiver) {
+    return receiver.getObjectStorage().length;
+  }
+
+  @Specialization(guards = "isLongType")
+  public final long doLongSArray(final SArray receiver) {
+    return receiver.getLongStorage().length;
+  }
+
+  @Specialization(guards = "isDoubleType")
+  public final long doDoubleSArray(final SArray receiver) {
+    return receiver.getDoubleStorage().length;
+  }
+
+  @Specialization(guards = "isBooleanType")
+  public final long doBooleanSArray(final SArray receiver) {
+    return receiver.getBooleanStorage().length;
   }
 
   @Specialization
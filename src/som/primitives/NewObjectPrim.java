@@ -1,16 +1,55 @@
 package som.primitives;
 
+import som.interpreter.TruffleCompiler;
 import som.interpreter.nodes.nary.UnaryExpressionNode.UnarySideEffectFreeExpressionNode;
+import som.interpreter.objectstorage.ObjectLayout;
 import som.vm.Universe;
 import som.vmobjects.SAbstractObject;
 import som.vmobjects.SClass;
+import som.vmobjects.SObject;
 
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.Specialization;
 
 
+/**
+ * The allocation site remembers the class and the layout of the objects it
+ * allocates. As long as the class does not change its layout, new objects
+ * are created directly with the cached layout, which makes the layout and
+ * the sizes of the extension arrays compilation constants.
+ */
 public abstract class NewObjectPrim extends UnarySideEffectFreeExpressionNode {
+  private static final int MAX_LAYOUT_CHANGES = 10;
+
+  @CompilationFinal private SClass       allocationClass;
+  @CompilationFinal private ObjectLayout allocationLayout;
+  @CompilationFinal private boolean      megamorphic;
+
+  private int layoutChanges;
+
   @Specialization
   public final SAbstractObject doSClass(final SClass receiver) {
+    if (!megamorphic) {
+      // the layout is only obsolete when the class changed its layout
+      if (receiver == allocationClass && !allocationLayout.isObsolete()) {
+        return SObject.create(receiver, allocationLayout);
+      }
+      updateAllocationSite(receiver);
+    }
     return Universe.newInstance(receiver);
   }
+
+  private void updateAllocationSite(final SClass receiver) {
+    TruffleCompiler.transferToInterpreterAndInvalidate("update allocation site");
+    if (allocationClass == null || allocationClass == receiver) {
+      layoutChanges++;
+      if (layoutChanges > MAX_LAYOUT_CHANGES) {
+        megamorphic = true;
+      }
+      allocationClass  = receiver;
+      allocationLayout = receiver.getLayoutForInstances();
+    } else {
+      megamorphic = true;
+    }
+  }
 }
@@ -51,5 +51,7 @@ public final class ObjectPrimitives extends Primitives {
     installInstancePrimitive("instVarNamed:",          InstVarNamedPrimFactory.getInstance());
     installInstancePrimitive("halt",                   HaltPrimFactory.getInstance());
     installInstancePrimitive("class",                  ClassPrimFactory.getInstance());
+
+    installExtensionPrimitive("objectRetainedSize",     ObjectRetainedSizePrimFactory.getInstance());
   }
 }
@@ -0,0 +1,23 @@
+package som.primitives;
+
+import som.interpreter.nodes.nary.UnaryExpressionNode.UnarySideEffectFreeExpressionNode;
+import som.vm.ObjectMemory;
+
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * Returns the estimated size of the receiver and all objects it keeps alive
+ * in bytes. Shared objects, such as classes and symbols, are not counted.
+ */
+public abstract class ObjectRetainedSizePrim extends UnarySideEffectFreeExpressionNode {
+  @Specialization
+  public final long doObject(final Object receiver) {
+    return getRetainedSize(receiver);
+  }
+
+  @SlowPath
+  private static long getRetainedSize(final Object receiver) {
+    return ObjectMemory.getRetainedSize(receiver);
+  }
+}
@@ -1,27 +1,23 @@
 package som.primitives;
 
 import som.interpreter.nodes.nary.UnaryExpressionNode.UnarySideEffectFreeExpressionNode;
-import som.vmobjects.SObject;
+import som.vm.ObjectMemory;
 
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.dsl.Specialization;
 
+/**
+ * Returns the estimated size of the receiver in bytes, without the objects
+ * it refers to.
+ */
 public abstract class ObjectSizePrim extends UnarySideEffectFreeExpressionNode {
   @Specialization
-  public final long doArray(final Object[] receiver) {
-    int size = 0;
-    size += receiver.length;
-    return size;
+  public final long doObject(final Object receiver) {
+    return getShallowSize(receiver);
   }
 
-  @Specialization
-  public final long doSObject(final SObject receiver) {
-    int size = 0;
-    size += receiver.getNumberOfFields();
-    return size;
-  }
-
-  @Specialization
-  public final long doSAbstractObject(final Object receiver) {
-    return 0; // TODO: allow polymorphism?
+  @SlowPath
+  private static long getShallowSize(final Object receiver) {
+    return ObjectMemory.getShallowSize(receiver);
   }
 }
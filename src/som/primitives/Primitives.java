@@ -60,6 +60,7 @@ public abstract class Primitives {
   public static SInvokable constructPrimitive(final SSymbol signature,
       final NodeFactory<? extends ExpressionNode> nodeFactory,
       final Universe universe, final SClass holder) {
+    EagerPrimitives.registerIfEager(nodeFactory);
     int numArgs = signature.getNumberOfSignatureArguments();
 
     MethodGenerationContext mgen = new MethodGenerationContext();
@@ -111,6 +112,17 @@ public abstract class Primitives {
     holder.addInstancePrimitive(prim);
   }
 
+  /**
+   * Installs a primitive that is specific to this VM, and thus, is not
+   * declared in the class definition of the holder class.
+   */
+  protected final void installExtensionPrimitive(final String selector,
+      final NodeFactory<? extends ExpressionNode> nodeFactory) {
+    SSymbol signature = universe.symbolFor(selector);
+    SInvokable prim = constructPrimitive(signature, nodeFactory, universe, holder);
+    holder.addExtensionPrimitive(prim);
+  }
+
   protected final void installClassPrimitive(final String selector,
       final NodeFactory<? extends ExpressionNode> nodeFactory) {
     SSymbol signature = universe.symbolFor(selector);
@@ -11,6 +11,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 
 public class StringPrims {
 
+  @EagerPrimitive(selector = "concatenate:", receiverType = String.class)
   public abstract static class ConcatPrim extends BinarySideEffectFreeExpressionNode {
     @Specialization
     public final String doSString(final String receiver, final String argument) {
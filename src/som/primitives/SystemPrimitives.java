@@ -25,13 +25,19 @@
 
 package som.primitives;
 
+import som.primitives.SystemPrimsFactory.EagerPrimitiveFallbacksPrimFactory;
 import som.primitives.SystemPrimsFactory.ExitPrimFactory;
 import som.primitives.SystemPrimsFactory.FullGCPrimFactory;
 import som.primitives.SystemPrimsFactory.GlobalPrimFactory;
 import som.primitives.SystemPrimsFactory.GlobalPutPrimFactory;
+import som.primitives.SystemPrimsFactory.HeapHistogramPrimFactory;
 import som.primitives.SystemPrimsFactory.LoadPrimFactory;
+import som.primitives.SystemPrimsFactory.MegamorphicSitesPrimFactory;
+import som.primitives.SystemPrimsFactory.MigrateObsoleteInstancesPrimFactory;
+import som.primitives.SystemPrimsFactory.NonLocalReturnStatisticsPrimFactory;
 import som.primitives.SystemPrimsFactory.PrintNewlinePrimFactory;
 import som.primitives.SystemPrimsFactory.PrintStringPrimFactory;
+import som.primitives.SystemPrimsFactory.SplitStatisticsPrimFactory;
 import som.primitives.SystemPrimsFactory.TicksPrimFactory;
 import som.primitives.SystemPrimsFactory.TimePrimFactory;
 
@@ -47,5 +53,12 @@ public final class SystemPrimitives extends Primitives {
     installInstancePrimitive("time",         TimePrimFactory.getInstance());
     installInstancePrimitive("ticks",        TicksPrimFactory.getInstance());
     installInstancePrimitive("fullGC",       FullGCPrimFactory.getInstance());
+
+    installExtensionPrimitive("eagerPrimitiveFallbacks", EagerPrimitiveFallbacksPrimFactory.getInstance());
+    installExtensionPrimitive("splitStatistics", SplitStatisticsPrimFactory.getInstance());
+    installExtensionPrimitive("nonLocalReturnStatistics", NonLocalReturnStatisticsPrimFactory.getInstance());
+    installExtensionPrimitive("heapHistogram", HeapHistogramPrimFactory.getInstance());
+    installExtensionPrimitive("migrateObsoleteInstances", MigrateObsoleteInstancesPrimFactory.getInstance());
+    installExtensionPrimitive("megamorphicSites", MegamorphicSitesPrimFactory.getInstance());
   }
 }
@@ -1,16 +1,22 @@
 package som.primitives;
 
+import som.interpreter.ReturnException;
+import som.interpreter.SplittingPolicy;
+import som.interpreter.nodes.dispatch.DispatchChainProfile;
 import som.interpreter.nodes.nary.BinaryExpressionNode;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
 import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.vm.ObjectMemory;
 import som.vm.Universe;
 import som.vm.constants.Globals;
 import som.vm.constants.Nil;
 import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
 import som.vmobjects.SClass;
 import som.vmobjects.SObject;
 import som.vmobjects.SSymbol;
 
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
@@ -99,6 +105,78 @@ public final class SystemPrims {
     }
   }
 
+  public abstract static class HeapHistogramPrim extends UnarySystemNode {
+    @Specialization(guards = "receiverIsSystemObject")
+    public final SArray doSObject(final SObject receiver) {
+      return getHistogram();
+    }
+
+    @SlowPath
+    private static SArray getHistogram() {
+      return ObjectMemory.getHeapHistogram(Universe.current());
+    }
+  }
+
+  public abstract static class EagerPrimitiveFallbacksPrim extends UnarySystemNode {
+    @Specialization(guards = "receiverIsSystemObject")
+    public final SArray doSObject(final SObject receiver) {
+      return getFallbacks();
+    }
+
+    @SlowPath
+    private static SArray getFallbacks() {
+      return EagerPrimitives.getFallbackStatistics();
+    }
+  }
+
+  public abstract static class SplitStatisticsPrim extends UnarySystemNode {
+    @Specialization(guards = "receiverIsSystemObject")
+    public final SArray doSObject(final SObject receiver) {
+      return getStatistics();
+    }
+
+    @SlowPath
+    private static SArray getStatistics() {
+      return SplittingPolicy.getSplitStatistics();
+    }
+  }
+
+  public abstract static class NonLocalReturnStatisticsPrim extends UnarySystemNode {
+    @Specialization(guards = "receiverIsSystemObject")
+    public final SArray doSObject(final SObject receiver) {
+      return getStatistics();
+    }
+
+    @SlowPath
+    private static SArray getStatistics() {
+      return ReturnException.getUnwindingStatistics();
+    }
+  }
+
+  public abstract static class MegamorphicSitesPrim extends UnarySystemNode {
+    @Specialization(guards = "receiverIsSystemObject")
+    public final long doSObject(final SObject receiver) {
+      return getNumberOfSites();
+    }
+
+    @SlowPath
+    private static long getNumberOfSites() {
+      return DispatchChainProfile.getNumberOfMegamorphicSites();
+    }
+  }
+
+  public abstract static class MigrateObsoleteInstancesPrim extends UnarySystemNode {
+    @Specialization(guards = "receiverIsSystemObject")
+    public final long doSObject(final SObject receiver) {
+      return migrateInstances();
+    }
+
+    @SlowPath
+    private static long migrateInstances() {
+      return ObjectMemory.migrateObsoleteInstances(Universe.current());
+    }
+  }
+
   public abstract static class TimePrim extends UnarySystemNode {
     @Specialization(guards = "receiverIsSystemObject")
     public final long doSObject(final SObject receiver) {
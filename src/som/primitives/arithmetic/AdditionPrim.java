@@ -2,6 +2,7 @@ package som.primitives.arithmetic;
 
 import java.math.BigInteger;
 
+import som.primitives.EagerPrimitive;
 import som.vmobjects.SClass;
 import som.vmobjects.SSymbol;
 
@@ -9,6 +10,7 @@ import com.oracle.truffle.api.ExactMath;
 import com.oracle.truffle.api.dsl.Specialization;
 
 
+@EagerPrimitive(selector = "+")
 public abstract class AdditionPrim extends ArithmeticPrim {
   @Specialization(order = 10, rewriteOn = ArithmeticException.class)
   public final long doLong(final long left, final long argument) {
@@ -1,8 +1,11 @@
 package som.primitives.arithmetic;
 
+import som.primitives.EagerPrimitive;
+
 import com.oracle.truffle.api.dsl.Specialization;
 
 
+@EagerPrimitive(selector = "bitXor:")
 public abstract class BitXorPrim extends ArithmeticPrim {
   @Specialization
   public final long doLong(final long receiver, final long right) {
@@ -2,11 +2,13 @@ package som.primitives.arithmetic;
 
 import java.math.BigInteger;
 
+import som.primitives.EagerPrimitive;
 import som.vm.NotYetImplementedException;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.dsl.Specialization;
 
+@EagerPrimitive(selector = "/")
 public abstract class DividePrim extends ArithmeticPrim {
   @Specialization(order = 1)
   public final long doLong(final long left, final long right) {
@@ -2,12 +2,14 @@ package som.primitives.arithmetic;
 
 import java.math.BigInteger;
 
+import som.primitives.EagerPrimitive;
 import som.vm.NotYetImplementedException;
 import som.vmobjects.SAbstractObject;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.dsl.Specialization;
 
+@EagerPrimitive(selector = "//")
 public abstract class DoubleDivPrim extends ArithmeticPrim {
   @Specialization(order = 1)
   public final double doDouble(final double left, final double right) {
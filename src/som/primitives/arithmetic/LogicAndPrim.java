@@ -2,9 +2,12 @@ package som.primitives.arithmetic;
 
 import java.math.BigInteger;
 
+import som.primitives.EagerPrimitive;
+
 import com.oracle.truffle.api.dsl.Specialization;
 
 
+@EagerPrimitive(selector = "&")
 public abstract class LogicAndPrim extends ArithmeticPrim {
   @Specialization(order = 1)
   public final long doLong(final long left, final long right) {
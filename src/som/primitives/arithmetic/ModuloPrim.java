@@ -2,10 +2,13 @@ package som.primitives.arithmetic;
 
 import java.math.BigInteger;
 
+import som.primitives.EagerPrimitive;
+
 import com.oracle.truffle.api.ExactMath;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.utilities.BranchProfile;
 
+@EagerPrimitive(selector = "%")
 public abstract class ModuloPrim extends ArithmeticPrim {
   private final BranchProfile negativeRightOperand = new BranchProfile();
 
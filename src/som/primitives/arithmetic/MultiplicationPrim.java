@@ -2,10 +2,13 @@ package som.primitives.arithmetic;
 
 import java.math.BigInteger;
 
+import som.primitives.EagerPrimitive;
+
 import com.oracle.truffle.api.ExactMath;
 import com.oracle.truffle.api.dsl.Specialization;
 
 
+@EagerPrimitive(selector = "*")
 public abstract class MultiplicationPrim extends ArithmeticPrim {
   @Specialization(order = 1, rewriteOn = ArithmeticException.class)
   public final long doLong(final long left, final long right) {
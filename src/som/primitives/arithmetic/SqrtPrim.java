@@ -3,11 +3,13 @@ package som.primitives.arithmetic;
 import java.math.BigInteger;
 
 import som.interpreter.nodes.nary.UnaryExpressionNode;
+import som.primitives.EagerPrimitive;
 
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.utilities.BranchProfile;
 
 
+@EagerPrimitive(selector = "sqrt", receiverType = {Long.class, Double.class, BigInteger.class})
 public abstract class SqrtPrim extends UnaryExpressionNode {
 
   public SqrtPrim() { super(null); }
@@ -7,12 +7,16 @@ import som.interpreter.nodes.ExpressionNode;
 import som.interpreter.nodes.MessageSendNode;
 import som.interpreter.nodes.PreevaluatedExpression;
 import som.interpreter.nodes.dispatch.DispatchChain;
+import som.vmobjects.SAbstractObject;
+import som.vmobjects.SArray;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 
@@ -30,8 +34,12 @@ public abstract class AbstractSymbolDispatch extends Node implements DispatchCha
     this.depth = depth;
   }
 
+  /**
+   * @param argsArr the arguments without the receiver, or null if there are
+   *                none
+   */
   public abstract Object executeDispatch(VirtualFrame frame, Object receiver,
-      SSymbol selector, Object[] argsArr);
+      SSymbol selector, SArray argsArr);
 
   private static final class UninitializedDispatchNode extends AbstractSymbolDispatch {
 
@@ -55,7 +63,7 @@ public abstract class AbstractSymbolDispatch extends Node implements DispatchCha
 
     @Override
     public Object executeDispatch(final VirtualFrame frame,
-        final Object receiver, final SSymbol selector, final Object[] argsArr) {
+        final Object receiver, final SSymbol selector, final SArray argsArr) {
       return specialize(selector).
           executeDispatch(frame, receiver, selector, argsArr);
     }
@@ -74,8 +82,13 @@ public abstract class AbstractSymbolDispatch extends Node implements DispatchCha
     }
   }
 
+  /**
+   * Caches the send for one selector. The send itself caches the targets per
+   * receiver class, and calls them directly.
+   */
   private static final class CachedDispatchNode extends AbstractSymbolDispatch {
     private final SSymbol selector;
+    private final int     numberOfArguments;
     @Child private ExpressionNode cachedSend;
     @Child private AbstractSymbolDispatch nextInCache;
 
@@ -84,15 +97,23 @@ public abstract class AbstractSymbolDispatch extends Node implements DispatchCha
         final int depth) {
       super(depth);
       this.selector = selector;
+      this.numberOfArguments = selector.getNumberOfSignatureArguments();
       this.nextInCache = nextInCache;
       cachedSend = MessageSendNode.createForPerformNodes(selector);
     }
 
     @Override
     public Object executeDispatch(final VirtualFrame frame,
-        final Object receiver, final SSymbol selector, final Object[] argsArr) {
+        final Object receiver, final SSymbol selector, final SArray argsArr) {
       if (this.selector == selector) {
-        Object[] arguments = SArguments.createSArgumentsArrayFrom(receiver, argsArr);
+        Object[] arguments;
+        if (numberOfArguments == 1 && argsArr == null) {
+          arguments = new Object[] {receiver};
+        } else if (argsArr != null && argsArr.getLength() == numberOfArguments - 1) {
+          arguments = createArguments(receiver, argsArr);
+        } else {
+          arguments = SArguments.createSArgumentsArrayFrom(receiver, argsArr);
+        }
 
         PreevaluatedExpression realCachedSend = CompilerDirectives.unsafeCast(cachedSend, PreevaluatedExpression.class, true);
         return realCachedSend.doPreEvaluated(frame, arguments);
@@ -101,6 +122,21 @@ public abstract class AbstractSymbolDispatch extends Node implements DispatchCha
       }
     }
 
+    /**
+     * The array has a size that is constant for the compiler, and the
+     * elements are read directly from the SOM array. Thus, the array does
+     * not need to be allocated when the target gets inlined.
+     */
+    @ExplodeLoop
+    private Object[] createArguments(final Object receiver, final SArray argsArr) {
+      Object[] arguments = new Object[numberOfArguments];
+      arguments[0] = receiver;
+      for (int i = 1; i < numberOfArguments; i++) {
+        arguments[i] = argsArr.getValue(i - 1);
+      }
+      return arguments;
+    }
+
     @Override
     public int lengthOfDispatchChain() {
       return 1 + nextInCache.lengthOfDispatchChain();
@@ -118,12 +154,27 @@ public abstract class AbstractSymbolDispatch extends Node implements DispatchCha
 
     @Override
     public Object executeDispatch(final VirtualFrame frame,
-        final Object receiver, final SSymbol selector, final Object[] argsArr) {
-      SInvokable invokable = Types.getClassOf(receiver).lookupInvokable(selector);
-
+        final Object receiver, final SSymbol selector, final SArray argsArr) {
+      SInvokable invokable = lookupMethod(receiver, selector);
       Object[] args = SArguments.createSArgumentsArrayFrom(receiver, argsArr);
 
-      return call.call(frame, invokable.getCallTarget(), args);
+      if (invokable != null) {
+        return call.call(frame, invokable.getCallTarget(), args);
+      } else {
+        return sendDoesNotUnderstand(selector, args);
+      }
+    }
+
+    @SlowPath
+    private static Object sendDoesNotUnderstand(final SSymbol selector,
+        final Object[] args) {
+      return SAbstractObject.sendDoesNotUnderstand(selector, args);
+    }
+
+    @SlowPath
+    private static SInvokable lookupMethod(final Object receiver,
+        final SSymbol selector) {
+      return Types.getClassOf(receiver).lookupInvokable(selector);
     }
 
     @Override
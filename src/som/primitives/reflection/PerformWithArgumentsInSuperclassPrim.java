@@ -1,6 +1,7 @@
 package som.primitives.reflection;
 
 import som.interpreter.nodes.nary.QuaternaryExpressionNode;
+import som.vmobjects.SArray;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
 import som.vmobjects.SSymbol;
@@ -22,10 +23,10 @@ public abstract class PerformWithArgumentsInSuperclassPrim extends QuaternaryExp
   @Specialization
   public final Object doSAbstractObject(final VirtualFrame frame,
       final Object receiver, final SSymbol selector,
-      final Object[] argArr, final SClass clazz) {
+      final SArray argArr, final SClass clazz) {
     CompilerAsserts.neverPartOfCompilation("PerformWithArgumentsInSuperclassPrim.doSAbstractObject()");
     SInvokable invokable = clazz.lookupInvokable(selector);
-    return call.call(frame, invokable.getCallTarget(), mergeReceiverWithArguments(receiver, argArr));
+    return call.call(frame, invokable.getCallTarget(), mergeReceiverWithArguments(receiver, argArr.toObjectArray()));
   }
 
   // TODO: remove duplicated code, also in symbol dispatch, ideally removing by optimizing this implementation...
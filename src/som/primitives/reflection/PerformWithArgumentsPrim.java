@@ -2,6 +2,7 @@ package som.primitives.reflection;
 
 import som.interpreter.nodes.dispatch.DispatchChain.Cost;
 import som.interpreter.nodes.nary.TernaryExpressionNode;
+import som.vmobjects.SArray;
 import som.vmobjects.SSymbol;
 
 import com.oracle.truffle.api.dsl.Specialization;
@@ -18,7 +19,7 @@ public abstract class PerformWithArgumentsPrim extends TernaryExpressionNode {
 
   @Specialization
   public final Object doObject(final VirtualFrame frame,
-      final Object receiver, final SSymbol selector, final Object[]  argsArr) {
+      final Object receiver, final SSymbol selector, final SArray  argsArr) {
     return dispatch.executeDispatch(frame, receiver, selector, argsArr);
   }
 
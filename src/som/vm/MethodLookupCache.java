@@ -0,0 +1,206 @@
+package som.vm;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import som.vmobjects.SClass;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.Truffle;
+
+
+/**
+ * VM-wide cache for method lookups, keyed by selector and receiver class.
+ *
+ * It also caches failed lookups, i.e., messages that are not understood by
+ * the class. Entries are invalidated when a method is added or replaced in a
+ * class, or when the superclass of a class changes. In both cases, only the
+ * entries for the class and its subclasses are removed. To avoid scanning
+ * the whole cache when all entries of a class are removed, the cache keeps
+ * track of the selectors for which a class has entries.
+ *
+ * For lookups that are resolved ahead of time, e.g., super sends, the cache
+ * hands out assumptions that are invalidated together with the entries.
+ */
+public final class MethodLookupCache {
+
+  // marks the result of a lookup that did not find a method
+  private static final Object NOT_UNDERSTOOD = new Object();
+
+  private final ConcurrentHashMap<SSymbol, ConcurrentHashMap<SClass, Object>> cache;
+  private final ConcurrentHashMap<SSymbol, ConcurrentHashMap<SClass, Assumption>> stableLookups;
+  private final ConcurrentHashMap<SClass, Set<SSymbol>> selectorsOfClass;
+
+  // incremented on every invalidation, to detect lookups that raced with it
+  private final AtomicLong version;
+
+  MethodLookupCache() {
+    cache            = new ConcurrentHashMap<>();
+    stableLookups    = new ConcurrentHashMap<>();
+    selectorsOfClass = new ConcurrentHashMap<>();
+    version          = new AtomicLong();
+  }
+
+  public SInvokable lookup(final SClass rcvrClass, final SSymbol selector) {
+    CompilerAsserts.neverPartOfCompilation("MethodLookupCache.lookup(..)");
+    ConcurrentHashMap<SClass, Object> forSelector = getEntries(selector);
+
+    Object cached = forSelector.get(rcvrClass);
+    if (cached != null) {
+      return cached == NOT_UNDERSTOOD ? null : (SInvokable) cached;
+    }
+
+    long versionAtLookup = version.get();
+    SInvokable invokable = rcvrClass.lookupInvokableInHierarchy(selector);
+    Object entry = invokable == null ? NOT_UNDERSTOOD : invokable;
+    forSelector.put(rcvrClass, entry);
+    recordSelector(rcvrClass, selector);
+
+    // the result might be outdated if the hierarchy changed during the lookup
+    if (version.get() != versionAtLookup) {
+      forSelector.remove(rcvrClass, entry);
+    }
+    return invokable;
+  }
+
+  private ConcurrentHashMap<SClass, Object> getEntries(final SSymbol selector) {
+    return getOrCreate(cache, selector);
+  }
+
+  private void recordSelector(final SClass rcvrClass, final SSymbol selector) {
+    Set<SSymbol> selectors = selectorsOfClass.get(rcvrClass);
+    if (selectors == null) {
+      selectors = Collections.newSetFromMap(
+          new ConcurrentHashMap<SSymbol, Boolean>());
+      Set<SSymbol> existing = selectorsOfClass.putIfAbsent(rcvrClass, selectors);
+      if (existing != null) {
+        selectors = existing;
+      }
+    }
+    selectors.add(selector);
+  }
+
+  private static <V> ConcurrentHashMap<SClass, V> getOrCreate(
+      final ConcurrentHashMap<SSymbol, ConcurrentHashMap<SClass, V>> map,
+      final SSymbol selector) {
+    ConcurrentHashMap<SClass, V> forSelector = map.get(selector);
+    if (forSelector == null) {
+      forSelector = new ConcurrentHashMap<>();
+      ConcurrentHashMap<SClass, V> existing = map.putIfAbsent(selector, forSelector);
+      if (existing != null) {
+        forSelector = existing;
+      }
+    }
+    return forSelector;
+  }
+
+  /**
+   * The returned assumption remains valid as long as the lookup of the
+   * selector in the given class yields the same result. It needs to be
+   * acquired before doing the lookup.
+   */
+  public Assumption getStableLookupAssumption(final SClass rcvrClass,
+      final SSymbol selector) {
+    CompilerAsserts.neverPartOfCompilation("MethodLookupCache.getStableLookupAssumption(..)");
+    ConcurrentHashMap<SClass, Assumption> forSelector =
+        getOrCreate(stableLookups, selector);
+
+    Assumption assumption = forSelector.get(rcvrClass);
+    if (assumption == null) {
+      assumption = Truffle.getRuntime().createAssumption(
+          "stable lookup of " + selector.getString());
+      Assumption existing = forSelector.putIfAbsent(rcvrClass, assumption);
+      if (existing != null) {
+        assumption = existing;
+      }
+      recordSelector(rcvrClass, selector);
+    }
+    return assumption;
+  }
+
+  /**
+   * Invalidate the lookup results for the selector in the given class and
+   * all its subclasses.
+   */
+  public void invalidate(final SClass holder, final SSymbol selector) {
+    CompilerAsserts.neverPartOfCompilation("MethodLookupCache.invalidate(..)");
+    version.incrementAndGet();
+
+    ConcurrentHashMap<SClass, Object> forSelector = cache.get(selector);
+    if (forSelector != null) {
+      invalidateSubclassesOf(holder, forSelector);
+    }
+
+    ConcurrentHashMap<SClass, Assumption> assumptions = stableLookups.get(selector);
+    if (assumptions != null) {
+      invalidateSubclassesOf(holder, assumptions);
+    }
+  }
+
+  /**
+   * Invalidate all lookup results for the given class and its subclasses.
+   * Only the entries of these classes are visited, so, classes that are
+   * still being set up, and thus, have no entries, are cheap to invalidate.
+   */
+  public void invalidateAll(final SClass holder) {
+    CompilerAsserts.neverPartOfCompilation("MethodLookupCache.invalidateAll(.)");
+    version.incrementAndGet();
+    invalidateClassAndSubclasses(holder);
+  }
+
+  private void invalidateClassAndSubclasses(final SClass clazz) {
+    Set<SSymbol> selectors = selectorsOfClass.remove(clazz);
+    if (selectors != null) {
+      for (SSymbol selector : selectors) {
+        ConcurrentHashMap<SClass, Object> forSelector = cache.get(selector);
+        if (forSelector != null) {
+          forSelector.remove(clazz);
+        }
+
+        ConcurrentHashMap<SClass, Assumption> assumptions = stableLookups.get(selector);
+        if (assumptions != null) {
+          Assumption assumption = assumptions.remove(clazz);
+          if (assumption != null) {
+            assumption.invalidate();
+          }
+        }
+      }
+    }
+
+    for (SClass subclass : clazz.getSubclasses()) {
+      invalidateClassAndSubclasses(subclass);
+    }
+  }
+
+  private static void invalidateSubclassesOf(final SClass holder,
+      final ConcurrentHashMap<SClass, ?> forSelector) {
+    Iterator<? extends Entry<SClass, ?>> i = forSelector.entrySet().iterator();
+    while (i.hasNext()) {
+      Entry<SClass, ?> entry = i.next();
+      if (isSubclassOrSame(entry.getKey(), holder)) {
+        i.remove();
+        if (entry.getValue() instanceof Assumption) {
+          ((Assumption) entry.getValue()).invalidate();
+        }
+      }
+    }
+  }
+
+  private static boolean isSubclassOrSame(final SClass clazz, final SClass holder) {
+    SClass current = clazz;
+    while (current != holder) {
+      if (!current.hasSuperClass()) {
+        return false;
+      }
+      current = (SClass) current.getSuperClass();
+    }
+    return true;
+  }
+}
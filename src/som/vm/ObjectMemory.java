@@ -0,0 +1,368 @@
+package som.vm;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+import som.interpreter.Types;
+import som.interpreter.objectstorage.ObjectLayout;
+import som.interpreter.objectstorage.StorageLocation.AbstractObjectStorageLocation;
+import som.vm.constants.Nil;
+import som.vmobjects.SArray;
+import som.vmobjects.SBlock;
+import som.vmobjects.SClass;
+import som.vmobjects.SInvokable;
+import som.vmobjects.SObject;
+import som.vmobjects.SSymbol;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+
+
+/**
+ * Estimates the memory use of SOM objects.
+ *
+ * The sizes are based on the field layout of the Java objects that
+ * represent SOM objects, assuming a 64-bit VM without compressed
+ * references. They are estimates, the actual layout chosen by the JVM might
+ * differ slightly.
+ */
+public final class ObjectMemory {
+  private static final int OBJECT_HEADER = 16;
+  private static final int ARRAY_HEADER  = 16;
+  private static final int REFERENCE     = 8;
+  private static final int ALIGNMENT     = 8;
+
+  private ObjectMemory() { }
+
+  /**
+   * @return the number of bytes used by the object itself, including the
+   *         storage that is only referenced by it, such as the extension
+   *         arrays of an SObject or the storage of an SArray
+   */
+  public static long getShallowSize(final Object obj) {
+    CompilerAsserts.neverPartOfCompilation("ObjectMemory.getShallowSize(.)");
+    if (obj instanceof SClass) {
+      return getShallowSize((SClass) obj);
+    } else if (obj instanceof SObject) {
+      return getShallowSize((SObject) obj);
+    } else if (obj instanceof SArray) {
+      return getShallowSize((SArray) obj);
+    } else if (obj instanceof SBlock) {
+      return align(OBJECT_HEADER + 2 * REFERENCE);
+    } else if (obj instanceof String) {
+      return getStringSize((String) obj);
+    } else if (obj instanceof SSymbol) {
+      return align(OBJECT_HEADER + REFERENCE + 4)
+          + getStringSize(((SSymbol) obj).getString());
+    } else if (obj instanceof Long || obj instanceof Double) {
+      return align(OBJECT_HEADER + 8);
+    } else if (obj instanceof Boolean) {
+      return align(OBJECT_HEADER + 1);
+    } else if (obj instanceof BigInteger) {
+      int words = (((BigInteger) obj).bitLength() + 31) / 32;
+      return align(OBJECT_HEADER + 4 * 4 + REFERENCE) + arraySize(words, 4);
+    } else {
+      return align(OBJECT_HEADER + 4 * REFERENCE);
+    }
+  }
+
+  public static long getShallowSize(final SObject obj) {
+    // clazz, objectLayout, the three extension arrays, primitiveUsedMap,
+    // numberOfFields, and the inline fields of the used SObject variant
+    long size = align(OBJECT_HEADER + 5 * REFERENCE + 8 + 4
+        + obj.getNumberOfInlineFields() * (8 + REFERENCE));
+
+    size += arraySize(obj.getExtendedPrimFields().length, 8);
+    size += arraySize(obj.getExtensionObjFields().length, REFERENCE);
+
+    int usedMaps = obj.getObjectLayout().getNumberOfExtendedPrimUsedMaps();
+    if (usedMaps > 0) {
+      size += arraySize(usedMaps, 8);
+    }
+    return size;
+  }
+
+  public static long getShallowSize(final SClass clazz) {
+    // superclass, name, instanceInvokables, instanceFields, layoutForInstances
+    long size = getShallowSize((SObject) clazz) + 5 * REFERENCE;
+    size += arraySize(clazz.getNumberOfInstanceInvokables(), REFERENCE);
+    size += arraySize(clazz.getNumberOfInstanceFields(),     REFERENCE);
+    return size;
+  }
+
+  public static long getShallowSize(final SArray arr) {
+    long size = align(OBJECT_HEADER + 2 * REFERENCE);
+    int length = arr.getLength();
+
+    switch (arr.getType()) {
+      case EMPTY:
+        return size + align(OBJECT_HEADER + 4);
+      case PARTIAL_EMPTY:
+        return size + align(OBJECT_HEADER + 2 * REFERENCE + 4)
+            + arraySize(length, REFERENCE);
+      case LONG:
+      case DOUBLE:
+        return size + arraySize(length, 8);
+      case BOOLEAN:
+        return size + arraySize(length, 1);
+      default:
+        return size + arraySize(length, REFERENCE);
+    }
+  }
+
+  private static long getFrameSize(final MaterializedFrame frame) {
+    int numSlots = frame.getFrameDescriptor().getSize();
+
+    // descriptor, arguments, locals, primitive locals, and tags
+    return align(OBJECT_HEADER + 5 * REFERENCE)
+        + arraySize(frame.getArguments().length, REFERENCE)
+        + arraySize(numSlots, REFERENCE)
+        + arraySize(numSlots, 8)
+        + arraySize(numSlots, 1);
+  }
+
+  private static long getStringSize(final String str) {
+    return align(OBJECT_HEADER + REFERENCE + 4) + arraySize(str.length(), 2);
+  }
+
+  private static long arraySize(final int length, final int elementSize) {
+    return align(ARRAY_HEADER + (long) length * elementSize);
+  }
+
+  private static long align(final long size) {
+    return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  /**
+   * @return the number of bytes of the object and all objects reachable from
+   *         it, including the frames captured by blocks. Classes, methods,
+   *         symbols and the global singletons such as nil are shared, and
+   *         are therefore not counted, unless they are the root object.
+   */
+  public static long getRetainedSize(final Object root) {
+    CompilerAsserts.neverPartOfCompilation("ObjectMemory.getRetainedSize(.)");
+    final long[] size = new long[1];
+
+    new HeapWalker(true) {
+      @Override
+      protected void visitObject(final Object obj, final long shallowSize) {
+        size[0] += shallowSize;
+      }
+    }.walkFrom(root);
+
+    return size[0];
+  }
+
+  /**
+   * Walks all objects reachable from the globals and reports the number of
+   * instances and their size, per class.
+   * Objects that are only referenced from the stack are not included.
+   *
+   * @return an array of arrays with the elements class, number of instances,
+   *         and number of bytes, sorted by the number of bytes in descending
+   *         order
+   */
+  public static SArray getHeapHistogram(final Universe universe) {
+    CompilerAsserts.neverPartOfCompilation("ObjectMemory.getHeapHistogram(.)");
+    final IdentityHashMap<SClass, long[]> histogram = new IdentityHashMap<>();
+
+    HeapWalker walker = new HeapWalker(false) {
+      @Override
+      protected void visitObject(final Object obj, final long shallowSize) {
+        SClass clazz = Types.getClassOf(obj);
+        long[] entry = histogram.get(clazz);
+        if (entry == null) {
+          entry = new long[2];
+          histogram.put(clazz, entry);
+        }
+        entry[0]++;
+        entry[1] += shallowSize;
+      }
+    };
+
+    for (Object global : universe.getGlobalValues()) {
+      walker.walkFrom(global);
+    }
+
+    ArrayList<SClass> classes = new ArrayList<>(histogram.keySet());
+    Collections.sort(classes, new Comparator<SClass>() {
+      @Override
+      public int compare(final SClass a, final SClass b) {
+        return Long.compare(histogram.get(b)[1], histogram.get(a)[1]);
+      }
+    });
+
+    Object[] result = new Object[classes.size()];
+    for (int i = 0; i < result.length; i++) {
+      SClass clazz = classes.get(i);
+      long[] entry = histogram.get(clazz);
+      result[i] = SArray.create(new Object[] {clazz, entry[0], entry[1]});
+    }
+    return SArray.create(result);
+  }
+
+  /**
+   * Eagerly migrates all instances with an obsolete layout that are reachable
+   * from the globals to the current layout of their class. Instances that
+   * are not reachable from the globals are still migrated lazily, on their
+   * next field access.
+   *
+   * @return the number of migrated instances
+   */
+  public static long migrateObsoleteInstances(final Universe universe) {
+    CompilerAsserts.neverPartOfCompilation("ObjectMemory.migrateObsoleteInstances(.)");
+    final long[] migrated = new long[1];
+
+    HeapWalker walker = new HeapWalker(false) {
+      @Override
+      protected void visitObject(final Object obj, final long shallowSize) {
+        if (obj instanceof SObject) {
+          SObject sobj = (SObject) obj;
+          if (sobj.getObjectLayout().isObsolete() && sobj.updateLayoutToMatchClass()) {
+            migrated[0]++;
+          }
+        }
+      }
+    };
+
+    for (Object global : universe.getGlobalValues()) {
+      walker.walkFrom(global);
+    }
+    return migrated[0];
+  }
+
+  /**
+   * Traverses the object graph, visiting each object only once.
+   * Captured frames are not reported as objects, their size is attributed
+   * to the first block that refers to them.
+   */
+  private abstract static class HeapWalker {
+    private final IdentityHashMap<Object, Boolean> visited;
+    private final ArrayDeque<Object> worklist;
+
+    // whether to stop at objects that are shared by the whole system
+    private final boolean skipShared;
+
+    HeapWalker(final boolean skipShared) {
+      this.skipShared = skipShared;
+      visited  = new IdentityHashMap<>();
+      worklist = new ArrayDeque<>();
+    }
+
+    protected abstract void visitObject(Object obj, long shallowSize);
+
+    public final void walkFrom(final Object root) {
+      markAndPush(root);
+
+      while (!worklist.isEmpty()) {
+        Object obj = worklist.pop();
+        long size = getShallowSize(obj);
+
+        if (obj instanceof SClass) {
+          SClass clazz = (SClass) obj;
+          pushFields(clazz);
+          pushIfNotShared(clazz.getSOMClass());
+          pushIfNotShared(clazz.getSuperClass());
+        } else if (obj instanceof SObject) {
+          SObject sobj = (SObject) obj;
+          pushFields(sobj);
+          pushIfNotShared(sobj.getSOMClass());
+        } else if (obj instanceof SArray) {
+          pushElements((SArray) obj);
+        } else if (obj instanceof SBlock && ((SBlock) obj).hasContext()) {
+          MaterializedFrame context = ((SBlock) obj).getContext();
+          if (!visited.containsKey(context)) {
+            visited.put(context, Boolean.TRUE);
+            size += getFrameSize(context);
+            pushFrameValues(context);
+          }
+        }
+        visitObject(obj, size);
+      }
+    }
+
+    private void pushFields(final SObject obj) {
+      ObjectLayout layout = obj.getObjectLayout();
+      for (int i = 0; i < obj.getNumberOfFields(); i++) {
+        // unboxed fields are already part of the shallow size
+        if (layout.getStorageLocation(i) instanceof AbstractObjectStorageLocation) {
+          pushIfNotShared(obj.getField(i));
+        }
+      }
+    }
+
+    private void pushElements(final SArray arr) {
+      switch (arr.getType()) {
+        case PARTIAL_EMPTY:
+          for (Object element : arr.getPartiallyEmptyStorage().getStorage()) {
+            pushIfNotShared(element);
+          }
+          break;
+        case OBJECT:
+          for (Object element : arr.getObjectStorage()) {
+            pushIfNotShared(element);
+          }
+          break;
+        default:
+          // the other storage types do not contain references,
+          // the unboxed values are included in the shallow size
+          break;
+      }
+    }
+
+    private void pushFrameValues(final MaterializedFrame frame) {
+      for (Object arg : frame.getArguments()) {
+        pushIfNotShared(arg);
+      }
+      for (FrameSlot slot : frame.getFrameDescriptor().getSlots()) {
+        Object value = frame.getValue(slot);
+        // primitive values are stored unboxed in the frame
+        if (!(value instanceof Long || value instanceof Double)) {
+          pushIfNotShared(value);
+        }
+      }
+    }
+
+    private void pushIfNotShared(final Object obj) {
+      if (obj == null || !isSOMObject(obj)) {
+        return;
+      }
+      if (skipShared && isShared(obj)) {
+        return;
+      }
+      markAndPush(obj);
+    }
+
+    private void markAndPush(final Object obj) {
+      if (!visited.containsKey(obj)) {
+        visited.put(obj, Boolean.TRUE);
+        worklist.push(obj);
+      }
+    }
+
+    private static boolean isShared(final Object obj) {
+      return obj instanceof SClass || obj instanceof SInvokable
+          || obj instanceof SSymbol || obj == Nil.nilObject
+          || obj instanceof Boolean || isGlobalSingleton(obj);
+    }
+
+    private static boolean isGlobalSingleton(final Object obj) {
+      Universe universe = Universe.current();
+      return obj == universe.getTrueObject() || obj == universe.getFalseObject()
+          || obj == universe.getSystemObject();
+    }
+
+    private static boolean isSOMObject(final Object obj) {
+      return obj instanceof SObject || obj instanceof SArray
+          || obj instanceof SBlock  || obj instanceof SSymbol
+          || obj instanceof SInvokable || obj instanceof String
+          || obj instanceof Long    || obj instanceof Double
+          || obj instanceof Boolean || obj instanceof BigInteger;
+    }
+  }
+}
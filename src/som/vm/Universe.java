@@ -39,6 +39,7 @@ import static som.vm.constants.Classes.symbolClass;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.StringTokenizer;
 
@@ -48,6 +49,7 @@ import som.interpreter.TruffleCompiler;
 import som.vm.constants.Blocks;
 import som.vm.constants.Globals;
 import som.vm.constants.Nil;
+import som.vmobjects.SArray;
 import som.vmobjects.SBlock;
 import som.vmobjects.SClass;
 import som.vmobjects.SInvokable;
@@ -114,6 +116,7 @@ public final class Universe {
     this.truffleRuntime = Truffle.getRuntime();
     this.globals      = new HashMap<SSymbol, Association>();
     this.symbolTable  = new HashMap<>();
+    this.lookupCache  = new MethodLookupCache();
     this.avoidExit    = false;
     this.alreadyInitialized = false;
     this.lastExitCode = 0;
@@ -125,6 +128,10 @@ public final class Universe {
     return truffleRuntime;
   }
 
+  public MethodLookupCache getMethodLookupCache() {
+    return lookupCache;
+  }
+
   @SlowPath
   public void exit(final int errorCode) {
     // Exit from the Java system
@@ -301,7 +308,9 @@ public final class Universe {
     SInvokable initialize = systemClass.
         lookupInvokable(symbolFor("initialize:"));
 
-    return initialize.invoke(new Object[] {systemObject, arguments});
+    SArray argumentsArray = SArray.create(
+        Arrays.copyOf(arguments, arguments.length, Object[].class));
+    return initialize.invoke(new Object[] {systemObject, argumentsArray});
   }
 
   @SlowPath
@@ -492,6 +501,17 @@ public final class Universe {
     return assoc.getValue();
   }
 
+  @SlowPath
+  public Object[] getGlobalValues() {
+    Object[] values = new Object[globals.size()];
+    int i = 0;
+    for (Association assoc : globals.values()) {
+      values[i] = assoc.getValue();
+      i++;
+    }
+    return values;
+  }
+
   @SlowPath
   public Association getGlobalsAssociation(final SSymbol name) {
     return globals.get(name);
@@ -673,6 +693,8 @@ public final class Universe {
 
   private final HashMap<String, SSymbol>        symbolTable;
 
+  private final MethodLookupCache               lookupCache;
+
   // TODO: this is not how it is supposed to be... it is just a hack to cope
   //       with the use of system.exit in SOM to enable testing
   @CompilationFinal private boolean             avoidExit;
@@ -34,11 +34,27 @@ public abstract class SAbstractObject {
     assert arguments != null;
 
     // Allocate an array to hold the arguments, without receiver
-    Object[] argumentsArray = SArguments.getArgumentsWithoutReceiver(arguments);
+    SArray argumentsArray = SArguments.getArgumentsWithoutReceiver(arguments);
     Object[] args = new Object[] {arguments[0], selector, argumentsArray};
     return send("doesNotUnderstand:arguments:", args);
   }
 
+  /**
+   * Sent by inlined control structures to a condition that is not a
+   * boolean. The result is used as the condition instead.
+   */
+  public static final Object sendMustBeBoolean(final Object receiver) {
+    CompilerAsserts.neverPartOfCompilation("SAbstractObject.sendMustBeBoolean()");
+    SSymbol selector = Universe.current().symbolFor("mustBeBoolean");
+    Object[] arguments = {receiver};
+
+    SInvokable invokable = Types.getClassOf(receiver).lookupInvokable(selector);
+    if (invokable == null) {
+      return sendDoesNotUnderstand(selector, arguments);
+    }
+    return invokable.invoke(arguments);
+  }
+
   public static final Object sendUnknownGlobal(final Object receiver,
       final SSymbol globalName) {
     Object[] arguments = {receiver, globalName};
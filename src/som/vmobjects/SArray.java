@@ -0,0 +1,430 @@
+package som.vmobjects;
+
+import java.util.Arrays;
+
+import som.vm.constants.Classes;
+import som.vm.constants.Nil;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.SlowPath;
+
+
+/**
+ * SArrays are implemented using a strategy-like approach.
+ * The SArray objects are 'tagged' with a type, and the strategy behavior
+ * is implemented directly in the AST nodes.
+ *
+ * An array starts out EMPTY, i.e., all elements are nil and only the length
+ * is stored. On the first write, it becomes PARTIAL_EMPTY and once all
+ * elements are set, it is converted to the most specific storage type that
+ * fits all elements, i.e., LONG, DOUBLE, BOOLEAN, or OBJECT.
+ * Writing a value that does not fit the current storage generalizes the
+ * array to OBJECT storage.
+ */
+public final class SArray extends SAbstractObject {
+  public enum ArrayType { EMPTY, PARTIAL_EMPTY, LONG, DOUBLE, BOOLEAN, OBJECT }
+
+  private ArrayType type;
+  private Object    storage;
+
+  public static SArray create(final Object[] values) {
+    return new SArray(values);
+  }
+
+  public static SArray create(final long[] values) {
+    return new SArray(values);
+  }
+
+  public static SArray create(final double[] values) {
+    return new SArray(values);
+  }
+
+  public static SArray create(final boolean[] values) {
+    return new SArray(values);
+  }
+
+  public static SArray create(final long length) {
+    return new SArray(length);
+  }
+
+  /**
+   * Creates an EMPTY array, i.e., an array of the given length with all
+   * elements being nil.
+   */
+  private SArray(final long length) {
+    type    = ArrayType.EMPTY;
+    storage = (int) length;
+  }
+
+  private SArray(final Object[] values) {
+    type    = ArrayType.OBJECT;
+    storage = values;
+  }
+
+  private SArray(final long[] values) {
+    type    = ArrayType.LONG;
+    storage = values;
+  }
+
+  private SArray(final double[] values) {
+    type    = ArrayType.DOUBLE;
+    storage = values;
+  }
+
+  private SArray(final boolean[] values) {
+    type    = ArrayType.BOOLEAN;
+    storage = values;
+  }
+
+  @Override
+  public SClass getSOMClass() {
+    return Classes.arrayClass;
+  }
+
+  public ArrayType getType() {
+    return type;
+  }
+
+  public boolean isEmptyType() {
+    return type == ArrayType.EMPTY;
+  }
+
+  public boolean isPartiallyEmptyType() {
+    return type == ArrayType.PARTIAL_EMPTY;
+  }
+
+  public boolean isObjectType() {
+    return type == ArrayType.OBJECT;
+  }
+
+  public boolean isLongType() {
+    return type == ArrayType.LONG;
+  }
+
+  public boolean isDoubleType() {
+    return type == ArrayType.DOUBLE;
+  }
+
+  public boolean isBooleanType() {
+    return type == ArrayType.BOOLEAN;
+  }
+
+  public int getEmptyStorage() {
+    assert type == ArrayType.EMPTY;
+    return (int) storage;
+  }
+
+  public PartiallyEmptyArray getPartiallyEmptyStorage() {
+    assert type == ArrayType.PARTIAL_EMPTY;
+    return CompilerDirectives.unsafeCast(storage, PartiallyEmptyArray.class, true);
+  }
+
+  public Object[] getObjectStorage() {
+    assert type == ArrayType.OBJECT;
+    return CompilerDirectives.unsafeCast(storage, Object[].class, true);
+  }
+
+  public long[] getLongStorage() {
+    assert type == ArrayType.LONG;
+    return CompilerDirectives.unsafeCast(storage, long[].class, true);
+  }
+
+  public double[] getDoubleStorage() {
+    assert type == ArrayType.DOUBLE;
+    return CompilerDirectives.unsafeCast(storage, double[].class, true);
+  }
+
+  public boolean[] getBooleanStorage() {
+    assert type == ArrayType.BOOLEAN;
+    return CompilerDirectives.unsafeCast(storage, boolean[].class, true);
+  }
+
+  public int getLength() {
+    switch (type) {
+      case EMPTY:         return getEmptyStorage();
+      case PARTIAL_EMPTY: return getPartiallyEmptyStorage().getLength();
+      case OBJECT:        return getObjectStorage().length;
+      case LONG:          return getLongStorage().length;
+      case DOUBLE:        return getDoubleStorage().length;
+      case BOOLEAN:       return getBooleanStorage().length;
+      default:
+        throw new RuntimeException("Unsupported array type: " + type);
+    }
+  }
+
+  /**
+   * Generic, unspecialized read access. The AST nodes specialize on the
+   * storage type, this is meant for the slow path and the runtime.
+   */
+  public Object getValue(final long idx) {
+    switch (type) {
+      case EMPTY:         return Nil.nilObject;
+      case PARTIAL_EMPTY: return getPartiallyEmptyStorage().get(idx);
+      case OBJECT:        return getObjectStorage()[(int) idx];
+      case LONG:          return getLongStorage()[(int) idx];
+      case DOUBLE:        return getDoubleStorage()[(int) idx];
+      case BOOLEAN:       return getBooleanStorage()[(int) idx];
+      default:
+        throw new RuntimeException("Unsupported array type: " + type);
+    }
+  }
+
+  /**
+   * Generic, unspecialized write access, which performs all necessary
+   * storage transitions.
+   */
+  @SlowPath
+  public void setValue(final long idx, final Object value) {
+    switch (type) {
+      case EMPTY:
+        if (value != Nil.nilObject) {
+          transitionFromEmptyToPartiallyEmptyWith(idx, value);
+        }
+        return;
+      case PARTIAL_EMPTY:
+        PartiallyEmptyArray partial = getPartiallyEmptyStorage();
+        partial.set(idx, value);
+        if (partial.isFull()) {
+          transitionFromPartiallyEmpty();
+        }
+        return;
+      case OBJECT:
+        getObjectStorage()[(int) idx] = value;
+        return;
+      case LONG:
+        if (value instanceof Long) {
+          getLongStorage()[(int) idx] = (long) value;
+        } else {
+          transitionToObjectWithValue(idx, value);
+        }
+        return;
+      case DOUBLE:
+        if (value instanceof Double) {
+          getDoubleStorage()[(int) idx] = (double) value;
+        } else {
+          transitionToObjectWithValue(idx, value);
+        }
+        return;
+      case BOOLEAN:
+        if (value instanceof Boolean) {
+          getBooleanStorage()[(int) idx] = (boolean) value;
+        } else {
+          transitionToObjectWithValue(idx, value);
+        }
+        return;
+      default:
+        throw new RuntimeException("Unsupported array type: " + type);
+    }
+  }
+
+  /**
+   * Returns a copy of the array's elements as boxed objects. The storage
+   * strategy of the array remains unchanged.
+   */
+  public Object[] toObjectArray() {
+    switch (type) {
+      case EMPTY:
+        return createNilFilledArray(getEmptyStorage());
+      case PARTIAL_EMPTY:
+        return getPartiallyEmptyStorage().getStorage().clone();
+      case OBJECT:
+        return getObjectStorage().clone();
+      case LONG: {
+        long[] arr = getLongStorage();
+        Object[] result = new Object[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+          result[i] = arr[i];
+        }
+        return result;
+      }
+      case DOUBLE: {
+        double[] arr = getDoubleStorage();
+        Object[] result = new Object[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+          result[i] = arr[i];
+        }
+        return result;
+      }
+      case BOOLEAN: {
+        boolean[] arr = getBooleanStorage();
+        Object[] result = new Object[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+          result[i] = arr[i];
+        }
+        return result;
+      }
+      default:
+        throw new RuntimeException("Unsupported array type: " + type);
+    }
+  }
+
+  public void transitionToObjectWithValue(final long idx, final Object value) {
+    Object[] newStorage = toObjectArray();
+    newStorage[(int) idx] = value;
+    type    = ArrayType.OBJECT;
+    storage = newStorage;
+  }
+
+  public void transitionToLongWithAll(final long length, final long value) {
+    long[] newStorage = new long[(int) length];
+    Arrays.fill(newStorage, value);
+    type    = ArrayType.LONG;
+    storage = newStorage;
+  }
+
+  public void transitionToDoubleWithAll(final long length, final double value) {
+    double[] newStorage = new double[(int) length];
+    Arrays.fill(newStorage, value);
+    type    = ArrayType.DOUBLE;
+    storage = newStorage;
+  }
+
+  public void transitionToBooleanWithAll(final long length, final boolean value) {
+    boolean[] newStorage = new boolean[(int) length];
+    if (value) {
+      Arrays.fill(newStorage, true);
+    }
+    type    = ArrayType.BOOLEAN;
+    storage = newStorage;
+  }
+
+  public void transitionToObjectWithAll(final long length, final Object value) {
+    Object[] newStorage = new Object[(int) length];
+    Arrays.fill(newStorage, value);
+    type    = ArrayType.OBJECT;
+    storage = newStorage;
+  }
+
+  public void transitionFromEmptyToPartiallyEmptyWith(final long idx,
+      final Object value) {
+    int length = getEmptyStorage();
+    if (length == 1) {
+      transitionTo(PartiallyEmptyArray.typeOf(value), new Object[] {value});
+      return;
+    }
+    PartiallyEmptyArray partial = new PartiallyEmptyArray(
+        PartiallyEmptyArray.typeOf(value), length, idx, value);
+    type    = ArrayType.PARTIAL_EMPTY;
+    storage = partial;
+  }
+
+  /**
+   * Transition a completely filled array to its most specific storage.
+   */
+  public void transitionFromPartiallyEmpty() {
+    PartiallyEmptyArray partial = getPartiallyEmptyStorage();
+    assert partial.isFull();
+    transitionTo(partial.getType(), partial.getStorage());
+  }
+
+  private void transitionTo(final ArrayType newType, final Object[] values) {
+    switch (newType) {
+      case LONG: {
+        long[] newStorage = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+          newStorage[i] = (long) values[i];
+        }
+        storage = newStorage;
+        break;
+      }
+      case DOUBLE: {
+        double[] newStorage = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+          newStorage[i] = (double) values[i];
+        }
+        storage = newStorage;
+        break;
+      }
+      case BOOLEAN: {
+        boolean[] newStorage = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+          newStorage[i] = (boolean) values[i];
+        }
+        storage = newStorage;
+        break;
+      }
+      default:
+        storage = values;
+        type    = ArrayType.OBJECT;
+        return;
+    }
+    type = newType;
+  }
+
+  private static Object[] createNilFilledArray(final int length) {
+    Object[] arr = new Object[length];
+    Arrays.fill(arr, Nil.nilObject);
+    return arr;
+  }
+
+  /**
+   * Storage for arrays that are only partially initialized. It keeps track
+   * of the number of elements that are still nil, and of the type of the
+   * elements that are set, so that the array can transition to a
+   * specialized storage once it is completely filled.
+   */
+  public static final class PartiallyEmptyArray {
+    private final Object[] arr;
+    private int emptyElements;
+    private ArrayType type;
+
+    public PartiallyEmptyArray(final ArrayType type, final int length,
+        final long idx, final Object val) {
+      // can't specialize this here already,
+      // because keeping track for nils would be to expensive
+      arr = new Object[length];
+      Arrays.fill(arr, Nil.nilObject);
+      emptyElements = length - 1;
+      arr[(int) idx] = val;
+      this.type = type;
+    }
+
+    public static ArrayType typeOf(final Object value) {
+      if (value instanceof Long) {
+        return ArrayType.LONG;
+      } else if (value instanceof Double) {
+        return ArrayType.DOUBLE;
+      } else if (value instanceof Boolean) {
+        return ArrayType.BOOLEAN;
+      } else {
+        return ArrayType.OBJECT;
+      }
+    }
+
+    public ArrayType getType() {
+      return type;
+    }
+
+    public Object[] getStorage() {
+      return arr;
+    }
+
+    public int getLength() {
+      return arr.length;
+    }
+
+    public Object get(final long idx) {
+      return arr[(int) idx];
+    }
+
+    public void set(final long idx, final Object val) {
+      Object old = arr[(int) idx];
+      if (old == Nil.nilObject) {
+        if (val != Nil.nilObject) {
+          emptyElements--;
+        }
+      } else if (val == Nil.nilObject) {
+        emptyElements++;
+      }
+      arr[(int) idx] = val;
+
+      if (val != Nil.nilObject && type != ArrayType.OBJECT && typeOf(val) != type) {
+        type = ArrayType.OBJECT;
+      }
+    }
+
+    public boolean isFull() {
+      return emptyElements == 0;
+    }
+  }
+}
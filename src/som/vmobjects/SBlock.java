@@ -94,6 +94,10 @@ public abstract class SBlock extends SAbstractObject {
     return method;
   }
 
+  public final boolean hasContext() {
+    return context != null;
+  }
+
   public final  MaterializedFrame getContext() {
     assert context != null;
     return CompilerDirectives.unsafeFrameCast(context);
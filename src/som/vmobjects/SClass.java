@@ -27,35 +27,39 @@ package som.vmobjects;
 import static som.interpreter.TruffleCompiler.transferToInterpreterAndInvalidate;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import som.interpreter.objectstorage.ObjectLayout;
 import som.primitives.Primitives;
 import som.vm.Universe;
 import som.vm.constants.Nil;
+import som.vmobjects.SObject.SObject5;
 import som.vmobjects.SInvokable.SPrimitive;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.SlowPath;
+import com.oracle.truffle.api.Truffle;
 
-public final class SClass extends SObject {
+public final class SClass extends SObject5 {
 
   public SClass(final int numberOfFields) {
     // Initialize this class by calling the super constructor with the given
     // value
     super(numberOfFields);
-    invokablesTable = new HashMap<SSymbol, SInvokable>();
     this.superclass = Nil.nilObject;
 
-    layoutForInstances = new ObjectLayout(numberOfFields, this);
+    layoutForInstances = ObjectLayout.createRootLayout(numberOfFields, this);
   }
 
   public SClass(final SClass clazz) {
     super(clazz);
-    invokablesTable = new HashMap<SSymbol, SInvokable>();
     this.superclass = Nil.nilObject;
   }
 
@@ -65,7 +69,40 @@ public final class SClass extends SObject {
 
   public void setSuperClass(final SClass value) {
     transferToInterpreterAndInvalidate("SClass.setSuperClass");
+    if (hasSuperClass()) {
+      ((SClass) superclass).subclasses.remove(this);
+    }
     superclass = value;
+    value.removeReplacedSubclass(this);
+    value.subclasses.add(this);
+
+    resetSuperclassDisplay();
+    invalidateNoOverrideAssumptionsOfSubtree();
+    Universe.current().getMethodLookupCache().invalidateAll(this);
+  }
+
+  /**
+   * A class that is loaded again is a new class object with the name of the
+   * old one. The old class does not take part in class hierarchy analysis
+   * anymore, and is not kept alive by its superclass.
+   */
+  private void removeReplacedSubclass(final SClass newSubclass) {
+    if (newSubclass.name == null) {
+      return;
+    }
+    for (int i = subclasses.size() - 1; i >= 0; i--) {
+      SClass subclass = subclasses.get(i);
+      if (subclass != newSubclass && subclass.name == newSubclass.name) {
+        subclasses.remove(i);
+      }
+    }
+  }
+
+  /**
+   * @return the direct subclasses of this class
+   */
+  public List<SClass> getSubclasses() {
+    return Collections.unmodifiableList(subclasses);
   }
 
   public boolean hasSuperClass() {
@@ -88,9 +125,10 @@ public final class SClass extends SObject {
   public void setInstanceFields(final SSymbol[] fields) {
     transferToInterpreterAndInvalidate("SClass.setInstanceFields");
     instanceFields = fields;
-    if (layoutForInstances == null ||
-        instanceFields.length != layoutForInstances.getNumberOfFields()) {
-      layoutForInstances = new ObjectLayout(fields.length, this);
+    if (layoutForInstances == null) {
+      layoutForInstances = ObjectLayout.createRootLayout(fields.length, this);
+    } else if (instanceFields.length != layoutForInstances.getNumberOfFields()) {
+      replaceLayoutForInstances(ObjectLayout.createRootLayout(fields.length, this));
     }
   }
 
@@ -100,7 +138,10 @@ public final class SClass extends SObject {
 
   public void setInstanceInvokables(final SInvokable[] value) {
     transferToInterpreterAndInvalidate("SClass.setInstanceInvokables");
+    invalidateNoOverrideAssumptionsOfInvokables();
     instanceInvokables = value;
+    invalidateNoOverrideAssumptionsOfInvokables();
+    Universe.current().getMethodLookupCache().invalidateAll(this);
 
     // Make sure this class is the holder of all invokables in the array
     for (int i = 0; i < getNumberOfInstanceInvokables(); i++) {
@@ -122,15 +163,31 @@ public final class SClass extends SObject {
     value.setHolder(this);
 
     instanceInvokables[index] = value;
+    invalidateNoOverrideAssumptions(value.getSignature());
+    Universe.current().getMethodLookupCache().invalidate(this, value.getSignature());
   }
 
   @SlowPath
   public SInvokable lookupInvokable(final SSymbol selector) {
-    SInvokable invokable;
+    return Universe.current().getMethodLookupCache().lookup(this, selector);
+  }
 
-    // Lookup invokable and return if found
-    invokable = invokablesTable.get(selector);
-    if (invokable != null) { return invokable; }
+  /**
+   * @return an assumption that remains valid as long as the lookup of the
+   *         selector in this class yields the same invokable
+   */
+  public Assumption getStableLookupAssumption(final SSymbol selector) {
+    return Universe.current().getMethodLookupCache().
+        getStableLookupAssumption(this, selector);
+  }
+
+  /**
+   * Lookup without using the VM-wide lookup cache, use lookupInvokable(.)
+   * instead.
+   */
+  public SInvokable lookupInvokableInHierarchy(final SSymbol selector) {
+    CompilerAsserts.neverPartOfCompilation("SClass.lookupInvokableInHierarchy(.)");
+    SInvokable invokable;
 
     // Lookup invokable with given signature in array of instance invokables
     for (int i = 0; i < getNumberOfInstanceInvokables(); i++) {
@@ -139,24 +196,162 @@ public final class SClass extends SObject {
 
       // Return the invokable if the signature matches
       if (invokable.getSignature() == selector) {
-        invokablesTable.put(selector, invokable);
         return invokable;
       }
     }
 
     // Traverse the super class chain by calling lookup on the super class
     if (hasSuperClass()) {
-      invokable = ((SClass) getSuperClass()).lookupInvokable(selector);
-      if (invokable != null) {
-        invokablesTable.put(selector, invokable);
-        return invokable;
-      }
+      return ((SClass) getSuperClass()).lookupInvokable(selector);
     }
 
     // Invokable not found
     return null;
   }
 
+  /**
+   * Class hierarchy analysis: the returned assumption remains valid as long
+   * as the method for the selector, which is inherited by all subclasses,
+   * is not overridden, replaced, or removed.
+   *
+   * @return the assumption, or null if the method is already overridden in
+   *         a subclass
+   */
+  public Assumption getNoOverrideAssumption(final SSymbol selector) {
+    CompilerAsserts.neverPartOfCompilation("SClass.getNoOverrideAssumption(.)");
+    Assumption assumption = noOverrideAssumptions.get(selector);
+    if (assumption != null) {
+      return assumption;
+    }
+
+    if (isOverriddenInSubclasses(selector)) {
+      return null;
+    }
+
+    assumption = Truffle.getRuntime().createAssumption(
+        "no override of " + selector.getString());
+    noOverrideAssumptions.put(selector, assumption);
+    return assumption;
+  }
+
+  private boolean isOverriddenInSubclasses(final SSymbol selector) {
+    for (SClass subclass : subclasses) {
+      if (subclass.definesInvokable(selector)
+          || subclass.isOverriddenInSubclasses(selector)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean definesInvokable(final SSymbol selector) {
+    for (int i = 0; i < getNumberOfInstanceInvokables(); i++) {
+      if (getInstanceInvokable(i).getSignature() == selector) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A change of the method for the selector in this class invalidates the
+   * assumptions of this class and all its superclasses.
+   */
+  private void invalidateNoOverrideAssumptions(final SSymbol selector) {
+    SClass current = this;
+    while (true) {
+      Assumption assumption = current.noOverrideAssumptions.remove(selector);
+      if (assumption != null) {
+        assumption.invalidate();
+      }
+      if (!current.hasSuperClass()) {
+        return;
+      }
+      current = (SClass) current.getSuperClass();
+    }
+  }
+
+  private void invalidateNoOverrideAssumptionsOfInvokables() {
+    if (instanceInvokables == null) {
+      return;
+    }
+    for (SInvokable invokable : instanceInvokables) {
+      invalidateNoOverrideAssumptions(invokable.getSignature());
+    }
+  }
+
+  private void invalidateNoOverrideAssumptionsOfSubtree() {
+    invalidateNoOverrideAssumptionsOfInvokables();
+    for (SClass subclass : subclasses) {
+      subclass.invalidateNoOverrideAssumptionsOfSubtree();
+    }
+  }
+
+  /**
+   * @return the superclasses of this class, starting with the root class,
+   *         and ending with this class
+   */
+  public SClass[] getSuperclassDisplay() {
+    SClass[] display = superclassDisplay;
+    if (display == null) {
+      display = computeSuperclassDisplay();
+    }
+    return display;
+  }
+
+  @SlowPath
+  private SClass[] computeSuperclassDisplay() {
+    int depth = 1;
+    SClass current = this;
+    while (current.hasSuperClass()) {
+      current = (SClass) current.getSuperClass();
+      depth++;
+    }
+
+    SClass[] display = new SClass[depth];
+    current = this;
+    for (int i = depth - 1; i >= 0; i--) {
+      display[i] = current;
+      if (i > 0) {
+        current = (SClass) current.getSuperClass();
+      }
+    }
+    superclassDisplay = display;
+    return display;
+  }
+
+  private void resetSuperclassDisplay() {
+    superclassDisplay = null;
+    for (SClass subclass : subclasses) {
+      subclass.resetSuperclassDisplay();
+    }
+  }
+
+  /**
+   * @return the index of this class in the superclass displays of its
+   *         subclasses
+   */
+  public int getDepthInHierarchy() {
+    return getSuperclassDisplay().length - 1;
+  }
+
+  /**
+   * Constant-time subclass test, based on the superclass displays.
+   */
+  public boolean isSubclassOf(final SClass other) {
+    return isSubclassOf(other, other.getDepthInHierarchy());
+  }
+
+  /**
+   * Subclass test for a known depth of the other class. Only the display of
+   * this class is read, i.e., a single load for a receiver class that is not
+   * a constant.
+   */
+  public boolean isSubclassOf(final SClass other, final int otherDepth) {
+    SClass[] display = getSuperclassDisplay();
+    return otherDepth < display.length && display[otherDepth] == other;
+  }
+
   public int lookupFieldIndex(final SSymbol fieldName) {
     // Lookup field with given name in array of instance fields
     for (int i = getNumberOfInstanceFields() - 1; i >= 0; i--) {
@@ -187,6 +382,8 @@ public final class SClass extends SObject {
     int numInvokables = instanceInvokables.length;
     instanceInvokables = Arrays.copyOf(instanceInvokables, numInvokables + 1);
     instanceInvokables[numInvokables] = value;
+    invalidateNoOverrideAssumptions(value.getSignature());
+    Universe.current().getMethodLookupCache().invalidate(this, value.getSignature());
     return true;
   }
 
@@ -198,6 +395,15 @@ public final class SClass extends SObject {
     }
   }
 
+  /**
+   * Adds a primitive that is specific to this VM. Such primitives are not
+   * declared in the class definitions of the core library, which is shared
+   * with the other SOM implementations, so, there is no warning.
+   */
+  public void addExtensionPrimitive(final SInvokable value) {
+    addInstanceInvokable(value);
+  }
+
   public SSymbol getInstanceFieldName(final int index) {
     return instanceFields[index];
   }
@@ -246,12 +452,34 @@ public final class SClass extends SObject {
     return layoutForInstances;
   }
 
+  public int getNumberOfInstanceLayoutsCreated() {
+    return layoutForInstances.getTransitionTable().getNumberOfLayoutsCreated();
+  }
+
+  public int getNumberOfLiveInstanceLayouts() {
+    return layoutForInstances.getTransitionTable().getNumberOfLiveLayouts();
+  }
+
+  public int getNumberOfObsoleteInstanceLayouts() {
+    return layoutForInstances.getTransitionTable().getNumberOfObsoleteLayouts();
+  }
+
+  public int getNumberOfLiveObsoleteInstanceLayouts() {
+    return layoutForInstances.getTransitionTable().getNumberOfLiveObsoleteLayouts();
+  }
+
+  private void replaceLayoutForInstances(final ObjectLayout updated) {
+    ObjectLayout old = layoutForInstances;
+    layoutForInstances = updated;
+    old.markObsolete();
+  }
+
   public ObjectLayout updateInstanceLayoutWithInitializedField(final long index, final Class<?> type) {
     ObjectLayout updated = layoutForInstances.withInitializedField(index, type);
 
     if (updated != layoutForInstances) {
       CompilerDirectives.transferToInterpreterAndInvalidate();
-      layoutForInstances = updated;
+      replaceLayoutForInstances(updated);
     }
     return layoutForInstances;
   }
@@ -261,7 +489,7 @@ public final class SClass extends SObject {
 
     if (updated != layoutForInstances) {
       CompilerDirectives.transferToInterpreterAndInvalidate();
-      layoutForInstances = updated;
+      replaceLayoutForInstances(updated);
     }
     return layoutForInstances;
   }
@@ -272,13 +500,16 @@ public final class SClass extends SObject {
     return "Class(" + getName().getString() + ")";
   }
 
-  // Mapping of symbols to invokables
-  private final HashMap<SSymbol, SInvokable> invokablesTable;
-
   @CompilationFinal private SObject superclass;
   @CompilationFinal private SSymbol name;
   @CompilationFinal private SInvokable[] instanceInvokables;
   @CompilationFinal private SSymbol[]    instanceFields;
 
   @CompilationFinal private ObjectLayout layoutForInstances;
+
+  // the direct subclasses, used for class hierarchy analysis
+  private final ArrayList<SClass> subclasses = new ArrayList<>();
+  private final HashMap<SSymbol, Assumption> noOverrideAssumptions = new HashMap<>();
+  // not compilation final, it is reset when a superclass changes
+  private SClass[] superclassDisplay;
 }
@@ -43,24 +43,22 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.nodes.NodeUtil.FieldOffsetProvider;
 
-public class SObject extends SAbstractObject {
+/**
+ * SObject itself does not have any inline fields. Instances are allocated as
+ * one of the size-specialized subclasses SObject0 to SObject5, chosen based
+ * on the number of fields of the class. Each of them has the same number of
+ * inline primitive and object fields, everything beyond that is stored in
+ * the extension arrays.
+ */
+public abstract class SObject extends SAbstractObject {
 
   @CompilationFinal protected SClass clazz;
 
   public static final int NUM_PRIMITIVE_FIELDS = 5;
   public static final int NUM_OBJECT_FIELDS    = 5;
+  public static final int PRIM_USED_MAP_BITS   = Long.SIZE;
 
-  @SuppressWarnings("unused")  private long   primField1;
-  @SuppressWarnings("unused")  private long   primField2;
-  @SuppressWarnings("unused")  private long   primField3;
-  @SuppressWarnings("unused")  private long   primField4;
-  @SuppressWarnings("unused")  private long   primField5;
-
-  @SuppressWarnings("unused")  private Object field1;
-  @SuppressWarnings("unused")  private Object field2;
-  @SuppressWarnings("unused")  private Object field3;
-  @SuppressWarnings("unused")  private Object field4;
-  @SuppressWarnings("unused")  private Object field5;
+  private static final long[] EMPTY_PRIM_USED_MAP = new long[0];
 
   @SuppressWarnings("unused") @CompilationFinal private long[]   extensionPrimFields;
   @SuppressWarnings("unused") @CompilationFinal private Object[] extensionObjFields;
@@ -69,7 +67,10 @@ public class SObject extends SAbstractObject {
   // to know in case the layout changed that we can update the instances lazily
   @CompilationFinal private ObjectLayout objectLayout;
 
-  private int    primitiveUsedMap;
+  // one bit per primitive field, indicating whether it has been written;
+  // fields beyond the first 64 use the extension map
+  private long   primitiveUsedMap;
+  @CompilationFinal private long[] extensionPrimUsedMap;
 
   private final int numberOfFields;
 
@@ -79,25 +80,43 @@ public class SObject extends SAbstractObject {
     setLayoutInitially(instanceClass.getLayoutForInstances());
   }
 
+  protected SObject(final SClass instanceClass, final ObjectLayout layout) {
+    numberOfFields = instanceClass.getNumberOfInstanceFields();
+    clazz          = instanceClass;
+    assert layout.getTransitionTable().getForClass() == instanceClass;
+    setLayoutInitially(layout);
+  }
+
   protected SObject(final int numFields) {
     numberOfFields = numFields;
-    setLayoutInitially(new ObjectLayout(numFields, null));
+    setLayoutInitially(ObjectLayout.createRootLayout(numFields, null));
   }
 
   private void setLayoutInitially(final ObjectLayout layout) {
-    field1 = field2 = field3 = field4 = field5 = Nil.nilObject;
+    resetInlineFields(Nil.nilObject, 0);
 
     objectLayout   = layout;
     assert objectLayout.getNumberOfFields() == numberOfFields;
+    assert objectLayout.getNumberOfInlineFields() <= getNumberOfInlineFields();
 
-    extensionPrimFields = getExtendedPrimStorage();
-    extensionObjFields  = getExtendedObjectStorage();
+    primitiveUsedMap     = 0;
+    extensionPrimFields  = getExtendedPrimStorage();
+    extensionObjFields   = getExtendedObjectStorage();
+    extensionPrimUsedMap = getExtendedPrimUsedMap();
   }
 
   public final int getNumberOfFields() {
     return numberOfFields;
   }
 
+  /**
+   * @return the number of inline primitive fields, which is also the number
+   *         of inline object fields
+   */
+  public abstract int getNumberOfInlineFields();
+
+  protected abstract void resetInlineFields(Object objValue, long primValue);
+
   public final ObjectLayout getObjectLayout() {
     // TODO: should I really remove it, or should I update the layout?
     // assert clazz.getLayoutForInstances() == objectLayout;
@@ -124,6 +143,14 @@ public class SObject extends SAbstractObject {
     return new long[objectLayout.getNumberOfUsedExtendedPrimStorageLocations()];
   }
 
+  private long[] getExtendedPrimUsedMap() {
+    int size = objectLayout.getNumberOfExtendedPrimUsedMaps();
+    if (size == 0) {
+      return EMPTY_PRIM_USED_MAP;
+    }
+    return new long[size];
+  }
+
   private Object[] getExtendedObjectStorage() {
     Object[] storage = new Object[objectLayout.getNumberOfUsedExtendedObjectStorageLocations()];
     Arrays.fill(storage, Nil.nilObject);
@@ -145,8 +172,7 @@ public class SObject extends SAbstractObject {
 
   @ExplodeLoop
   private void setAllFields(final Object[] fieldValues) {
-    field1 = field2 = field3 = field4 = field5 = null;
-    primField1 = primField2 = primField3 = primField4 = primField5 = Long.MIN_VALUE;
+    resetInlineFields(null, Long.MIN_VALUE);
 
     assert fieldValues.length == numberOfFields;
 
@@ -178,9 +204,10 @@ public class SObject extends SAbstractObject {
 
     objectLayout        = layout;
 
-    primitiveUsedMap    = 0;
-    extensionPrimFields = getExtendedPrimStorage();
-    extensionObjFields  = getExtendedObjectStorage();
+    primitiveUsedMap     = 0;
+    extensionPrimFields  = getExtendedPrimStorage();
+    extensionObjFields   = getExtendedObjectStorage();
+    extensionPrimUsedMap = getExtendedPrimUsedMap();
 
     setAllFields(fieldValues);
   }
@@ -212,42 +239,203 @@ public class SObject extends SAbstractObject {
     return clazz.lookupFieldIndex(fieldName);
   }
 
+  /**
+   * @return the number of inline fields of the SObject subclass that is used
+   *         for objects with the given number of fields
+   */
+  public static int getNumberOfInlineFieldsFor(final int numberOfFields) {
+    if (numberOfFields <= 3) {
+      return numberOfFields;
+    } else {
+      return NUM_OBJECT_FIELDS;
+    }
+  }
+
   public static final SObject create(final SClass instanceClass) {
-    return new SObject(instanceClass);
+    switch (getNumberOfInlineFieldsFor(instanceClass.getNumberOfInstanceFields())) {
+      case 0:  return new SObject0(instanceClass);
+      case 1:  return new SObject1(instanceClass);
+      case 2:  return new SObject2(instanceClass);
+      case 3:  return new SObject3(instanceClass);
+      default: return new SObject5(instanceClass);
+    }
+  }
+
+  /**
+   * Create a new instance with a given layout, which is expected to be
+   * the current layout for instances of the class. This is used by
+   * allocation sites that cache the layout.
+   */
+  public static SObject create(final SClass instanceClass,
+      final ObjectLayout layout) {
+    switch (layout.getNumberOfInlineFields()) {
+      case 0:  return new SObject0(instanceClass, layout);
+      case 1:  return new SObject1(instanceClass, layout);
+      case 2:  return new SObject2(instanceClass, layout);
+      case 3:  return new SObject3(instanceClass, layout);
+      default: return new SObject5(instanceClass, layout);
+    }
   }
 
   public static SObject create(final int numFields) {
-    return new SObject(numFields);
+    switch (getNumberOfInlineFieldsFor(numFields)) {
+      case 0:  return new SObject0(numFields);
+      case 1:  return new SObject1(numFields);
+      case 2:  return new SObject2(numFields);
+      case 3:  return new SObject3(numFields);
+      default: return new SObject5(numFields);
+    }
+  }
+
+  public static final class SObject0 extends SObject {
+    private SObject0(final SClass instanceClass) { super(instanceClass); }
+    private SObject0(final SClass instanceClass, final ObjectLayout layout) { super(instanceClass, layout); }
+    private SObject0(final int numFields) { super(numFields); }
+
+    @Override
+    public int getNumberOfInlineFields() {
+      return 0;
+    }
+
+    @Override
+    protected void resetInlineFields(final Object objValue, final long primValue) { }
+  }
+
+  public static class SObject1 extends SObject {
+    @SuppressWarnings("unused")  private long   primField1;
+    @SuppressWarnings("unused")  private Object field1;
+
+    protected SObject1(final SClass instanceClass) { super(instanceClass); }
+    protected SObject1(final SClass instanceClass, final ObjectLayout layout) { super(instanceClass, layout); }
+    protected SObject1(final int numFields) { super(numFields); }
+
+    @Override
+    public int getNumberOfInlineFields() {
+      return 1;
+    }
+
+    @Override
+    protected void resetInlineFields(final Object objValue, final long primValue) {
+      field1     = objValue;
+      primField1 = primValue;
+    }
+  }
+
+  public static class SObject2 extends SObject1 {
+    @SuppressWarnings("unused")  private long   primField2;
+    @SuppressWarnings("unused")  private Object field2;
+
+    protected SObject2(final SClass instanceClass) { super(instanceClass); }
+    protected SObject2(final SClass instanceClass, final ObjectLayout layout) { super(instanceClass, layout); }
+    protected SObject2(final int numFields) { super(numFields); }
+
+    @Override
+    public int getNumberOfInlineFields() {
+      return 2;
+    }
+
+    @Override
+    protected void resetInlineFields(final Object objValue, final long primValue) {
+      super.resetInlineFields(objValue, primValue);
+      field2     = objValue;
+      primField2 = primValue;
+    }
+  }
+
+  public static class SObject3 extends SObject2 {
+    @SuppressWarnings("unused")  private long   primField3;
+    @SuppressWarnings("unused")  private Object field3;
+
+    protected SObject3(final SClass instanceClass) { super(instanceClass); }
+    protected SObject3(final SClass instanceClass, final ObjectLayout layout) { super(instanceClass, layout); }
+    protected SObject3(final int numFields) { super(numFields); }
+
+    @Override
+    public int getNumberOfInlineFields() {
+      return 3;
+    }
+
+    @Override
+    protected void resetInlineFields(final Object objValue, final long primValue) {
+      super.resetInlineFields(objValue, primValue);
+      field3     = objValue;
+      primField3 = primValue;
+    }
+  }
+
+  /**
+   * The largest variant. It is also the superclass of SClass, because the
+   * number of fields of a class object depends on its metaclass, which is
+   * only known after the object is allocated.
+   */
+  public static class SObject5 extends SObject3 {
+    @SuppressWarnings("unused")  private long   primField4;
+    @SuppressWarnings("unused")  private long   primField5;
+    @SuppressWarnings("unused")  private Object field4;
+    @SuppressWarnings("unused")  private Object field5;
+
+    protected SObject5(final SClass instanceClass) { super(instanceClass); }
+    protected SObject5(final SClass instanceClass, final ObjectLayout layout) { super(instanceClass, layout); }
+    protected SObject5(final int numFields) { super(numFields); }
+
+    @Override
+    public int getNumberOfInlineFields() {
+      return NUM_OBJECT_FIELDS;
+    }
+
+    @Override
+    protected void resetInlineFields(final Object objValue, final long primValue) {
+      super.resetInlineFields(objValue, primValue);
+      field4     = field5     = objValue;
+      primField4 = primField5 = primValue;
+    }
   }
 
-  private static final long FIRST_OBJECT_FIELD_OFFSET = getFirstObjectFieldOffset();
-  private static final long FIRST_PRIM_FIELD_OFFSET   = getFirstPrimFieldOffset();
-  private static final long OBJECT_FIELD_LENGTH = getObjectFieldLength();
-  private static final long PRIM_FIELD_LENGTH   = getPrimFieldLength();
+  // the fields are declared in different subclasses, but since a subclass
+  // only appends fields, their offsets are the same for all variants
+  private static final long[] OBJECT_FIELD_OFFSETS = getFieldOffsets("field",     NUM_OBJECT_FIELDS);
+  private static final long[] PRIM_FIELD_OFFSETS   = getFieldOffsets("primField", NUM_PRIMITIVE_FIELDS);
 
   public static long getObjectFieldOffset(final int fieldIndex) {
     assert 0 <= fieldIndex && fieldIndex < NUM_OBJECT_FIELDS;
-    return FIRST_OBJECT_FIELD_OFFSET + fieldIndex * OBJECT_FIELD_LENGTH;
+    return OBJECT_FIELD_OFFSETS[fieldIndex];
   }
 
   public static long getPrimitiveFieldOffset(final int fieldIndex) {
     assert 0 <= fieldIndex && fieldIndex < NUM_PRIMITIVE_FIELDS;
-    return FIRST_PRIM_FIELD_OFFSET + fieldIndex * PRIM_FIELD_LENGTH;
+    return PRIM_FIELD_OFFSETS[fieldIndex];
   }
 
-  public static int getPrimitiveFieldMask(final int fieldIndex) {
-    assert 0 <= fieldIndex && fieldIndex < 32; // this limits the number of object fields for the moment...
-    return 1 << fieldIndex;
+  public static long getPrimitiveFieldMask(final int fieldIndex) {
+    assert 0 <= fieldIndex;
+    return 1L << (fieldIndex % PRIM_USED_MAP_BITS);
   }
 
-  public final boolean isPrimitiveSet(final int mask) {
+  /**
+   * @return the index into the extension map that holds the used bit of the
+   *         given primitive field, or -1 if it is in the primitiveUsedMap
+   */
+  public static int getPrimitiveFieldMaskIndex(final int fieldIndex) {
+    assert 0 <= fieldIndex;
+    return fieldIndex / PRIM_USED_MAP_BITS - 1;
+  }
+
+  public final boolean isPrimitiveSet(final long mask) {
     return (primitiveUsedMap & mask) != 0;
   }
 
-  public final void markPrimAsSet(final int mask) {
+  public final void markPrimAsSet(final long mask) {
     primitiveUsedMap |= mask;
   }
 
+  public final boolean isExtendedPrimitiveSet(final int maskIndex, final long mask) {
+    return (extensionPrimUsedMap[maskIndex] & mask) != 0;
+  }
+
+  public final void markExtendedPrimAsSet(final int maskIndex, final long mask) {
+    extensionPrimUsedMap[maskIndex] |= mask;
+  }
+
   private StorageLocation getLocation(final long index) {
     StorageLocation location = objectLayout.getStorageLocation(index);
     assert location != null;
@@ -290,28 +478,32 @@ public class SObject extends SAbstractObject {
     }
   }
 
-  private static long getFirstObjectFieldOffset() {
-    CompilerAsserts.neverPartOfCompilation("SObject.getFirstObjectFieldOffset()");
+  private static long[] getFieldOffsets(final String prefix, final int numFields) {
+    CompilerAsserts.neverPartOfCompilation("SObject.getFieldOffsets()");
     try {
       final FieldOffsetProvider fieldOffsetProvider = getFieldOffsetProvider();
 
-      final Field firstField = SObject.class.getDeclaredField("field1");
-      return fieldOffsetProvider.objectFieldOffset(firstField);
+      long[] offsets = new long[numFields];
+      for (int i = 0; i < numFields; i++) {
+        Field field = getInlineField(prefix + (i + 1));
+        offsets[i] = fieldOffsetProvider.objectFieldOffset(field);
+      }
+      return offsets;
     } catch (NoSuchFieldException | IllegalAccessException e) {
       throw new RuntimeException(e);
     }
   }
 
-  private static long getFirstPrimFieldOffset() {
-    CompilerAsserts.neverPartOfCompilation("SObject.getFirstPrimFieldOffset()");
-    try {
-      final FieldOffsetProvider fieldOffsetProvider = getFieldOffsetProvider();
-
-      final Field firstField = SObject.class.getDeclaredField("primField1");
-      return fieldOffsetProvider.objectFieldOffset(firstField);
-    } catch (NoSuchFieldException | IllegalAccessException e) {
-      throw new RuntimeException(e);
+  private static Field getInlineField(final String name) throws NoSuchFieldException {
+    Class<?> cls = SObject5.class;
+    while (cls != SObject.class) {
+      try {
+        return cls.getDeclaredField(name);
+      } catch (NoSuchFieldException e) {
+        cls = cls.getSuperclass();
+      }
     }
+    throw new NoSuchFieldException(name);
   }
 
   private static FieldOffsetProvider getFieldOffsetProvider()
@@ -323,33 +515,4 @@ public class SObject extends SAbstractObject {
         (FieldOffsetProvider) fieldOffsetProviderField.get(null);
     return fieldOffsetProvider;
   }
-
-  private static long getObjectFieldLength() {
-    CompilerAsserts.neverPartOfCompilation("getObjectFieldLength()");
-
-    try {
-      return getFieldDistance("field1", "field2");
-    } catch (NoSuchFieldException | IllegalAccessException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
-  private static long getPrimFieldLength() {
-    CompilerAsserts.neverPartOfCompilation("getPrimFieldLength()");
-
-    try {
-      return getFieldDistance("primField1", "primField2");
-    } catch (NoSuchFieldException | IllegalAccessException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
-  private static long getFieldDistance(final String field1, final String field2) throws NoSuchFieldException,
-      IllegalAccessException {
-    final FieldOffsetProvider fieldOffsetProvider = getFieldOffsetProvider();
-
-    final Field firstField  = SObject.class.getDeclaredField(field1);
-    final Field secondField = SObject.class.getDeclaredField(field2);
-    return fieldOffsetProvider.objectFieldOffset(secondField) - fieldOffsetProvider.objectFieldOffset(firstField);
-  }
 }
@@ -50,6 +50,10 @@ public class BasicInterpreterTests {
         {"NonLocalReturn", "test3",  3, Long.class },
         {"NonLocalReturn", "test4", 42, Long.class },
         {"NonLocalReturn", "test5", 22, Long.class },
+        {"NonLocalReturn", "test6",  6, Long.class },
+        {"NonLocalReturn", "test7", 77, Long.class },
+        {"NonLocalReturn", "test8", 140000, Long.class },
+        {"NonLocalReturn", "test9", 140001, Long.class },
 
         {"Blocks", "arg1",  42, Long.class },
         {"Blocks", "arg2",  77, Long.class },
@@ -73,6 +77,54 @@ public class BasicInterpreterTests {
         {"CompilerSimplification", "testReturnArgumentA",   44, Long.class },
         {"CompilerSimplification", "testSetField",          "foo", SSymbol.class },
         {"CompilerSimplification", "testGetField",          40, Long.class },
+
+        {"EagerPrimitiveFallback", "fallbacksAtOverloadedSite", 1, Long.class },
+
+        {"ClassHierarchy", "subclassLoadedAfterSiteCoversHierarchy", 112, Long.class },
+
+        {"Arrays", "emptyReadsNil",                        1, Long.class },
+        {"Arrays", "partiallyEmpty",                      42, Long.class },
+        {"Arrays", "partiallyEmptyWithMixedValues",       11, Long.class },
+        {"Arrays", "longs",                               24, Long.class },
+        {"Arrays", "longsGeneralizeToObject",      "object", SSymbol.class },
+        {"Arrays", "longsGeneralizeWithNil",               4, Long.class },
+        {"Arrays", "doublesGeneralizeToObject",           43, Long.class },
+        {"Arrays", "booleansGeneralizeToObject",          18, Long.class },
+        {"Arrays", "classMethodsAreCopied",    "unmodified", SSymbol.class },
+        {"Arrays", "classFieldsAreCopied",          "field", SSymbol.class },
+
+        {"ManyFields", "roundTrip",         70, Long.class },
+        {"ManyFields", "unsetFieldsAreNil",  4, Long.class },
+
+        {"ObsoleteLayouts", "readAfterGeneralization",         3, Long.class },
+        {"ObsoleteLayouts", "writeAfterGeneralization",       42, Long.class },
+        {"ObsoleteLayouts", "writeGeneralizedValue", "generalized", SSymbol.class },
+        {"ObsoleteLayouts", "migrateObsoleteInstances",        3, Long.class },
+
+        {"HeapInspection", "retainedSizeIncludesShallowSize",       2, Long.class },
+        {"HeapInspection", "retainedSizeOfObjectWithoutReferences", 0, Long.class },
+        {"HeapInspection", "retainedSizeIncludesCapturedFrame",     1, Long.class },
+        {"HeapInspection", "heapHistogramCountsFreshInstances",     5, Long.class },
+
+        {"InlinedBlocks", "blockLocalsAreResetInEachIteration",  3, Long.class },
+        {"InlinedBlocks", "blockLocalsAreResetInWhileLoop",      3, Long.class },
+        {"InlinedBlocks", "closuresCaptureLoopVariable",       123, Long.class },
+        {"InlinedBlocks", "closuresCaptureBlockLocal",         246, Long.class },
+        {"InlinedBlocks", "returnFromIfTrueInToDo",              4, Long.class },
+        {"InlinedBlocks", "returnFromIfTrueInWhileLoop",         7, Long.class },
+        {"InlinedBlocks", "nonBooleanIfTrue",  "customIfTrue", SSymbol.class },
+        {"InlinedBlocks", "nonBooleanWhileCondition",            1, Long.class },
+        {"InlinedBlocks", "nonIntegerToDo",    "customToDo",   SSymbol.class },
+        {"InlinedBlocks", "doubleToDo",                          3, Long.class },
+        {"InlinedBlocks", "doubleToDoIndex",                     7, Long.class },
+        {"InlinedBlocks", "mixedToDoSite",                     340, Long.class },
+        {"InlinedBlocks", "downToDo",                        54321, Long.class },
+        {"InlinedBlocks", "doubleDownToDo",                     43, Long.class },
+        {"InlinedBlocks", "timesRepeat",                        12, Long.class },
+        {"InlinedBlocks", "whileTrueWithoutBody",                5, Long.class },
+        {"InlinedBlocks", "whileFalseWithoutBody",               3, Long.class },
+        {"InlinedBlocks", "returnFromRepeat",                    6, Long.class },
+        {"InlinedBlocks", "returnFromRepeatInBlock",             8, Long.class },
     });
   }
 
@@ -119,7 +171,7 @@ public class BasicInterpreterTests {
   public void testBasicInterpreterBehavior() {
     Universe u = Universe.current();
     u.setAvoidExit(true);
-    u.setupClassPath("Smalltalk:TestSuite/BasicInterpreterTests");
+    u.setupClassPath("Smalltalk:BasicInterpreterTests:TestSuite/BasicInterpreterTests");
 
     Object actualResult = u.interpret(testClass, testSelector);
 
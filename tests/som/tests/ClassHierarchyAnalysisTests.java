@@ -0,0 +1,27 @@
+package som.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import som.compiler.SourcecodeCompiler;
+import som.vm.Universe;
+import som.vmobjects.SClass;
+
+public class ClassHierarchyAnalysisTests {
+
+  @Test
+  public void testOverrideInstalledAfterSiteCoversHierarchy() {
+    Universe u = Universe.current();
+    u.setAvoidExit(true);
+    u.setupClassPath("Smalltalk:BasicInterpreterTests");
+
+    assertEquals(11L, u.interpret("ClassHierarchy", "barOfBaseAndSub"));
+
+    SClass sub = (SClass) u.getGlobal(u.symbolFor("ClassHierarchySub"));
+    SourcecodeCompiler.compileClass(
+        "ClassHierarchySub = ClassHierarchyBase ( bar = ( ^ 3 ) )", sub, u);
+
+    assertEquals(13L, u.interpret("ClassHierarchy", "barOfBaseAndSub"));
+  }
+}
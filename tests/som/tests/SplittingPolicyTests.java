@@ -0,0 +1,59 @@
+package som.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import som.interpreter.Invokable;
+import som.interpreter.SplittingPolicy;
+import som.vm.Universe;
+import som.vmobjects.SClass;
+
+public class SplittingPolicyTests {
+
+  @Test
+  public void testMethodTakingBlockIsSplit() {
+    assertTrue(getInvokable("takesBlock:").isSplittable());
+  }
+
+  @Test
+  public void testMethodWithoutBlockArgumentIsSplitOnlyWhenAllMethodsAre() {
+    assertEquals(SplittingPolicy.SPLIT_ALL_METHODS,
+        getInvokable("takesValue:").isSplittable());
+  }
+
+  @Test
+  public void testSplitsAreBoundedByNodeBudget() {
+    Invokable invokable = getInvokable("splitUntilBudgetIsUsed:");
+    int nodeCount = invokable.getNodeCount();
+
+    while (invokable.isSplittable()) {
+      invokable.split();
+    }
+
+    int copiedNodes = invokable.getNumberOfSplits() * nodeCount;
+    assertTrue(copiedNodes <= SplittingPolicy.SPLIT_NODE_BUDGET);
+    assertTrue(copiedNodes + nodeCount > SplittingPolicy.SPLIT_NODE_BUDGET);
+  }
+
+  @Test
+  public void testSplitRecordsItsOriginal() {
+    Invokable invokable = getInvokable("takesBlockSplitOnce:");
+    Invokable split = (Invokable) invokable.split();
+
+    assertFalse(split == invokable);
+    assertEquals(invokable, split.getOriginal());
+    assertEquals(1, invokable.getNumberOfSplits());
+  }
+
+  private static Invokable getInvokable(final String selector) {
+    Universe u = Universe.current();
+    u.setAvoidExit(true);
+    u.setupClassPath("Smalltalk:BasicInterpreterTests");
+
+    SClass clazz = (SClass) u.interpret("Splitting", "loaded");
+    return clazz.lookupInvokable(u.symbolFor(selector)).getInvokable();
+  }
+}
@@ -0,0 +1,31 @@
+package som.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import som.compiler.SourcecodeCompiler;
+import som.vm.Universe;
+import som.vmobjects.SClass;
+
+public class SuperSendTests {
+
+  @Test
+  public void testSuperSendAfterTargetIsReplacedAndRemoved() {
+    Universe u = Universe.current();
+    u.setAvoidExit(true);
+    u.setupClassPath("Smalltalk:BasicInterpreterTests");
+
+    assertEquals(11L, u.interpret("SuperSend", "target"));
+
+    SClass base = (SClass) u.getGlobal(u.symbolFor("SuperSendBase"));
+    SourcecodeCompiler.compileClass(
+        "SuperSendBase = ( target = ( ^ 2 ) )", base, u);
+    assertEquals(12L, u.interpret("SuperSend", "target"));
+
+    SourcecodeCompiler.compileClass(
+        "SuperSendBase = ( doesNotUnderstand: selector arguments: args = ( ^ 100 ) )",
+        base, u);
+    assertEquals(110L, u.interpret("SuperSend", "target"));
+  }
+}